@@ -0,0 +1,234 @@
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Paces requests to a rate-limited API with a token bucket whose rate adapts to
+ * the server's answers.
+ *
+ * <p>The bucket starts at the configured ceiling and holds up to one second's worth
+ * of tokens, so short bursts go out at once. Every successful response raises the
+ * rate by a twentieth of the ceiling, back up to the ceiling; every 429 halves it,
+ * down to the floor, and pauses all requests for the time given in Retry-After.
+ * Callers that find the bucket empty reserve a future token and wait for it, so
+ * requests are spaced evenly instead of retried in bursts.
+ *
+ * <p>It also decides how long to back off before a retry (exponential with full
+ * jitter) and counts requests, throttled responses, retries, failures and time
+ * spent waiting.
+ */
+public class AdaptiveRateLimiter {
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final double maxRate;
+    private final double minRate;
+    private final int maxRetries;
+    private final long baseBackoffNanos;
+    private final LongSupplier clock;
+
+    private double rate;
+    private double tokens;
+    private long lastRefill;
+    private long pausedUntil;
+
+    private long requests;
+    private long throttled;
+    private long retries;
+    private long failures;
+    private long waitNanos;
+
+    /**
+     * Constructs a limiter.
+     *
+     * @param maxRate The highest rate to send at, in requests per second.
+     * @param minRate The lowest rate to slow down to, in requests per second.
+     * @param maxRetries How many times a failed request may be retried.
+     * @param baseBackoff The backoff before the first retry; it doubles each attempt.
+     * @throws IllegalArgumentException if the rates are not positive or minRate exceeds maxRate.
+     */
+    public AdaptiveRateLimiter(double maxRate, double minRate, int maxRetries, Duration baseBackoff) {
+        this(maxRate, minRate, maxRetries, baseBackoff, System::nanoTime);
+    }
+
+    AdaptiveRateLimiter(double maxRate, double minRate, int maxRetries, Duration baseBackoff,
+                        LongSupplier clock) {
+        if (minRate <= 0 || maxRate < minRate) {
+            throw new IllegalArgumentException("Rates must satisfy 0 < minRate <= maxRate.");
+        }
+        this.maxRate = maxRate;
+        this.minRate = minRate;
+        this.maxRetries = maxRetries;
+        this.baseBackoffNanos = baseBackoff.toNanos();
+        this.clock = clock;
+        this.rate = maxRate;
+        this.tokens = Math.max(1, maxRate);
+        this.lastRefill = clock.getAsLong();
+        this.pausedUntil = lastRefill;
+    }
+
+    /**
+     * Takes a token, sleeping until one is available.
+     *
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public void acquire() throws InterruptedException {
+        long wait = reserve();
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    /**
+     * Takes a token without blocking.
+     *
+     * @return A future completed once the token is available.
+     */
+    public CompletableFuture<Void> acquireAsync() {
+        long wait = reserve();
+        if (wait <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> { },
+                CompletableFuture.delayedExecutor(wait, TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Takes a token, going into debt if none is left, and returns how long the caller
+     * must wait before sending.
+     *
+     * @return the wait in nanoseconds, or 0 to send now
+     */
+    synchronized long reserve() {
+        long now = clock.getAsLong();
+        refill(now);
+        requests++;
+        tokens -= 1;
+        long wait = Math.max(pausedUntil - now, 0);
+        if (tokens < 0) {
+            wait = Math.max(wait, (long) (-tokens / rate * NANOS_PER_SECOND));
+        }
+        waitNanos += wait;
+        return wait;
+    }
+
+    /**
+     * Records a successful response and speeds up towards the ceiling.
+     */
+    public synchronized void onSuccess() {
+        setRate(Math.min(maxRate, rate + maxRate / 20));
+    }
+
+    /**
+     * Records a 429 response: halves the rate and holds back every request until the
+     * server's Retry-After time has passed.
+     *
+     * @param retryAfter The server's Retry-After, or null if it gave none.
+     */
+    public synchronized void onThrottled(Duration retryAfter) {
+        throttled++;
+        setRate(Math.max(minRate, rate / 2));
+        if (retryAfter != null) {
+            pausedUntil = Math.max(pausedUntil, clock.getAsLong() + retryAfter.toNanos());
+        }
+    }
+
+    /**
+     * Decides whether a failed attempt may be retried, counting it either as a retry
+     * or as a final failure.
+     *
+     * @param attempt The number of the attempt that failed, starting at 0.
+     * @return true if the request should be sent again.
+     */
+    public synchronized boolean shouldRetry(int attempt) {
+        if (attempt < maxRetries) {
+            retries++;
+            return true;
+        }
+        failures++;
+        return false;
+    }
+
+    /**
+     * Returns a random backoff before retrying an attempt: uniformly distributed up
+     * to the base backoff doubled once per earlier attempt, capped at 30 seconds.
+     *
+     * @param attempt The number of the attempt that failed, starting at 0.
+     * @return the backoff in nanoseconds
+     */
+    public long backoffNanos(int attempt) {
+        long ceiling = Math.min(MAX_BACKOFF_NANOS, baseBackoffNanos << Math.min(attempt, 30));
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Returns the current rate, in requests per second.
+     */
+    public synchronized double getRate() {
+        return rate;
+    }
+
+    /**
+     * Returns the highest rate the limiter sends at, in requests per second.
+     */
+    public double getMaxRate() {
+        return maxRate;
+    }
+
+    /**
+     * Returns how many requests have taken a token, including retries.
+     */
+    public synchronized long getRequestCount() {
+        return requests;
+    }
+
+    /**
+     * Returns how many 429 responses have been received.
+     */
+    public synchronized long getThrottledCount() {
+        return throttled;
+    }
+
+    /**
+     * Returns how many failed attempts have been retried.
+     */
+    public synchronized long getRetryCount() {
+        return retries;
+    }
+
+    /**
+     * Returns how many requests were given up after their last retry.
+     */
+    public synchronized long getFailureCount() {
+        return failures;
+    }
+
+    /**
+     * Returns the total time requests were held back by the bucket or a Retry-After pause.
+     */
+    public synchronized Duration getTotalWait() {
+        return Duration.ofNanos(waitNanos);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%.1f/%.1f req/s, %d requests, %d throttled, %d retries, %d failures, %d ms waiting",
+                rate, maxRate, requests, throttled, retries, failures,
+                TimeUnit.NANOSECONDS.toMillis(waitNanos));
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(Math.max(1, rate), tokens + (now - lastRefill) * rate / NANOS_PER_SECOND);
+        lastRefill = now;
+    }
+
+    /**
+     * Changes the rate, first crediting the tokens earned at the old rate.
+     */
+    private void setRate(double newRate) {
+        refill(clock.getAsLong());
+        rate = newRate;
+    }
+}
@@ -1,27 +1,135 @@
 import java.util.*;
 
 /**
- * Provides autocomplete functionality for movie title input using a Trie.
+ * Provides autocomplete functionality for movie title input using a compressed
+ * (radix) trie.
+ *
+ * <p>Titles and prefixes are compared by their {@link TitleIndex#key(String)} keys,
+ * so case, accents and punctuation do not matter, and every suggestion can be
+ * found in a TitleIndex.
+ *
+ * <p>Edges carry whole runs of key characters and children are kept in
+ * sorted char arrays, so a title costs at most one new node and one split. Every
+ * node keeps its best {@code suggestionLimit} terms in an array ordered by
+ * descending weight (ties in insertion order). A suggestion is a walk down the
+ * prefix and an array copy, with no sorting per keystroke.
+ *
+ * <p>A second radix trie indexes every distinct word of every title, so "knight"
+ * also finds "The Dark Knight". A word's node lists the titles containing it in
+ * insertion order (its posting list) and ranks its subtree like the title trie.
+ * Both tries refer to the same Term objects. Matches at the start of the title
+ * are suggested first, followed by titles matching by word.
+ *
+ * <p>{@link #suggestFuzzy(String)} tolerates typos by walking the trie with a
+ * Levenshtein automaton (simulated one dynamic-programming row per trie character)
+ * and pruning every branch that can no longer come within the edit budget.
  */
 
 public class Autocomplete {
 
-    private final Node root = new Node();
+    // Orders terms by descending weight, then by insertion order
+    private static final Comparator<Term> RANKING =
+            (a, b) -> ranksBefore(a, b) ? -1 : ranksBefore(b, a) ? 1 : 0;
+
+    private final Node root;
+    private final Node wordRoot;
     private int suggestionLimit = 10;
+    private int nextSequence = 0;
+
+    /**
+     * Creates an empty trie.
+     */
+    public Autocomplete() {
+        this(new Node(), new Node());
+    }
+
+    private Autocomplete(Node root, Node wordRoot) {
+        this.root = root;
+        this.wordRoot = wordRoot;
+    }
 
     /**
      * Inserts a term (movie title + weight) into the trie.
+     *
+     * @return the inserted term, for later {@link #updateWeight(Term, long)} calls
      */
-    public void insert(String title, long weight) {
-        Node node = root;
+    public Term insert(String title, long weight) {
         Term term = new Term(title, weight);
-        String lowerTitle = title.toLowerCase();
+        term.sequence = nextSequence++;
+        term.key = TitleIndex.key(title);
+        char[] key = term.key.toCharArray();
+        if (key.length == 0) {
+            return term;
+        }
 
-        for (char c : lowerTitle.toCharArray()) {
-            node = node.children.computeIfAbsent(c, k -> new Node());
-            node.suggestions.add(term);  // Accumulate suggestions
+        insert(root, key, term);
+        for (char[] word : titleWords(term)) {
+            insert(wordRoot, word, term);
         }
-        node.isEndOfWord = true;
+        return term;
+    }
+
+    /**
+     * Returns an independent copy of this trie, with its own copy of every term;
+     * inserting into the copy or changing its weights does not affect readers of
+     * this one.
+     *
+     * @return the copy
+     */
+    public Autocomplete copy() {
+        Map<Term, Term> copies = new IdentityHashMap<>();
+        Autocomplete copy = new Autocomplete();
+        copy.suggestionLimit = suggestionLimit;
+        copy.nextSequence = nextSequence;
+        copyNode(root, copy.root, copies);
+        copyNode(wordRoot, copy.wordRoot, copies);
+        return copy;
+    }
+
+    /**
+     * Returns a trie that differs from this one only in the weight of one term,
+     * leaving this trie and its readers untouched. Only the term and the nodes on its
+     * path and on the paths of its words are copied; every other node is shared with
+     * this trie, so neither trie may be changed in place afterwards without first
+     * {@link #copy()}ing it.
+     *
+     * @param term A term of this trie, or the handle it had in a trie this one was
+     *             copied or derived from; terms are matched by insertion order.
+     * @param weight The new weight.
+     * @return the new trie, or null if the term is not in this trie
+     * @throws IllegalArgumentException if the weight is negative.
+     */
+    Autocomplete withWeight(Term term, long weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight must be non-negative.");
+        }
+        List<Node> path = term.key == null ? null : path(root, term.key.toCharArray());
+        if (path == null || path.isEmpty()) {
+            return null;
+        }
+        Term current = null;
+        Node end = path.getLast();
+        for (int i = 0; i < end.termCount && current == null; i++) {
+            if (end.terms[i].sequence == term.sequence) {
+                current = end.terms[i];
+            }
+        }
+        if (current == null) {
+            return null;
+        }
+
+        Term updated = copyTerm(current);
+        updated.setWeight(weight);
+        Set<Node> copied = Collections.newSetFromMap(new IdentityHashMap<>());
+        Autocomplete result = new Autocomplete(copyNodeOnly(root, current, updated, copied),
+                copyNodeOnly(wordRoot, current, updated, copied));
+        result.suggestionLimit = suggestionLimit;
+        result.nextSequence = nextSequence;
+        result.copyPath(result.root, current.key.toCharArray(), current, updated, copied);
+        for (char[] word : titleWords(current)) {
+            result.copyPath(result.wordRoot, word, current, updated, copied);
+        }
+        return result;
     }
 
     /**
@@ -34,27 +142,647 @@ public class Autocomplete {
     }
 
     /**
-     * Suggest titles that match the prefix, sorted by descending weight.
+     * Suggest titles that match the prefix, sorted by descending weight. Titles
+     * starting with the prefix come first; then titles containing its words, where
+     * every word but the last must appear whole and the last may be a word prefix.
      */
     public List<Term> suggest(String prefix) {
-        Node node = root;
-        String lowerPrefix = prefix.toLowerCase();
+        char[] key = prefixKey(prefix);
+        List<Term> matches = new ArrayList<>(suggestionLimit);
+        Node node = find(root, key, false);
+        if (node != null) {
+            matches.addAll(Arrays.asList(node.top).subList(0, node.topSize));
+        }
+        if (matches.size() < suggestionLimit) {
+            addAbsent(matches, wordMatches(key));
+        }
+        return matches.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(matches);
+    }
 
-        for (char c : lowerPrefix.toCharArray()) {
-            node = node.children.get(c);
-            if (node == null) {
-                return Collections.emptyList();
+    /**
+     * Suggest titles whose beginning is within a few edits of the prefix, picking the
+     * edit budget from the prefix length: none up to 2 characters, 1 up to 5 and 2
+     * beyond that. Exact matches, as from {@link #suggest(String)}, always come first.
+     *
+     * @param prefix The text typed so far.
+     * @return Up to the suggestion limit of titles, closest match first.
+     */
+    public List<Term> suggestFuzzy(String prefix) {
+        int length = prefix.length();
+        return suggestFuzzy(prefix, length <= 2 ? 0 : length <= 5 ? 1 : 2);
+    }
+
+    /**
+     * Suggest titles whose beginning is within maxEdits of the prefix. An edit is
+     * inserting, deleting or substituting one character, or swapping two adjacent
+     * ones. Exact matches, as from {@link #suggest(String)}, come first; typo matches
+     * against the start of the title follow by edit distance, then by descending weight.
+     *
+     * @param prefix The text typed so far.
+     * @param maxEdits The largest edit distance to accept, normally 1 or 2.
+     * @return Up to the suggestion limit of titles, closest match first.
+     * @throws IllegalArgumentException if maxEdits is negative.
+     */
+    public List<Term> suggestFuzzy(String prefix, int maxEdits) {
+        if (maxEdits < 0) {
+            throw new IllegalArgumentException("maxEdits must be non-negative.");
+        }
+        List<Term> exact = suggest(prefix);
+        if (maxEdits == 0 || prefix.isEmpty() || exact.size() == suggestionLimit) {
+            return exact;
+        }
+
+        char[] query = prefixKey(prefix);
+        // A trie path longer than the query plus the budget can never match
+        int[][] rows = new int[query.length + maxEdits + 1][query.length + 1];
+        for (int j = 0; j <= query.length; j++) {
+            rows[0][j] = j;
+        }
+        char[] path = new char[rows.length];
+        Map<Term, Integer> distances = new HashMap<>();
+        fuzzyWalk(root, 0, query, maxEdits, rows, path, distances);
+
+        List<Term> fuzzy = new ArrayList<>(distances.keySet());
+        fuzzy.sort(Comparator.comparingInt((Term t) -> distances.get(t)).thenComparing(RANKING));
+        List<Term> matches = new ArrayList<>(exact);
+        addAbsent(matches, fuzzy);
+        return Collections.unmodifiableList(matches);
+    }
+
+    /**
+     * Extends the automaton state along every child edge of a node. Whenever the
+     * trie text so far is within the budget of the whole query, the node's ranking
+     * becomes a candidate; the walk only goes deeper while that could still find
+     * a closer match.
+     *
+     * @param depth The number of trie characters consumed so far.
+     * @param rows rows[d][j] is the edit distance between the first d trie characters
+     *             and the first j query characters.
+     * @param path The trie characters consumed so far.
+     * @param distances The best distance found for each candidate term.
+     */
+    private void fuzzyWalk(Node node, int depth, char[] query, int maxEdits,
+                           int[][] rows, char[] path, Map<Term, Integer> distances) {
+        int n = query.length;
+        for (Node child : node.children) {
+            int d = depth;
+            boolean descend = true;
+            for (char c : child.label) {
+                if (d + 1 >= rows.length) {
+                    descend = false;
+                    break;
+                }
+                d++;
+                path[d] = c;
+                int[] row = rows[d];
+                int[] above = rows[d - 1];
+                row[0] = d;
+                int min = d;
+                for (int j = 1; j <= n; j++) {
+                    int cost = query[j - 1] == c ? 0 : 1;
+                    int value = Math.min(Math.min(above[j] + 1, row[j - 1] + 1), above[j - 1] + cost);
+                    if (d > 1 && j > 1 && query[j - 1] == path[d - 1] && query[j - 2] == c) {
+                        value = Math.min(value, rows[d - 2][j - 2] + 1);  // adjacent swap
+                    }
+                    row[j] = value;
+                    min = Math.min(min, value);
+                }
+
+                if (row[n] <= maxEdits) {
+                    for (int i = 0; i < child.topSize; i++) {
+                        distances.merge(child.top[i], row[n], Math::min);
+                    }
+                    if (min >= row[n]) {
+                        descend = false;  // nothing deeper can be closer
+                        break;
+                    }
+                }
+                if (min > maxEdits) {
+                    descend = false;
+                    break;
+                }
+            }
+            if (descend) {
+                fuzzyWalk(child, d, query, maxEdits, rows, path, distances);
             }
         }
+    }
+
+    /**
+     * Changes the weight of an inserted title. When several titles are equal, the
+     * first inserted is changed; use {@link #updateWeight(Term, long)} to pick one.
+     *
+     * @param title The exact title as inserted.
+     * @param weight The new weight.
+     * @return true if the title was found, false otherwise.
+     * @throws IllegalArgumentException if the weight is negative.
+     */
+    public boolean updateWeight(String title, long weight) {
+        List<Node> path = path(root, TitleIndex.key(title).toCharArray());
+        if (path == null || path.isEmpty()) {
+            return false;
+        }
+
+        Node node = path.getLast();
+        for (int i = 0; i < node.termCount; i++) {
+            if (node.terms[i].getTerm().equals(title)) {
+                return updateWeight(node.terms[i], weight);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Changes the weight of an inserted term and repairs the ranking of every node
+     * on its path and on the paths of its words, leaving the rest of the trie alone.
+     * Weights should be changed through this method rather than
+     * {@link Term#setWeight(long)}, which the trie cannot observe.
+     *
+     * @param term A term returned by {@link #insert(String, long)}.
+     * @param weight The new weight.
+     * @return true if the term is in this trie, false otherwise.
+     * @throws IllegalArgumentException if the weight is negative.
+     */
+    public boolean updateWeight(Term term, long weight) {
+        char[] key = TitleIndex.key(term.getTerm()).toCharArray();
+        List<Node> path = path(root, key);
+        if (path == null || path.isEmpty() || !Arrays.asList(path.getLast().terms).contains(term)) {
+            return false;
+        }
 
-        // Sort suggestions (optional: cache this for performance)
-        return node.suggestions.stream()
-                .sorted(Term.byReverseWeightOrder())
-                .limit(suggestionLimit)
-                .toList(); // Java 16+, use `collect(Collectors.toList())` for older
+        term.setWeight(weight);
+        rebuild(path);
+        for (char[] word : titleWords(term)) {
+            rebuild(path(wordRoot, word));
+        }
+        return true;
     }
 
     public void setSuggestionLimit(int limit) {
-        this.suggestionLimit = limit;
+        if (limit != suggestionLimit) {
+            this.suggestionLimit = limit;
+            rebuildBelow(root);
+            rebuildBelow(wordRoot);
+        }
+    }
+
+    /**
+     * Finds the best titles containing all the words of a query key. The last word
+     * is matched as a word prefix unless the key ends in a space, the others as
+     * whole words.
+     *
+     * @return up to the suggestion limit of titles, best first
+     */
+    private List<Term> wordMatches(char[] key) {
+        List<char[]> words = words(key);
+        if (words.isEmpty()) {
+            return Collections.emptyList();
+        }
+        boolean lastIsPrefix = key[key.length - 1] != ' ';
+        char[] last = words.getLast();
+        if (words.size() == 1 && lastIsPrefix) {
+            Node node = find(wordRoot, last, false);
+            return node == null ? Collections.emptyList() : Arrays.asList(node.top).subList(0, node.topSize);
+        }
+
+        // Intersect the posting lists of the whole words, shortest first
+        List<Node> postings = new ArrayList<>();
+        for (char[] word : lastIsPrefix ? words.subList(0, words.size() - 1) : words) {
+            Node node = find(wordRoot, word, true);
+            if (node == null || node.termCount == 0) {
+                return Collections.emptyList();
+            }
+            postings.add(node);
+        }
+        postings.sort(Comparator.comparingInt((Node n) -> n.termCount));
+        Node shortest = postings.getFirst();
+
+        List<Term> matches = new ArrayList<>();
+        for (int i = 0; i < shortest.termCount; i++) {
+            Term term = shortest.terms[i];
+            if (inAll(term, postings) && (!lastIsPrefix || hasWordStartingWith(term, last))) {
+                matches.add(term);
+            }
+        }
+        matches.sort(RANKING);
+        return matches;
+    }
+
+    /**
+     * Checks whether a term appears in every posting list. Posting lists are in
+     * insertion order, so each check is a binary search on the sequence number.
+     */
+    private static boolean inAll(Term term, List<Node> postings) {
+        for (Node node : postings) {
+            int low = 0;
+            int high = node.termCount - 1;
+            boolean found = false;
+            while (low <= high && !found) {
+                int mid = (low + high) >>> 1;
+                int sequence = node.terms[mid].sequence;
+                if (sequence < term.sequence) {
+                    low = mid + 1;
+                } else if (sequence > term.sequence) {
+                    high = mid - 1;
+                } else {
+                    found = true;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Appends terms not already in the list until it reaches the suggestion limit.
+     */
+    private void addAbsent(List<Term> matches, List<Term> more) {
+        for (Term term : more) {
+            if (matches.size() >= suggestionLimit) {
+                return;
+            }
+            boolean present = false;
+            for (Term t : matches) {
+                if (t == term) {
+                    present = true;
+                    break;
+                }
+            }
+            if (!present) {
+                matches.add(term);
+            }
+        }
+    }
+
+    /**
+     * Inserts a term under a lowercased key, splitting edges where the key diverges
+     * and offering the term to every node on its path.
+     */
+    private void insert(Node start, char[] key, Term term) {
+        Node node = start;
+        int i = 0;
+        while (true) {
+            Node child = node.child(key[i]);
+            if (child == null) {
+                Node leaf = new Node();
+                leaf.label = Arrays.copyOfRange(key, i, key.length);
+                node.putChild(leaf);
+                leaf.addTerm(term);
+                offer(leaf, term);
+                return;
+            }
+
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length) {
+                child = split(node, child, common);
+            }
+            offer(child, term);
+            i += common;
+            if (i == key.length) {
+                child.addTerm(term);
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Walks down from a node along a lowercased key. Unless whole is set, the key
+     * may end partway along an edge, in which case the node below that edge is
+     * returned.
+     *
+     * @return the node covering the key, or null if no key starts with it (or, for a
+     *         whole key, ends exactly with it)
+     */
+    private static Node find(Node start, char[] key, boolean whole) {
+        Node node = start;
+        int i = 0;
+        while (i < key.length) {
+            node = node.child(key[i]);
+            if (node == null) {
+                return null;
+            }
+            int common = commonPrefix(node.label, key, i);
+            if (common < node.label.length) {
+                return !whole && i + common == key.length ? node : null;
+            }
+            i += common;
+        }
+        return node;
+    }
+
+    /**
+     * Returns the nodes from below start down to where a lowercased key ends, or null
+     * if the key does not end exactly at a node.
+     */
+    private static List<Node> path(Node start, char[] key) {
+        List<Node> path = new ArrayList<>();
+        Node node = start;
+        int i = 0;
+        while (i < key.length) {
+            node = node.child(key[i]);
+            if (node == null || commonPrefix(node.label, key, i) < node.label.length) {
+                return null;
+            }
+            i += node.label.length;
+            path.add(node);
+        }
+        return path;
+    }
+    /**
+     * Splits a child's edge so the first {@code at} characters lead to a new node.
+     *
+     * @return the new node, which now sits between parent and child
+     */
+    private Node split(Node parent, Node child, int at) {
+        Node middle = new Node();
+        middle.label = Arrays.copyOf(child.label, at);
+        child.label = Arrays.copyOfRange(child.label, at, child.label.length);
+        middle.putChild(child);
+        // The new node covers exactly the titles below the old child
+        middle.top = Arrays.copyOf(child.top, child.top.length);
+        middle.topSize = child.topSize;
+        parent.putChild(middle);
+        return middle;
+    }
+
+    /**
+     * Adds a term to a node's ranking if it beats the current last entry. A word
+     * node can be offered the same term along several paths; it is ranked once.
+     */
+    private void offer(Node node, Term term) {
+        int size = node.topSize;
+        for (int i = 0; i < size; i++) {
+            if (node.top[i] == term) {
+                return;
+            }
+        }
+        if (size == suggestionLimit) {
+            if (size == 0 || !ranksBefore(term, node.top[size - 1])) {
+                return;
+            }
+            size--;  // the last entry drops out
+        } else if (size == node.top.length) {
+            node.top = Arrays.copyOf(node.top, Math.min(suggestionLimit, Math.max(1, size * 2)));
+        }
+
+        int pos = size;
+        while (pos > 0 && ranksBefore(term, node.top[pos - 1])) {
+            node.top[pos] = node.top[pos - 1];
+            pos--;
+        }
+        node.top[pos] = term;
+        node.topSize = size + 1;
+    }
+
+    /**
+     * Recomputes a node's ranking from its own terms and its children's rankings.
+     */
+    private void rebuild(Node node) {
+        if (node.top.length > suggestionLimit) {
+            node.top = Node.NO_TERMS;
+        }
+        Arrays.fill(node.top, null);
+        node.topSize = 0;
+        for (int i = 0; i < node.termCount; i++) {
+            offer(node, node.terms[i]);
+        }
+        for (Node child : node.children) {
+            for (int i = 0; i < child.topSize; i++) {
+                offer(node, child.top[i]);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the nodes of a path bottom-up, so each node is rebuilt from children
+     * that are already correct.
+     */
+    private void rebuild(List<Node> path) {
+        for (int p = path.size() - 1; p >= 0; p--) {
+            rebuild(path.get(p));
+        }
+    }
+
+    private void rebuildBelow(Node node) {
+        for (Node child : node.children) {
+            rebuildBelow(child);
+            rebuild(child);
+        }
+    }
+
+    /**
+     * Copies a node's subtree into an empty node. Labels and keys are only ever
+     * replaced, never written in place, so they are shared; everything else is copied.
+     */
+    private static void copyNode(Node from, Node to, Map<Term, Term> copies) {
+        to.label = from.label;
+        to.keys = from.keys;
+        to.children = new Node[from.children.length];
+        for (int i = 0; i < from.children.length; i++) {
+            to.children[i] = new Node();
+            copyNode(from.children[i], to.children[i], copies);
+        }
+        to.terms = copyTerms(from.terms, copies);
+        to.termCount = from.termCount;
+        to.top = copyTerms(from.top, copies);
+        to.topSize = from.topSize;
+    }
+
+    /**
+     * Copies the nodes below start down to where a key ends, unless already copied,
+     * linking each copy into its copied parent and swapping one term for another,
+     * then re-ranks them bottom-up.
+     */
+    private void copyPath(Node start, char[] key, Term from, Term to, Set<Node> copied) {
+        List<Node> path = new ArrayList<>();
+        Node node = start;
+        int i = 0;
+        while (i < key.length) {
+            int index = Arrays.binarySearch(node.keys, key[i]);
+            Node child = node.children[index];
+            if (!copied.contains(child)) {
+                child = copyNodeOnly(child, from, to, copied);
+                node.children[index] = child;
+            }
+            i += child.label.length;
+            path.add(child);
+            node = child;
+        }
+        rebuild(path);
+    }
+
+    /**
+     * Copies one node without its subtree: the copy has its own arrays but the same
+     * children, with one term swapped for another.
+     */
+    private static Node copyNodeOnly(Node node, Term from, Term to, Set<Node> copied) {
+        Node copy = new Node();
+        copy.label = node.label;
+        copy.keys = node.keys;
+        copy.children = node.children.clone();
+        copy.terms = swapTerm(node.terms, from, to);
+        copy.termCount = node.termCount;
+        copy.top = swapTerm(node.top, from, to);
+        copy.topSize = node.topSize;
+        copied.add(copy);
+        return copy;
+    }
+
+    private static Term[] swapTerm(Term[] terms, Term from, Term to) {
+        Term[] copy = terms.length == 0 ? terms : terms.clone();
+        for (int i = 0; i < copy.length; i++) {
+            if (copy[i] == from) {
+                copy[i] = to;
+            }
+        }
+        return copy;
+    }
+
+    private static Term[] copyTerms(Term[] terms, Map<Term, Term> copies) {
+        if (terms.length == 0) {
+            return terms;
+        }
+        Term[] copy = new Term[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+            if (terms[i] != null) {
+                copy[i] = copies.computeIfAbsent(terms[i], Autocomplete::copyTerm);
+            }
+        }
+        return copy;
+    }
+
+    private static Term copyTerm(Term term) {
+        Term copy = new Term(term.getTerm(), term.getWeight());
+        copy.sequence = term.sequence;
+        copy.key = term.key;
+        return copy;
+    }
+
+    /**
+     * Orders terms by descending weight, then by insertion order.
+     */
+    private static boolean ranksBefore(Term a, Term b) {
+        return a.getWeight() > b.getWeight()
+                || (a.getWeight() == b.getWeight() && a.sequence < b.sequence);
+    }
+
+    /**
+     * Returns how many characters of the label match the key starting at offset.
+     */
+    private static int commonPrefix(char[] label, char[] key, int offset) {
+        int n = Math.min(label.length, key.length - offset);
+        int i = 0;
+        while (i < n && label[i] == key[offset + i]) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Splits a lowercased key into its words: runs of letters and digits.
+     */
+    private static List<char[]> words(char[] key) {
+        List<char[]> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= key.length; i++) {
+            boolean inWord = i < key.length && Character.isLetterOrDigit(key[i]);
+            if (inWord && start < 0) {
+                start = i;
+            } else if (!inWord && start >= 0) {
+                words.add(Arrays.copyOfRange(key, start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    private static List<char[]> distinct(List<char[]> words) {
+        List<char[]> distinct = new ArrayList<>(words.size());
+        for (char[] word : words) {
+            boolean seen = false;
+            for (char[] d : distinct) {
+                if (Arrays.equals(d, word)) {
+                    seen = true;
+                    break;
+                }
+            }
+            if (!seen) {
+                distinct.add(word);
+            }
+        }
+        return distinct;
+    }
+
+    /**
+     * Returns the distinct words a term is indexed under: the words of its key and,
+     * for a title with apostrophes, also the words split at them, so "d'Amélie" is
+     * found by "amelie" as well as "damelie".
+     */
+    private static List<char[]> titleWords(Term term) {
+        List<char[]> words = words(term.key.toCharArray());
+        String split = apostropheSplitKey(term.getTerm());
+        if (split != null) {
+            words.addAll(words(split.toCharArray()));
+        }
+        return distinct(words);
+    }
+
+    /**
+     * Returns the key of a title with its apostrophes read as spaces, or null if it
+     * has none.
+     */
+    private static String apostropheSplitKey(String title) {
+        if (title.indexOf('\'') < 0 && title.indexOf('’') < 0) {
+            return null;
+        }
+        return TitleIndex.key(title.replace('\'', ' ').replace('’', ' '));
+    }
+
+    /**
+     * Checks whether any word the term is indexed under starts with the given prefix.
+     */
+    private static boolean hasWordStartingWith(Term term, char[] prefix) {
+        if (hasWordStartingWith(term.key, prefix)) {
+            return true;
+        }
+        String split = apostropheSplitKey(term.getTerm());
+        return split != null && hasWordStartingWith(split, prefix);
+    }
+
+    /**
+     * Checks whether any word of a title key starts with the given prefix.
+     */
+    private static boolean hasWordStartingWith(String key, char[] prefix) {
+        for (int i = 0; i + prefix.length <= key.length(); i++) {
+            if (i > 0 && key.charAt(i - 1) != ' ') {
+                continue;
+            }
+            int j = 0;
+            while (j < prefix.length && key.charAt(i + j) == prefix[j]) {
+                j++;
+            }
+            if (j == prefix.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the key of a typed prefix. A prefix ending in a space or punctuation
+     * keeps one trailing space, so "dark " matches "Dark City" but not "Darkman".
+     */
+    private static char[] prefixKey(String prefix) {
+        String key = TitleIndex.key(prefix);
+        if (!key.isEmpty()) {
+            char last = prefix.charAt(prefix.length() - 1);
+            if (!Character.isLetterOrDigit(last) && last != '\'' && last != '’' && last != '&') {
+                key += ' ';
+            }
+        }
+        return key.toCharArray();
     }
 }
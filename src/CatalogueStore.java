@@ -0,0 +1,188 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps the preloaded catalogue on disk as a base {@link MovieSnapshot} followed by
+ * a log of delta segments, so a refresh only writes the movies that changed.
+ *
+ * <p>Each delta segment is a length-prefixed snapshot of new or updated movies,
+ * appended to the delta file. Loading reads the base and applies the segments in
+ * order; a movie in a later segment replaces the one with the same ID, keeping its
+ * place in the list. A segment cut short by a crash, and anything after it, is
+ * ignored and truncated away.
+ *
+ * <p>Compaction writes the merged catalogue as a new base and then empties the delta
+ * file. Applying a segment twice is harmless, so a crash between those two steps
+ * loses nothing. Appends and compactions are serialized, and compaction can run on
+ * a background thread while the game starts.
+ */
+class CatalogueStore {
+    private static final int MAX_SEGMENTS = 8;
+    private static final Executor COMPACTION_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Path base;
+    private final Path deltas;
+    private int segments;
+
+    /**
+     * Constructs a store over a base snapshot file and its delta file; neither needs
+     * to exist yet.
+     *
+     * @param base The base snapshot file.
+     * @param deltas The delta segment file.
+     */
+    CatalogueStore(Path base, Path deltas) {
+        this.base = base;
+        this.deltas = deltas;
+    }
+
+    /**
+     * Checks whether a base snapshot has been written.
+     */
+    boolean exists() {
+        return Files.exists(base);
+    }
+
+    /**
+     * Returns when the stored catalogue last changed, i.e. when its newest file was
+     * written.
+     *
+     * @return the time in milliseconds since the epoch, or 0 if nothing is stored
+     * @throws IOException if a file's time cannot be read.
+     */
+    synchronized long lastModified() throws IOException {
+        long time = 0;
+        for (Path path : List.of(base, deltas)) {
+            if (Files.exists(path)) {
+                time = Math.max(time, Files.getLastModifiedTime(path).toMillis());
+            }
+        }
+        return time;
+    }
+
+    /**
+     * Reads the base snapshot and applies every delta segment.
+     *
+     * @return The movies in base order, followed by movies first added by a delta.
+     * @throws IOException if the base snapshot cannot be read.
+     */
+    synchronized List<Movie> load() throws IOException {
+        Map<Long, Movie> movies = new LinkedHashMap<>();
+        for (Movie movie : MovieSnapshot.open(base).movies()) {
+            movies.put(movie.getMovieId(), movie);
+        }
+
+        segments = 0;
+        if (Files.exists(deltas)) {
+            long size = Files.size(deltas);
+            long valid = 0;
+            try (DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(Files.newInputStream(deltas)))) {
+                while (valid + Integer.BYTES <= size) {
+                    int length = in.readInt();
+                    if (length < 0 || length > size - valid - Integer.BYTES) {
+                        break;
+                    }
+                    byte[] segment = new byte[length];
+                    in.readFully(segment);
+                    for (Movie movie : MovieSnapshot.read(segment).movies()) {
+                        movies.put(movie.getMovieId(), movie);
+                    }
+                    valid += Integer.BYTES + segment.length;
+                    segments++;
+                }
+            } catch (IOException e) {
+                System.err.println("Ignoring unreadable catalogue delta: " + e.getMessage());
+            }
+            try (RandomAccessFile file = new RandomAccessFile(deltas.toFile(), "rw")) {
+                file.setLength(valid);
+            }
+        }
+        return new ArrayList<>(movies.values());
+    }
+
+    /**
+     * Appends a segment holding new or updated movies.
+     *
+     * @param changed The movies to store; nothing is written if it is empty.
+     * @throws IOException if the delta file cannot be written.
+     */
+    synchronized void appendDelta(List<Movie> changed) throws IOException {
+        if (changed.isEmpty()) {
+            return;
+        }
+        byte[] segment = MovieSnapshot.encode(changed);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(deltas.toFile(), true)))) {
+            out.writeInt(segment.length);
+            out.write(segment);
+        }
+        segments++;
+    }
+
+    /**
+     * Records that the catalogue was checked against TMDB now, even if nothing
+     * changed, by touching the delta file.
+     *
+     * @throws IOException if the delta file cannot be created or touched.
+     */
+    synchronized void markSynced() throws IOException {
+        if (!Files.exists(deltas)) {
+            Files.createFile(deltas);
+        }
+        Files.setLastModifiedTime(deltas, FileTime.fromMillis(System.currentTimeMillis()));
+    }
+
+    /**
+     * Checks whether the deltas have grown enough to be worth folding into the base:
+     * more than {@value #MAX_SEGMENTS} segments, or a quarter of the base's size.
+     *
+     * @return true if {@link #compact(List)} should run.
+     * @throws IOException if a file's size cannot be read.
+     */
+    synchronized boolean needsCompaction() throws IOException {
+        if (!Files.exists(deltas) || Files.size(deltas) == 0) {
+            return false;
+        }
+        return segments > MAX_SEGMENTS || !Files.exists(base) || Files.size(deltas) * 4 > Files.size(base);
+    }
+
+    /**
+     * Replaces the base with the given catalogue and empties the delta file.
+     *
+     * @param movies The whole catalogue, i.e. the base with every delta applied.
+     * @throws IOException if the files cannot be written.
+     */
+    synchronized void compact(List<Movie> movies) throws IOException {
+        MovieSnapshot.write(movies, base);
+        Files.deleteIfExists(deltas);
+        segments = 0;
+    }
+
+    /**
+     * Runs {@link #compact(List)} on a background thread. Failure only leaves the
+     * deltas in place for next time, so it is reported and otherwise ignored.
+     *
+     * @param movies The whole catalogue; must not change while compaction runs.
+     * @return A future completed when compaction has finished or failed.
+     */
+    CompletableFuture<Void> compactInBackground(List<Movie> movies) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                compact(movies);
+            } catch (IOException e) {
+                System.err.println("Catalogue compaction failed: " + e.getMessage());
+            }
+        }, COMPACTION_EXECUTOR);
+    }
+
+    synchronized int getSegmentCount() {
+        return segments;
+    }
+}
@@ -21,4 +21,25 @@ public class ConfigLoader {
     public static String get(String key) {
         return PROPERTIES.getProperty(key);
     }
+
+    /**
+     * Reads an integer setting, falling back to a default when the key is
+     * missing or not a number.
+     *
+     * @param key The property key.
+     * @param defaultValue The value to use when the property is absent or invalid.
+     * @return The configured integer, or defaultValue.
+     */
+    public static int getInt(String key, int defaultValue) {
+        String value = PROPERTIES.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid integer for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
 }
@@ -1,13 +1,18 @@
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controls the overall game flow, coordinating interactions between
  * the model (GameState, MovieDatabase), and the view (GameView).
  */
 public class GameController {
+    // Catalogue movies a starting movie must connect to, when the catalogue has such movies
+    private static final int MIN_START_NEIGHBOURS = ConfigLoader.getInt("game.minStartNeighbours", 3);
     private GameState gameState;
     private MovieDatabase movieDb;
+    // Counts ended turns; a guess is only applied during the turn it was made in
+    private int turn;
 
     /**
      * Constructs a GameController with the specified API key.
@@ -69,7 +74,11 @@ public class GameController {
         Player player1 = new Player(p1);
         Player player2 = new Player(p2);
 
-        Movie startingMovie = movieDb.getRandomMovie();
+        // Prefer a movie the first player can actually move on from
+        Movie startingMovie = movieDb.getRandomMovieWithNeighbours(MIN_START_NEIGHBOURS);
+        if (startingMovie == null) {
+            startingMovie = movieDb.getRandomMovie();
+        }
 
         // Make sure we have a valid starting movie
         if (startingMovie == null) {
@@ -83,18 +92,63 @@ public class GameController {
     }
 
     /**
-     * Processes a player's turn using the guessed movie title.
+     * Processes a player's turn using the guessed movie title, waiting for the title
+     * lookup.
      *
      * @param movieTitle the title of the movie guessed
      */
     public TurnResult processTurn(String movieTitle) {
-
         if (movieTitle == null || movieTitle.trim().isEmpty()) {
             return new TurnResult(false, "Movie title cannot be empty.");
         }
+        return judgeTurn(currentTurn(), movieTitle, movieDb.findByTitle(movieTitle));
+    }
+
+    /**
+     * Processes a player's turn without blocking: the title is looked up in the
+     * background, and the guess is judged and applied once it is found. If the turn
+     * ends first (see {@link #expireTurn()}), the guess changes nothing and the
+     * result is {@link TurnResult#isLate() late}.
+     *
+     * @param movieTitle the title of the movie guessed
+     * @return a future holding the outcome of the turn
+     */
+    public CompletableFuture<TurnResult> processTurnAsync(String movieTitle) {
+        if (movieTitle == null || movieTitle.trim().isEmpty()) {
+            return CompletableFuture.completedFuture(new TurnResult(false, "Movie title cannot be empty."));
+        }
+        int submitted = currentTurn();
+        return movieDb.findByTitleAsync(movieTitle)
+                .thenApply(movie -> judgeTurn(submitted, movieTitle, movie))
+                .exceptionally(e -> new TurnResult(false, "Could not look up " + movieTitle + ", please try again."));
+    }
+
+    /**
+     * Ends the current turn without a move, e.g. when its time runs out, so a guess
+     * still being looked up is not applied.
+     */
+    public synchronized void expireTurn() {
+        turn++;
+    }
+
+    private synchronized int currentTurn() {
+        return turn;
+    }
+
+    /**
+     * Judges a guess and, if it is a valid move made during the current turn, applies
+     * it to the game state.
+     *
+     * @param submitted the turn the guess was made in
+     * @param movieTitle the title of the movie guessed
+     * @param guessedMovie the movie the title refers to, or null if none was found
+     */
+    private synchronized TurnResult judgeTurn(int submitted, String movieTitle, Movie guessedMovie) {
+        if (submitted != turn) {
+            return TurnResult.late("Too late: the turn for " + movieTitle + " is over.");
+        }
 
         Player currentPlayer = gameState.getCurrentPlayer();
-        Movie guessedMovie = movieDb.findByTitle(movieTitle);
 
         if (guessedMovie == null) {
             return new TurnResult(false, "Oops, " + movieTitle + " is not found in the database.");
@@ -105,7 +159,7 @@ public class GameController {
         }
 
         Movie lastMovie = gameState.getCurrentMovie();
-        List<Connection> connections = lastMovie.findConnections(guessedMovie);
+        List<Connection> connections = movieDb.findConnections(lastMovie, guessedMovie);
 
         if (connections.isEmpty()) {
             return new TurnResult(false,
@@ -126,7 +180,8 @@ public class GameController {
 
         // Valid move
 
-        guessedMovie.addConnectionHistory(validConnections);
+        gameState.addConnectionHistory(guessedMovie, validConnections);
+        movieDb.recordPlay(guessedMovie);
         gameState.addMovieToHistory(guessedMovie);
         currentPlayer.addGuessedMovie(guessedMovie);
         gameState.getWinCondition().updatePlayerProgress(currentPlayer, guessedMovie);
@@ -140,6 +195,7 @@ public class GameController {
                 + " connected via " +
                 validConnStr;
 
+        turn++;
         if (gameState.hasCurrentPlayerWon()) {
             return new TurnResult(true, true,"Congrats " + currentPlayer.getName() + ", you won!");
         }
@@ -149,14 +205,15 @@ public class GameController {
     }
     /**
      * Retrieves a list of autocomplete suggestions based on the given input string.
-     * It queries the autocomplete engine from the movie database to find matching titles.
+     * It queries the autocomplete engine from the movie database to find matching titles,
+     * tolerating small typos once the input is a few characters long.
      *
      * @param input The partial input string for which to fetch autocomplete suggestions.
      * @return A list of suggested movie titles that match the input string.
      */
     public List<String> getAutocompleteSuggestions(String input) {
         List<String> results = new ArrayList<>();
-        for (Term title : movieDb.getAutocompleteEngine().suggest(input)) {
+        for (Term title : movieDb.suggestTitles(input)) {
             results.add(title.getTerm());
         }
         return results;
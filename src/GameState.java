@@ -14,6 +14,7 @@ public class GameState {
     private final List<Movie> history;
     private final Set<Movie> usedMovies;
     private final Map<String, Integer> connectionUsage;
+    private final Map<Movie, List<List<Connection>>> connectionHistory;
 
     public GameState(Player player1, Player player2,
                      WinCondition winCondition, Movie startingMovie) {
@@ -26,6 +27,7 @@ public class GameState {
         this.history = new ArrayList<>();
         this.usedMovies = new HashSet<>();
         this.connectionUsage = new HashMap<>();
+        this.connectionHistory = new HashMap<>();
 
         addMovieToHistory(startingMovie); // First movie played
         currentPlayer.addGuessedMovie(startingMovie);
@@ -41,6 +43,28 @@ public class GameState {
         usedMovies.add(movie);
     }
 
+    /**
+     * Records the connections used to reach a movie in this game. The history is
+     * kept here rather than on the Movie, which is shared by every game over the
+     * same catalogue.
+     *
+     * @param movie the movie that was reached
+     * @param connections the list of connections used to reach it
+     */
+    public void addConnectionHistory(Movie movie, List<Connection> connections) {
+        connectionHistory.computeIfAbsent(movie, m -> new ArrayList<>()).add(connections);
+    }
+
+    /**
+     * Returns the connections used to reach a movie in this game, oldest first.
+     *
+     * @param movie the movie to look up
+     * @return the connection lists, or an empty list if the movie was not reached by a connection
+     */
+    public List<List<Connection>> getConnectionHistory(Movie movie) {
+        return connectionHistory.getOrDefault(movie, Collections.emptyList());
+    }
+
     /**
      * Retrieves the most recent five movies in play history.
      *
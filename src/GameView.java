@@ -1,6 +1,4 @@
-import com.googlecode.lanterna.TerminalPosition;
 import com.googlecode.lanterna.TerminalSize;
-import com.googlecode.lanterna.TextCharacter;
 import com.googlecode.lanterna.TextColor;
 import com.googlecode.lanterna.input.*;
 import com.googlecode.lanterna.screen.*;
@@ -9,14 +7,24 @@ import com.googlecode.lanterna.terminal.*;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Handles the terminal-based user interface for the Movie Game.
  * Manages player input, screen updates, turn timer, and game progression.
+ *
+ * <p>All of the view's state is owned by the thread in {@link #run()}, which sleeps
+ * on an event queue. Keys read by a blocking input thread, timer ticks, finished
+ * turn lookups and redraw requests from other threads are all posted to that queue,
+ * so nothing polls and nothing else touches the screen.
  */
 public class GameView {
     /** Maximum allowed time (in seconds) for each player's turn. */
     private final int TIMELIMIT = 60;
+    /** How long (in milliseconds) printInfo shows a message. */
+    private static final long INFO_MILLIS = 3000;
+    /** How long (in milliseconds) the input must stay the same before suggestions are looked up. */
+    private static final long SUGGESTION_DEBOUNCE_MILLIS = ConfigLoader.getInt("autocomplete.debounceMillis", 40);
     // Tracks the current input phase of the game (e.g., player name entry, gameplay, etc.)
     private InputStage stage = InputStage.PLAYER1_NAME;
     private String player1Name = "";
@@ -29,17 +37,37 @@ public class GameView {
     private GameController controller;
     private Terminal terminal;
     private Screen screen;
+    // What is on the screen, so a redraw only sends what changed
+    private ScreenFrame frame;
+    // The wrapped history lines, and the move and width they were wrapped for
+    private List<String> historyLines = List.of();
+    private Movie historyMovie;
+    private int historyWidth;
     private StringBuilder currentInput = new StringBuilder();
-    private List<String> suggestions = new ArrayList<>();
+    private List<String> suggestions = List.of();
+    private SuggestionPipeline suggester;
     private int selectedSuggestionIndex = -1;
     private int cursorPosition = 0;
 
     // Timer variables
     private int secondsRemaining = TIMELIMIT;
     private boolean timerRunning = true;
-    private volatile boolean turnInProgress = false;
+    // The guess being looked up, if any; input and the timer carry on meanwhile
+    private CompletableFuture<TurnResult> pendingTurn;
+    private String pendingTitle = "";
+    // Set while printInfo owns the screen; keys are dropped and redraws skipped
+    private boolean showingInfo = false;
+    private boolean running = true;
     private ScheduledExecutorService scheduler;
 
+    /** Something for the UI thread to do. */
+    private interface Event {
+        void handle() throws IOException;
+    }
+    private final BlockingQueue<Event> events = new LinkedBlockingQueue<>();
+    // Set while a redraw requested by refresh() is waiting in the queue
+    private final AtomicBoolean redrawQueued = new AtomicBoolean();
+
     /**
      * Constructs a GameView object that handles the game interface, timer, and screen rendering.
      *
@@ -47,40 +75,32 @@ public class GameView {
      * @throws IOException If there is an error initializing the screen or terminal.
      */
     public GameView(GameController controller) throws IOException {
+        this(controller, new DefaultTerminalFactory().createTerminal());
+    }
+    /**
+     * Constructs a GameView that draws on, and reads keys from, the given terminal.
+     *
+     * @param controller The GameController instance managing game logic.
+     * @param terminal The terminal to use, e.g. a virtual one in a benchmark.
+     * @throws IOException If there is an error initializing the screen.
+     */
+    GameView(GameController controller, Terminal terminal) throws IOException {
         this.controller = controller;
-        this.terminal = new DefaultTerminalFactory().createTerminal();
+        this.terminal = terminal;
         this.screen = new TerminalScreen(terminal);
         screen.startScreen();
+        frame = new ScreenFrame(screen);
 
-        // Initialize timer thread
+        // Initialize timer thread; it only posts ticks, which the UI thread handles
         scheduler = Executors.newScheduledThreadPool(1);
-        scheduler.scheduleAtFixedRate(() -> {
-            if (stage == InputStage.IN_GAME && timerRunning && secondsRemaining > 0) {
-                if (turnInProgress) {
-                    return;  // Wait until turn is done
-                }
-
-                secondsRemaining--;
-                try {
+        scheduler.scheduleAtFixedRate(() -> events.add(this::tick), 1, 1, TimeUnit.SECONDS);
+        // A finished lookup redraws; if it was stale the frame is unchanged and nothing is sent
+        suggester = new SuggestionPipeline(controller::getAutocompleteSuggestions, scheduler,
+                task -> events.add(() -> {
+                    task.run();
                     updateScreen();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-
-                if (secondsRemaining == 0) {
-                    timerRunning = false;
-                    try {
-                        printInfo("Time's up! " + controller.getGameState().
-                                getOtherPlayer().getName() + " wins!");
-                        screen.close();
-                        terminal.close();
-                        System.exit(0);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                }
-            }
-        }, 1, 1, TimeUnit.SECONDS);
+                }),
+                SUGGESTION_DEBOUNCE_MILLIS, this::showSuggestions);
     }
     /**
      * Starts the main game loop, handling player input, screen updates, and game events.
@@ -89,57 +109,118 @@ public class GameView {
      * @throws InterruptedException If the game loop is interrupted during execution.
      */
     public void run() throws IOException, InterruptedException {
-        boolean running = true;
+        Thread.ofVirtual().name("terminal-input").start(this::readKeys);
 
         // Initial screen
-        screen.clear();
         updateScreen();
-        screen.refresh();
 
         while (running) {
-            KeyStroke keyStroke = terminal.pollInput();
-            if (keyStroke != null) {
-                switch (keyStroke.getKeyType()) {
-                    case Character:
-                        handleCharacter(keyStroke.getCharacter());
-                        break;
-                    case Backspace:
-                        handleBackspace();
-                        break;
-                    case Enter:
-                        running = handleEnter();  // returns false if game ends
-                        break;
-                    case Escape:
-                    case EOF:
-                        running = false;
-                        break;
-                    case ArrowDown:
-                        if (!suggestions.isEmpty()) {
-                            selectedSuggestionIndex = (selectedSuggestionIndex + 1) %
-                                    suggestions.size();
-                        }
-                        break;
-                    case ArrowUp:
-                        if (!suggestions.isEmpty()) {
-                            selectedSuggestionIndex = (selectedSuggestionIndex - 1 +
-                                    suggestions.size()) % suggestions.size();
-                        }
-                        break;
-                    default:
-                        throw new IllegalStateException("Unexpected value: "
-                                + keyStroke.getKeyType());
-                }
-                updateSuggestions();
-                updateScreen();
-            }
-
-            Thread.sleep(10);
+            events.take().handle();
         }
 
         scheduler.shutdown();
         screen.close();
         terminal.close();
     }
+    /**
+     * Blocks on the terminal and posts each key to the event queue, until the input
+     * ends. Runs on its own thread.
+     */
+    private void readKeys() {
+        try {
+            KeyStroke keyStroke;
+            do {
+                keyStroke = terminal.readInput();
+                KeyStroke pressed = keyStroke;
+                events.add(() -> handleKey(pressed));
+            } while (keyStroke.getKeyType() != KeyType.EOF);
+        } catch (IOException e) {
+            e.printStackTrace();
+            events.add(() -> running = false);
+        }
+    }
+    /**
+     * Applies a key to the current input or stage, then redraws. Keys pressed while a
+     * message is shown are dropped.
+     *
+     * @param keyStroke The key read from the terminal.
+     * @throws IOException If there is an issue with screen rendering.
+     */
+    private void handleKey(KeyStroke keyStroke) throws IOException {
+        if (showingInfo) {
+            if (keyStroke.getKeyType() == KeyType.EOF) {
+                running = false;
+            }
+            return;
+        }
+        switch (keyStroke.getKeyType()) {
+            case Character:
+                handleCharacter(keyStroke.getCharacter());
+                break;
+            case Backspace:
+                handleBackspace();
+                break;
+            case Enter:
+                if (!handleEnter()) {  // returns false if game ends
+                    running = false;
+                }
+                break;
+            case Escape:
+            case EOF:
+                running = false;
+                break;
+            case ArrowDown:
+                if (!suggestions.isEmpty()) {
+                    selectedSuggestionIndex = (selectedSuggestionIndex + 1) %
+                            suggestions.size();
+                }
+                break;
+            case ArrowUp:
+                if (!suggestions.isEmpty()) {
+                    selectedSuggestionIndex = (selectedSuggestionIndex - 1 +
+                            suggestions.size()) % suggestions.size();
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unexpected value: "
+                        + keyStroke.getKeyType());
+        }
+        updateSuggestions();
+        updateScreen();
+    }
+    /**
+     * Counts down one second of the current turn. When the time runs out the turn is
+     * expired, and the game ends once the result has been shown.
+     *
+     * @throws IOException If there is an issue with screen rendering.
+     */
+    private void tick() throws IOException {
+        if (stage != InputStage.IN_GAME || !timerRunning || secondsRemaining <= 0) {
+            return;
+        }
+        secondsRemaining--;
+        updateScreen();
+
+        if (secondsRemaining == 0) {
+            timerRunning = false;
+            controller.expireTurn();  // a guess still being looked up is dropped
+            printInfo("Time's up! " + controller.getGameState().
+                    getOtherPlayer().getName() + " wins!", () -> running = false);
+        }
+    }
+    /**
+     * Asks for a redraw from another thread, e.g. after the movie database publishes
+     * another batch of preloaded movies. Requests made while one is already queued
+     * are merged into it.
+     */
+    public void refresh() {
+        if (redrawQueued.compareAndSet(false, true)) {
+            events.add(() -> {
+                redrawQueued.set(false);
+                updateScreen();
+            });
+        }
+    }
     /**
      * Handles character input from the player, inserting it into the current input field.
      *
@@ -162,8 +243,9 @@ public class GameView {
      * Handles the Enter key event, processing the current input according to the game stage.
      *
      * @return true if the game continues, false if it ends.
+     * @throws IOException If there is an issue with screen rendering.
      */
-    private boolean handleEnter() {
+    private boolean handleEnter() throws IOException {
         String input = currentInput.toString().trim();
 
         switch (stage) {
@@ -184,7 +266,10 @@ public class GameView {
             case WIN_CONDITION_SELECTION:
                 try {
                     int winConditionIndex = Integer.parseInt(input);
-                    if (winConditionIndex >= 1 && winConditionIndex <= winConditions.size()) {
+                    if (controller.getMovieDatabase().getLoadedMovieCount() == 0
+                            && controller.getMovieDatabase().isPreloading()) {
+                        printInfo("Still loading movies, please try again in a moment.");
+                    } else if (winConditionIndex >= 1 && winConditionIndex <= winConditions.size()) {
                         WinCondition selected = winConditions.get(winConditionIndex - 1);
                         controller.startGame(player1Name, player2Name, selected);
                         secondsRemaining = TIMELIMIT;
@@ -213,26 +298,14 @@ public class GameView {
                     return true;
                 }
 
-                // Mark that we're processing a turn
-                turnInProgress = true;
-
-                TurnResult result = controller.processTurn(input);
-                printInfo(result.getMessage());
-
-                turnInProgress = false;
-
-                if (!result.isSuccess()) {
+                // One guess at a time; the lookup runs while the view keeps rendering
+                if (pendingTurn != null) {
                     return true;
                 }
-
-                if (result.isGameOver()) {
-                    return false;
-                }
-
-                currentInput.setLength(0);
-                cursorPosition = 0;
-                secondsRemaining = TIMELIMIT;
-                resumeTimer();
+                CompletableFuture<TurnResult> turn = controller.processTurnAsync(input);
+                pendingTitle = input;
+                pendingTurn = turn;
+                turn.whenComplete((result, e) -> events.add(() -> finishTurn(turn)));
                 return true;
             default:
                 throw new IllegalStateException("Unexpected value: " + stage);
@@ -240,15 +313,54 @@ public class GameView {
 
         return true;
     }
+    /**
+     * Shows the outcome of a guess once its lookup has finished. A late result, for a
+     * turn that has already ended, is dropped; if the game is won, it ends once the
+     * message has been shown.
+     *
+     * @param turn The finished lookup, posted by its completion.
+     * @throws IOException If there is an issue with screen rendering.
+     */
+    private void finishTurn(CompletableFuture<TurnResult> turn) throws IOException {
+        if (turn != pendingTurn) {
+            return;
+        }
+        pendingTurn = null;
+        TurnResult result = turn.join();
+        if (result.isLate()) {
+            updateScreen();
+            return;
+        }
+
+        if (result.isSuccess() && result.isGameOver()) {
+            printInfo(result.getMessage(), () -> running = false);
+            return;
+        }
+
+        if (result.isSuccess()) {
+            currentInput.setLength(0);
+            cursorPosition = 0;
+            secondsRemaining = TIMELIMIT;
+            updateSuggestions();
+        }
+        printInfo(result.getMessage());
+    }
     /**
      * Updates the list of autocomplete suggestions based on the current input string.
+     * Only movie guesses get suggestions. The list may change now, narrowed from the
+     * previous one, and again when the lookup finishes; see {@link SuggestionPipeline}.
      */
     private void updateSuggestions() {
-        String prefix = currentInput.toString();
-        suggestions.clear();
-        if (!prefix.isEmpty()) {
-            suggestions = new ArrayList<>(controller.getAutocompleteSuggestions(prefix));
-        }
+        suggester.update(stage == InputStage.IN_GAME ? currentInput.toString() : "");
+    }
+    /**
+     * Shows a new list of suggestions, with none selected.
+     *
+     * @param found The suggested titles, best first.
+     */
+    private void showSuggestions(List<String> found) {
+        suggestions = found;
+        selectedSuggestionIndex = -1;
     }
     /**
      * Updates the game screen display, reflecting the current state and input.
@@ -256,108 +368,150 @@ public class GameView {
      * @throws IOException If there is an issue with screen rendering.
      */
     private void updateScreen() throws IOException {
-        synchronized (screen) {
-            screen.clear();
-            TerminalSize size = screen.getTerminalSize();
-
-            switch (stage) {
-                case PLAYER1_NAME:
-                    printString(0, 0, "Hi there! Welcome to Movie Game!");
-                    printString(0, 2, "Please enter Player 1 name:");
-                    printString(0, 4, "> " + currentInput.toString());
-                    screen.setCursorPosition(new TerminalPosition(cursorPosition + 2, 4));
-                    break;
-
-                case PLAYER2_NAME:
-                    printString(0, 0, "Player 1: " + player1Name);
-                    printString(0, 2, "Please enter Player 2 name:");
-                    printString(0, 4, "> " + currentInput.toString());
-                    screen.setCursorPosition(new TerminalPosition(cursorPosition + 2, 4));
-                    break;
-
-                case WIN_CONDITION_SELECTION:
-                    printString(0, 0, "Player 1: " + player1Name);
-                    printString(0, 1, "Player 2: " + player2Name);
-                    printString(0, 3, "Please choose a win condition by number:");
-                    for (int i = 0; i < winConditions.size(); i++) {
-                        printString(2, 4 + i, (i + 1) + ". " + winConditions.get(i).description());
-                    }
-                    printString(0, 4 + winConditions.size() + 1, "> " + currentInput.toString());
-                    screen.setCursorPosition(new TerminalPosition(cursorPosition + 2,
-                            4 + winConditions.size() + 1));
-                    break;
-
-                case IN_GAME:
-                    GameState state = controller.getGameState();
-
-                    // Header
-                    printString(0, 0, "Player: " + state.getCurrentPlayer().getName());
-                    printString(0, 1, "Round: " + state.getCurrRound());
-                    String timerText = "Time: " + secondsRemaining + "s";
-                    printString(size.getColumns() - timerText.length(), 0, timerText);
-                    printString(0, 2, "Last movie: " +
-                            state.getRecentHistory().getLast().getTitle() +
-                            " (" + state.getRecentHistory().get(0).getYear() + ")");
-
-                    // Prompt
-                    printString(0, 4, "> " + currentInput.toString());
-
-                    // Suggestions
-                    int row = 5;
-                    for (int i = 0; i < suggestions.size(); i++) {
-                        String s = suggestions.get(i);
-                        if (i == selectedSuggestionIndex) {
-                            printStringColored(2, row++, "> " + s,
-                                    TextColor.ANSI.BLACK, TextColor.ANSI.CYAN); // highlighted
-                        } else {
-                            printString(2, row++, "- " + s); // normal
-                        }
-                    }
+        if (showingInfo) {
+            return;
+        }
+        TerminalSize size = frame.begin();
 
-                    int maxWidth = size.getColumns() - 4;          // Leave some margin for indentation
-
-                    // Recent history
-                    row++;
-                    printString(0, row++, "Recent History (most recent first):");
-                    for (Movie m : state.getRecentHistory().reversed()) {
-                        String base = m.getTitle() + " (" + m.getYear() + ")";
-
-                        if (m.equals(controller.getGameState().getStartingMovie())) {
-                            printString(2, row++, base);
-                        } else {
-                            String lastConnectionStr = "";
-                            if (!m.getConnectionHistory().isEmpty()) {
-                                List<Connection> lastConnection = m.getConnectionHistory().getLast();
-                                for (Connection c : lastConnection) {
-                                    lastConnectionStr += (c.toString() + " ");
-                                }
-                            }
-                            String full = base + " | Last connected via: " + lastConnectionStr.trim();
-
-                            // Manually wrap the text if it's too long
-                            while (full.length() > maxWidth) {
-                                int cut = full.lastIndexOf(" ", maxWidth);
-                                if (cut == -1) cut = maxWidth;
-                                printString(2, row++, full.substring(0, cut));
-                                full = full.substring(cut).trim();
-                            }
-                            printString(2, row++, full); // print remaining
-                        }
+        switch (stage) {
+            case PLAYER1_NAME:
+                printString(0, 0, "Hi there! Welcome to Movie Game!");
+                printString(0, 2, "Please enter Player 1 name:");
+                printString(0, 4, "> " + currentInput.toString());
+                frame.setCursor(cursorPosition + 2, 4);
+                break;
+
+            case PLAYER2_NAME:
+                printString(0, 0, "Player 1: " + player1Name);
+                printString(0, 2, "Please enter Player 2 name:");
+                printString(0, 4, "> " + currentInput.toString());
+                frame.setCursor(cursorPosition + 2, 4);
+                break;
+
+            case WIN_CONDITION_SELECTION:
+                printString(0, 0, "Player 1: " + player1Name);
+                printString(0, 1, "Player 2: " + player2Name);
+                printString(0, 3, "Please choose a win condition by number:");
+                for (int i = 0; i < winConditions.size(); i++) {
+                    printString(2, 4 + i, (i + 1) + ". " + winConditions.get(i).description());
+                }
+                printString(0, 4 + winConditions.size() + 1, "> " + currentInput.toString());
+                frame.setCursor(cursorPosition + 2,
+                        4 + winConditions.size() + 1);
+                break;
+
+            case IN_GAME:
+                GameState state = controller.getGameState();
+
+                // Header
+                printString(0, 0, "Player: " + state.getCurrentPlayer().getName());
+                printString(0, 1, "Round: " + state.getCurrRound());
+                String timerText = "Time: " + secondsRemaining + "s";
+                printString(size.getColumns() - timerText.length(), 0, timerText);
+                printString(0, 2, "Last movie: " +
+                        state.getRecentHistory().getLast().getTitle() +
+                        " (" + state.getRecentHistory().get(0).getYear() + ")");
+
+                if (pendingTurn != null) {
+                    printStringColored(0, 3, "Checking " + pendingTitle + "...",
+                            TextColor.ANSI.YELLOW, TextColor.ANSI.BLACK);
+                }
+
+                // Prompt
+                printString(0, 4, "> " + currentInput.toString());
+
+                // Suggestions
+                int row = 5;
+                for (int i = 0; i < suggestions.size(); i++) {
+                    String s = suggestions.get(i);
+                    if (i == selectedSuggestionIndex) {
+                        printStringColored(2, row++, "> " + s,
+                                TextColor.ANSI.BLACK, TextColor.ANSI.CYAN); // highlighted
+                    } else {
+                        printString(2, row++, "- " + s); // normal
                     }
+                }
 
-                    // Player progress
-                    row++;
-                    Player player = state.getCurrentPlayer();
-                    printString(0, row++,  player.getName() + "'s Progress: " +
-                            controller.getGameState().getWinCondition().getPlayerProgress(player));
+                int maxWidth = size.getColumns() - 4;          // Leave some margin for indentation
 
-                    screen.setCursorPosition(new TerminalPosition(cursorPosition + 2, 4));
-                    break;
-                default:
-                    throw new IllegalStateException("Unexpected value: " + stage);
-            }
+                // Recent history
+                row++;
+                printString(0, row++, "Recent History (most recent first):");
+                for (String line : historyLines(state, maxWidth)) {
+                    printString(2, row++, line);
+                }
+
+                // Player progress
+                row++;
+                Player player = state.getCurrentPlayer();
+                printString(0, row++,  player.getName() + "'s Progress: " +
+                        controller.getGameState().getWinCondition().getPlayerProgress(player));
 
-            screen.refresh();
+                frame.setCursor(cursorPosition + 2, 4);
+                break;
+            default:
+                throw new IllegalStateException("Unexpected value: " + stage);
+        }
+
+        printLoadingStatus(size);
+        frame.end();
+    }
+    /**
+     * Returns the recent history as wrapped lines, most recent first. The lines only
+     * change when a move is made or the terminal is resized, so they are kept between
+     * frames rather than rebuilt on every keystroke and tick.
+     *
+     * @param state The state of the game in progress.
+     * @param maxWidth The maximum width of each line.
+     * @return the lines to print, indented under the history heading
+     */
+    private List<String> historyLines(GameState state, int maxWidth) {
+        if (state.getCurrentMovie() == historyMovie && maxWidth == historyWidth) {
+            return historyLines;
+        }
+        List<String> lines = new ArrayList<>();
+        for (Movie m : state.getRecentHistory().reversed()) {
+            String base = m.getTitle() + " (" + m.getYear() + ")";
+
+            if (m.equals(state.getStartingMovie())) {
+                lines.add(base);
+            } else {
+                String lastConnectionStr = "";
+                if (!state.getConnectionHistory(m).isEmpty()) {
+                    List<Connection> lastConnection = state.getConnectionHistory(m).getLast();
+                    for (Connection c : lastConnection) {
+                        lastConnectionStr += (c.toString() + " ");
+                    }
+                }
+                String full = base + " | Last connected via: " + lastConnectionStr.trim();
+
+                // Manually wrap the text if it's too long
+                while (full.length() > maxWidth) {
+                    int cut = full.lastIndexOf(" ", maxWidth);
+                    if (cut == -1) cut = maxWidth;
+                    lines.add(full.substring(0, cut));
+                    full = full.substring(cut).trim();
+                }
+                lines.add(full); // print remaining
+            }
+        }
+        historyMovie = state.getCurrentMovie();
+        historyWidth = maxWidth;
+        historyLines = lines;
+        return lines;
+    }
+    /**
+     * Shows how far the background preload has got on the bottom row, while it runs.
+     *
+     * @param size The size of the terminal.
+     */
+    private void printLoadingStatus(TerminalSize size) {
+        MovieDatabase db = controller.getMovieDatabase();
+        if (db.isPreloading()) {
+            int loaded = db.getLoadedMovieCount();
+            int expected = Math.max(loaded, db.getExpectedMovieCount());
+            printStringColored(0, size.getRows() - 1, "Loading movies... " + loaded + "/" + expected,
+                    TextColor.ANSI.YELLOW, TextColor.ANSI.BLACK);
         }
     }
     /**
@@ -368,11 +522,7 @@ public class GameView {
      * @param text The string text to display.
      */
     private void printString(int column, int row, String text) {
-        for (int i = 0; i < text.length(); i++) {
-            screen.setCharacter(column + i, row,
-                    new TextCharacter(text.charAt(i),
-                            TextColor.ANSI.WHITE, TextColor.ANSI.BLACK));
-        }
+        frame.print(column, row, text, TextColor.ANSI.WHITE, TextColor.ANSI.BLACK);
     }
     /**
      * Prints a string with custom foreground and background colors at the specified coordinates.
@@ -384,45 +534,57 @@ public class GameView {
      * @param bg The background color.
      */
     private void printStringColored(int column, int row, String text, TextColor fg, TextColor bg) {
-        for (int i = 0; i < text.length(); i++) {
-            screen.setCharacter(column + i, row,
-                    new TextCharacter(text.charAt(i), fg, bg));
-        }
+        frame.print(column, row, text, fg, bg);
     }
     /**
      * Displays an informational message on the screen, pausing the game timer temporarily.
      *
      * @param msg The message to display.
+     * @throws IOException If there is an issue with screen rendering.
      */
-    private void printInfo(String msg) {
-        try {
-            pauseTimer(); // ⏸ pause the timer while showing info
-
-            screen.clear();
-
-            int maxWidth = screen.getTerminalSize().getColumns();
-            List<String> lines = wrapText(msg, maxWidth);
+    private void printInfo(String msg) throws IOException {
+        printInfo(msg, null);
+    }
+    /**
+     * Displays an informational message for {@value #INFO_MILLIS} ms, pausing the game
+     * timer. The message is taken down by a scheduled event rather than by waiting,
+     * so the UI thread keeps handling events, dropping keys, meanwhile.
+     *
+     * @param msg The message to display.
+     * @param then What to do once the message has been shown, instead of going back to
+     *             the game; may be null.
+     * @throws IOException If there is an issue with screen rendering.
+     */
+    private void printInfo(String msg, Event then) throws IOException {
+        pauseTimer(); // ⏸ pause the timer while showing info
+        showingInfo = true;
 
-            for (int i = 0; i < lines.size(); i++) {
-                printString(0, i, lines.get(i));
-            }
+        int maxWidth = frame.begin().getColumns();
+        List<String> lines = wrapText(msg, maxWidth);
 
-            screen.refresh();
-            long start = System.currentTimeMillis();
-            while (System.currentTimeMillis() - start < 3000) {
-                KeyStroke key = terminal.pollInput();  // consume input
-                if (key != null && key.getKeyType() == KeyType.EOF) {
-                    break;
-                }
-                Thread.sleep(50);
-            }
+        for (int i = 0; i < lines.size(); i++) {
+            printString(0, i, lines.get(i));
+        }
 
-            if (stage == InputStage.IN_GAME) {
-                resumeTimer();
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
+        frame.end();
+        scheduler.schedule(() -> events.add(() -> endInfo(then)), INFO_MILLIS, TimeUnit.MILLISECONDS);
+    }
+    /**
+     * Takes down the message shown by printInfo and resumes the game.
+     *
+     * @param then What printInfo was asked to do afterwards; may be null.
+     * @throws IOException If there is an issue with screen rendering.
+     */
+    private void endInfo(Event then) throws IOException {
+        showingInfo = false;
+        if (then != null) {
+            then.handle();
+            return;
         }
+        if (stage == InputStage.IN_GAME) {
+            resumeTimer();
+        }
+        updateScreen();
     }
     /**
      * Wraps long lines of text to fit within a specified maximum width.
@@ -0,0 +1,207 @@
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * A bounded, expiring cache for TMDB lookups.
+ *
+ * <p>Entries are kept in least-recently-used order and evicted from the cold end
+ * once their total weight passes the limit; by default every entry weighs 1, so the
+ * limit is an entry count. Each entry expires a fixed time after it was loaded.
+ * A lookup that found nothing (a null value) is cached too, under its own, usually
+ * shorter, time to live, so a title TMDB does not know is not searched for again
+ * on every guess.
+ *
+ * <p>All methods are synchronized, but loaders run outside the lock so one slow
+ * lookup does not hold up hits on other keys.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class LookupCache<K, V> {
+    private final long maxWeight;
+    private final ToIntFunction<? super V> weigher;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final LongSupplier clock;
+    // Access order: the first entry is the least recently used
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    private static final class Entry<V> {
+        final V value;
+        final int weight;
+        final long expiresAt;
+
+        Entry(V value, int weight, long expiresAt) {
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Constructs a cache holding at most maxEntries entries.
+     *
+     * @param maxEntries The maximum number of entries.
+     * @param ttl How long a found value stays cached.
+     * @param negativeTtl How long a "not found" result stays cached.
+     * @throws IllegalArgumentException if maxEntries is less than 1.
+     */
+    public LookupCache(int maxEntries, Duration ttl, Duration negativeTtl) {
+        this(maxEntries, value -> 1, ttl, negativeTtl);
+    }
+
+    /**
+     * Constructs a cache whose entries' weights add up to at most maxWeight. A
+     * "not found" entry weighs 1.
+     *
+     * @param maxWeight The maximum total weight.
+     * @param weigher Computes the weight of a found value; must not be negative.
+     * @param ttl How long a found value stays cached.
+     * @param negativeTtl How long a "not found" result stays cached.
+     * @throws IllegalArgumentException if maxWeight is less than 1.
+     */
+    public LookupCache(long maxWeight, ToIntFunction<? super V> weigher,
+                       Duration ttl, Duration negativeTtl) {
+        this(maxWeight, weigher, ttl, negativeTtl, System::nanoTime);
+    }
+
+    LookupCache(long maxWeight, ToIntFunction<? super V> weigher,
+                Duration ttl, Duration negativeTtl, LongSupplier clock) {
+        if (maxWeight < 1) {
+            throw new IllegalArgumentException("maxWeight must be at least 1.");
+        }
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.ttlNanos = ttl.toNanos();
+        this.negativeTtlNanos = negativeTtl.toNanos();
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the cached value for a key, loading and caching it on a miss. A null
+     * from the loader is cached as "not found".
+     *
+     * @param key The key to look up.
+     * @param loader Loads the value for a missing or expired key; may return null.
+     * @return The cached or loaded value, or null if the key was not found.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        synchronized (this) {
+            Entry<V> entry = liveEntry(key);
+            if (entry != null) {
+                hits++;
+                return entry.value;
+            }
+            misses++;
+        }
+        V value = loader.apply(key);
+        put(key, value);
+        return value;
+    }
+
+    /**
+     * Checks whether a key has a live entry, found or not, without loading it or
+     * counting a hit or miss.
+     *
+     * @param key The key to look for.
+     * @return true if a lookup of the key would be answered from the cache.
+     */
+    public synchronized boolean contains(K key) {
+        Entry<V> entry = entries.get(key);
+        return entry != null && clock.getAsLong() - entry.expiresAt < 0;
+    }
+
+    /**
+     * Caches a value, replacing any entry for the key. A null value is cached as
+     * "not found".
+     *
+     * @param key The key.
+     * @param value The value, or null if the key was not found.
+     */
+    public synchronized void put(K key, V value) {
+        long ttl = value == null ? negativeTtlNanos : ttlNanos;
+        remove(key);
+        if (ttl <= 0) {
+            return;
+        }
+        int entryWeight = value == null ? 1 : weigher.applyAsInt(value);
+        entries.put(key, new Entry<>(value, entryWeight, clock.getAsLong() + ttl));
+        weight += entryWeight;
+
+        Iterator<Entry<V>> eldest = entries.values().iterator();
+        while (weight > maxWeight && eldest.hasNext()) {
+            weight -= eldest.next().weight;
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Removes the entry for a key, if any.
+     *
+     * @param key The key to remove.
+     */
+    public synchronized void invalidate(K key) {
+        remove(key);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Returns how many entries were dropped to stay within the weight limit.
+     */
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    /**
+     * Returns how many entries were dropped because their time to live had passed.
+     */
+    public synchronized long getExpirationCount() {
+        return expirations;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%d entries, %d hits, %d misses, %d evictions, %d expirations",
+                entries.size(), hits, misses, evictions, expirations);
+    }
+
+    /**
+     * Returns the entry for a key if it has not expired, dropping it if it has.
+     */
+    private Entry<V> liveEntry(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && clock.getAsLong() - entry.expiresAt >= 0) {
+            remove(key);
+            expirations++;
+            return null;
+        }
+        return entry;
+    }
+
+    private void remove(K key) {
+        Entry<V> old = entries.remove(key);
+        if (old != null) {
+            weight -= old.weight;
+        }
+    }
+}
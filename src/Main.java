@@ -2,8 +2,8 @@ import java.io.IOException;
 
 /**
  * Main entry point for launching the Movie Game application.
- * It initializes the game controller with the API key, preloads popular movies,
- * and starts the game view.
+ * It initializes the game controller with the API key, starts preloading popular
+ * movies in the background, and starts the game view while they load.
  *
  * @param args Command-line arguments (not used in this application).
  */
@@ -11,10 +11,11 @@ public class Main {
     public static void main(String[] args) {
         String apiKey = ConfigLoader.get("tmdb.api.key");
         GameController controller = new GameController(apiKey);
-        controller.getMovieDatabase().preloadPopularMovies();
 
         try {
-            new GameView(controller).run();
+            GameView view = new GameView(controller);
+            controller.getMovieDatabase().preloadInBackground(view::refresh);
+            view.run();
         } catch (IOException e) {
             e.printStackTrace();
         } catch (InterruptedException e) {
@@ -1,22 +1,40 @@
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import java.util.*;
 
 /**
  * Represents a movie in the database, storing metadata such as title, year,
  * and associated people (actors, directors, etc.).
+ *
+ * <p>Genres and people are interned through {@link NameDictionary} and stored as
+ * sorted int arrays, one per {@link ConnectionType}, so a movie carries no per-name
+ * objects of its own. The Set getters return read-only views over those arrays.
  */
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class Movie {
+    private static final int[] NONE = new int[0];
+    private static final ConnectionType[] TYPES = ConnectionType.values();
+
     private long movieId;
     private String title;
     private int year;
-    private Set<String> genres;
-    private Set<String> actors;
-    private Set<String> directors;
-    private Set<String> writers;
-    private Set<String> composers;
-    private Set<String> cinematographers;
-    private List<List<Connection>> connectionHistory;
+    private double popularity;
+    private int voteCount;
+    private int[] genres;
+    private int[][] credits;
     /**
-     * Constructs a Movie with full metadata.
+     * Constructs an empty Movie with no metadata.
+     */
+    public Movie() {
+        this.genres = NONE;
+        this.credits = new int[TYPES.length][];
+        Arrays.fill(credits, NONE);
+    }
+
+    /**
+     * Constructs a Movie with full metadata and no popularity figures.
      *
      * @param movieId          unique identifier for the movie
      * @param title            movie title
@@ -28,40 +46,91 @@ public class Movie {
      * @param composers        set of composers
      * @param cinematographers set of cinematographers
      */
-    public Movie() {
-        this.genres = new HashSet<>();
-        this.actors = new HashSet<>();
-        this.directors = new HashSet<>();
-        this.writers = new HashSet<>();
-        this.composers = new HashSet<>();
-        this.cinematographers = new HashSet<>();
-        this.connectionHistory = new ArrayList<>();
+    public Movie(long movieId, String title, int year, Set<String> genres, Set<String> actors,
+                 Set<String> directors, Set<String> writers, Set<String> composers,
+                 Set<String> cinematographers) {
+        this(movieId, title, year, 0, 0, genres, actors, directors, writers, composers,
+                cinematographers);
     }
 
     /**
-     * Constructor for full metadata
+     * Constructs a Movie with full metadata, including TMDB's popularity figures.
+     *
+     * @param movieId          unique identifier for the movie
+     * @param title            movie title
+     * @param year             release year
+     * @param popularity       TMDB popularity score
+     * @param voteCount        number of TMDB user votes
+     * @param genres           set of genres
+     * @param actors           set of actors
+     * @param directors        set of directors
+     * @param writers          set of writers
+     * @param composers        set of composers
+     * @param cinematographers set of cinematographers
      */
-    public Movie(long movieId, String title, int year,
-                 Set<String> genres,
-                 Set<String> actors,
-                 Set<String> directors,
-                 Set<String> writers,
-                 Set<String> composers,
-                 Set<String> cinematographers) {
+    @JsonCreator
+    public Movie(@JsonProperty("movieId") long movieId,
+                 @JsonProperty("title") String title,
+                 @JsonProperty("year") int year,
+                 @JsonProperty("popularity") double popularity,
+                 @JsonProperty("voteCount") int voteCount,
+                 @JsonProperty("genres") Set<String> genres,
+                 @JsonProperty("actors") Set<String> actors,
+                 @JsonProperty("directors") Set<String> directors,
+                 @JsonProperty("writers") Set<String> writers,
+                 @JsonProperty("composers") Set<String> composers,
+                 @JsonProperty("cinematographers") Set<String> cinematographers) {
+        this.movieId = movieId;
+        this.title = title;
+        this.year = year;
+        this.popularity = popularity;
+        this.voteCount = voteCount;
+        this.genres = internAll(genres);
+        this.credits = new int[][] {
+            internAll(actors),
+            internAll(directors),
+            internAll(writers),
+            internAll(composers),
+            internAll(cinematographers)
+        };
+    }
+
+    /**
+     * Constructs a Movie from already-interned name IDs.
+     *
+     * @param movieId    unique identifier for the movie
+     * @param title      movie title
+     * @param year       release year
+     * @param popularity TMDB popularity score
+     * @param voteCount  number of TMDB user votes
+     * @param genres     sorted genre IDs
+     * @param credits    sorted person IDs, indexed by ConnectionType ordinal
+     */
+    Movie(long movieId, String title, int year, double popularity, int voteCount,
+          int[] genres, int[][] credits) {
         this.movieId = movieId;
         this.title = title;
         this.year = year;
-        this.genres = (genres != null) ? genres : new HashSet<>();
-        this.actors = (actors != null) ? actors : new HashSet<>();
-        this.directors = (directors != null) ? directors : new HashSet<>();
-        this.writers = (writers != null) ? writers : new HashSet<>();
-        this.composers = (composers != null) ? composers : new HashSet<>();
-        this.cinematographers = (cinematographers != null) ? cinematographers : new HashSet<>();
-        this.connectionHistory = new ArrayList<>();
+        this.popularity = popularity;
+        this.voteCount = voteCount;
+        this.genres = genres;
+        this.credits = credits;
+    }
+
+    /**
+     * Returns a copy of this movie with new TMDB statistics and the same credits.
+     *
+     * @param popularity The new TMDB popularity score.
+     * @param voteCount The new number of TMDB user votes.
+     * @return the updated copy
+     */
+    Movie withStats(double popularity, int voteCount) {
+        return new Movie(movieId, title, year, popularity, voteCount, genres, credits);
     }
 
     /**
      * Finds all shared connections between this movie and another movie.
+     * Both movies keep each role's people as sorted IDs, so this is a merge.
      *
      * @param other the other movie to compare with
      * @return a list of connections (person + type) that connect the two movies
@@ -69,48 +138,27 @@ public class Movie {
     public List<Connection> findConnections(Movie other) {
         List<Connection> connections = new ArrayList<>();
 
-        for (String actor : actors) {
-            if (other.actors.contains(actor)) {
-                connections.add(new Connection(actor, ConnectionType.ACTOR));
-            }
-        }
-
-        for (String director : directors) {
-            if (other.directors.contains(director)) {
-                connections.add(new Connection(director, ConnectionType.DIRECTOR));
-            }
-        }
-
-        for (String writer : writers) {
-            if (other.writers.contains(writer)) {
-                connections.add(new Connection(writer, ConnectionType.WRITER));
-            }
-        }
-
-        for (String composer : composers) {
-            if (other.composers.contains(composer)) {
-                connections.add(new Connection(composer, ConnectionType.COMPOSER));
-            }
-        }
-
-        for (String cinematographer : cinematographers) {
-            if (other.cinematographers.contains(cinematographer)) {
-                connections.add(new Connection(cinematographer, ConnectionType.CINEMATOGRAPHER));
+        for (ConnectionType type : TYPES) {
+            int[] mine = credits[type.ordinal()];
+            int[] theirs = other.credits[type.ordinal()];
+            int i = 0;
+            int j = 0;
+            while (i < mine.length && j < theirs.length) {
+                if (mine[i] < theirs[j]) {
+                    i++;
+                } else if (mine[i] > theirs[j]) {
+                    j++;
+                } else {
+                    connections.add(new Connection(NameDictionary.name(mine[i]), type));
+                    i++;
+                    j++;
+                }
             }
         }
 
         return connections;
     }
 
-    /**
-     * Adds a new connection path to this movie's connection history.
-     *
-     * @param connections the list of connections used to reach this movie
-     */
-    public void addConnectionHistory(List<Connection> connections) {
-        connectionHistory.add(connections);
-    }
-
     // ======== Getters ========
 
     public long getMovieId() {
@@ -125,32 +173,67 @@ public class Movie {
         return year;
     }
 
+    public double getPopularity() {
+        return popularity;
+    }
+
+    public int getVoteCount() {
+        return voteCount;
+    }
+
     public Set<String> getGenres() {
-        return genres;
+        return new NameSet(genres);
     }
 
     public Set<String> getActors() {
-        return actors;
+        return getPeople(ConnectionType.ACTOR);
     }
 
     public Set<String> getDirectors() {
-        return directors;
+        return getPeople(ConnectionType.DIRECTOR);
     }
 
     public Set<String> getWriters() {
-        return writers;
+        return getPeople(ConnectionType.WRITER);
     }
 
     public Set<String> getComposers() {
-        return composers;
+        return getPeople(ConnectionType.COMPOSER);
     }
 
     public Set<String> getCinematographers() {
-        return cinematographers;
+        return getPeople(ConnectionType.CINEMATOGRAPHER);
     }
 
-    public List<List<Connection>> getConnectionHistory() {
-        return connectionHistory;
+    /**
+     * Returns the people credited in the given role.
+     *
+     * @param type the role to look up
+     * @return a read-only set of names for that role
+     */
+    public Set<String> getPeople(ConnectionType type) {
+        return new NameSet(credits[type.ordinal()]);
+    }
+
+    /**
+     * Returns the sorted {@link NameDictionary} IDs of the people credited in a role.
+     * The array is shared and must not be modified.
+     *
+     * @param type the role to look up
+     * @return the sorted person IDs
+     */
+    int[] getPersonIds(ConnectionType type) {
+        return credits[type.ordinal()];
+    }
+
+    /**
+     * Returns the sorted {@link NameDictionary} IDs of this movie's genres.
+     * The array is shared and must not be modified.
+     *
+     * @return the sorted genre IDs
+     */
+    int[] getGenreIds() {
+        return genres;
     }
 
     /**
@@ -184,4 +267,61 @@ public class Movie {
         return Objects.hash(title == null ? 0 : title.toLowerCase(), year);
     }
 
-}
\ No newline at end of file
+    /**
+     * Interns every name and returns the IDs sorted.
+     */
+    private static int[] internAll(Set<String> names) {
+        if (names == null || names.isEmpty()) {
+            return NONE;
+        }
+        int[] ids = new int[names.size()];
+        int i = 0;
+        for (String name : names) {
+            ids[i++] = NameDictionary.intern(name);
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    /**
+     * A read-only Set view over sorted name IDs. Membership is a binary search.
+     */
+    private static class NameSet extends AbstractSet<String> {
+        private final int[] ids;
+
+        NameSet(int[] ids) {
+            this.ids = ids;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            int id = NameDictionary.lookup(o);
+            return id >= 0 && Arrays.binarySearch(ids, id) >= 0;
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return new Iterator<>() {
+                private int next;
+
+                @Override
+                public boolean hasNext() {
+                    return next < ids.length;
+                }
+
+                @Override
+                public String next() {
+                    if (next >= ids.length) {
+                        throw new NoSuchElementException();
+                    }
+                    return NameDictionary.name(ids[next++]);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return ids.length;
+        }
+    }
+}
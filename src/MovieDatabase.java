@@ -3,117 +3,782 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 /**
  * Manages movie data from TMDB and provides caching, lookup, and autocomplete functionality.
+ *
+ * <p>One instance can be shared by any number of concurrent games. The catalogue's
+ * title index, person index and autocomplete engine, and the person index of movies
+ * looked up outside the catalogue, are held in an immutable snapshot that readers
+ * use without locking. Writers (adding movies, indexing a TMDB lookup, recording a
+ * play) take turns: each copies the parts of the snapshot it changes, applies its
+ * change to the copies and publishes the new snapshot with a single volatile write.
+ * A reader therefore sees every change either entirely or not at all, and never
+ * waits for a writer.
+ *
+ * <p>The catalogue can be preloaded on a background thread while the game is already
+ * in use; see {@link #preloadInBackground(Runnable)}.
  */
 public class MovieDatabase {
+    private static final String SNAPSHOT_FILE = "movie_cache.bin";
+    private static final String DELTA_FILE = "movie_cache.delta";
+    // TMDB only allows up to 500 popular results (25 pages * 20 movies)
+    private static final int POPULAR_PAGES = 25;
+    // How often a stored catalogue is synced with TMDB's popular list; negative never syncs
+    private static final int SYNC_INTERVAL_HOURS = ConfigLoader.getInt("catalogue.syncIntervalHours", 24);
+    // Movies in the first batch published when preloading in the background; later batches double
+    private static final int PRELOAD_BATCH = 50;
+    private static final Executor PRELOAD_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+    private static final Executor LOOKUP_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+    // Autocomplete weight added per successful play; 100 points of TMDB popularity
+    private static final int PLAY_BOOST = ConfigLoader.getInt("autocomplete.playBoost", 10_000);
+    private static final Duration CACHE_TTL =
+            Duration.ofMinutes(ConfigLoader.getInt("cache.ttlMinutes", 60));
+    private static final Duration NEGATIVE_CACHE_TTL =
+            Duration.ofMinutes(ConfigLoader.getInt("cache.negativeTtlMinutes", 5));
     private final TMDBClient tmdb;
-    private final Map<String, Movie> movieCache = new HashMap<>();
-    private final Map<String, List<Movie>> actorCache = new HashMap<>();
-    private final Map<Long, List<Movie>> similarCache = new HashMap<>();
-    private final Autocomplete autocompleteEngine = new Autocomplete();
+    private final CatalogueStore store;
+    // The preloaded movies the game is played with, never evicted, and their indexes
+    private volatile Snapshot snapshot;
+    // Serializes writers to snapshot
+    private final Object writeLock = new Object();
+    private final Map<Long, Integer> playCounts = new ConcurrentHashMap<>();
+    // TMDB lookups outside the catalogue, by title, actor and movie ID
+    private final LookupCache<String, Movie> movieCache = new LookupCache<>(
+            ConfigLoader.getInt("cache.maxTitles", 1000), CACHE_TTL, NEGATIVE_CACHE_TTL);
+    private final LookupCache<String, List<Movie>> actorCache = new LookupCache<>(
+            ConfigLoader.getInt("cache.maxActorMovies", 5000), List::size, CACHE_TTL, NEGATIVE_CACHE_TTL);
+    // Concurrent TMDB title lookups with the same key share one request
+    private final SingleFlight<String, Movie> titleLookups = new SingleFlight<>();
+    private final LookupCache<Long, List<Movie>> similarCache = new LookupCache<>(
+            ConfigLoader.getInt("cache.maxSimilarMovies", 5000), List::size, CACHE_TTL, NEGATIVE_CACHE_TTL);
+    private volatile CompletableFuture<Void> preload;
+    private volatile int expectedMovies;
     /**
      * Constructs a MovieDatabase object and initializes the TMDB client and autocomplete engine.
      *
      * @param apiKey The API key for accessing the TMDB API.
      */
     public MovieDatabase(String apiKey) {
-        this.tmdb = new TMDBClient();
+        this(new TMDBClient());
+    }
+    /**
+     * Constructs a MovieDatabase backed by the given TMDB client (for testing or custom config).
+     *
+     * @param tmdb The client used for lookups outside the catalogue.
+     */
+    MovieDatabase(TMDBClient tmdb) {
+        this(tmdb, new CatalogueStore(Paths.get(SNAPSHOT_FILE), Paths.get(DELTA_FILE)));
+    }
+    /**
+     * Constructs a MovieDatabase backed by the given TMDB client and catalogue files.
+     *
+     * @param tmdb The client used for lookups outside the catalogue.
+     * @param store The stored catalogue that preloading reads and syncs.
+     */
+    MovieDatabase(TMDBClient tmdb, CatalogueStore store) {
+        this.tmdb = tmdb;
+        this.store = store;
+        this.snapshot = emptyCatalogue(new PersonIndex());
+    }
+    /**
+     * Returns a snapshot with no catalogue movies.
+     *
+     * @param lookups The movies looked up outside the catalogue so far.
+     */
+    private static Snapshot emptyCatalogue(PersonIndex lookups) {
+        Autocomplete autocompleteEngine = new Autocomplete();
         autocompleteEngine.setSuggestionLimit(5);
+        return new Snapshot(new TitleIndex(), new PersonIndex(), lookups, autocompleteEngine,
+                Map.of(), MovieGraph.EMPTY, MovieSampler.EMPTY);
+    }
+    /**
+     * The catalogue as readers see it. A snapshot and everything it refers to is
+     * never changed once published; writers publish a new one instead, sharing the
+     * parts they did not change.
+     */
+    private static final class Snapshot {
+        final TitleIndex titles;
+        final PersonIndex people;
+        // Movies found through TMDB lookups outside the catalogue
+        final PersonIndex lookups;
+        final Autocomplete autocomplete;
+        // Each catalogue movie's term in autocomplete, by movie ID; a handle for
+        // Autocomplete.withWeight, whose weight may be out of date
+        final Map<Long, Term> titleTerms;
+        final MovieGraph graph;
+        final MovieSampler sampler;
+
+        Snapshot(TitleIndex titles, PersonIndex people, PersonIndex lookups, Autocomplete autocomplete,
+                 Map<Long, Term> titleTerms, MovieGraph graph, MovieSampler sampler) {
+            this.titles = titles;
+            this.people = people;
+            this.lookups = lookups;
+            this.autocomplete = autocomplete;
+            this.titleTerms = titleTerms;
+            this.graph = graph;
+            this.sampler = sampler;
+        }
     }
     /**
-     * Searches for a movie by its title. If the movie is found in the local cache, it is returned.
-     * Otherwise, it queries the TMDB API, caches the result, and returns the movie.
+     * Searches for a movie by its title. Catalogue titles are matched by their
+     * {@link TitleIndex} key, ignoring case, accents and punctuation, and a trailing
+     * "(year)" picks between movies with the same title. Other titles go through the
+     * lookup cache to TMDB; the result is cached under the title key, including a
+     * title TMDB does not know, so the same title does not reach TMDB twice within
+     * the cache TTL. A lookup that failed is not cached. Concurrent misses for the
+     * same key wait for a single TMDB lookup.
      *
      * @param title The title of the movie to search for.
      * @return The Movie object if found; otherwise, null.
      */
     public Movie findByTitle(String title) {
-        if (movieCache.containsKey(title.toLowerCase().trim())) {
-            return movieCache.get(title);
+        Movie known = snapshot.titles.find(title);
+        if (known != null) {
+            return known;
         }
 
-        Movie movie = tmdb.fetchMovieByTitle(title);
-        if (movie != null) {
-            movieCache.put(title, movie);
+        try {
+            return movieCache.get(TitleIndex.key(title), key -> {
+                Movie movie = titleLookups.call(key, () -> {
+                    Movie found = orFail(() -> tmdb.requestMovieByTitle(title));
+                    if (found != null) {
+                        indexPeople(found);
+                    }
+                    return found;
+                });
+                if (movie == null && Thread.currentThread().isInterrupted()) {
+                    // Interrupted while waiting for another caller's lookup, so nothing was learned
+                    throw new UncheckedIOException(new InterruptedIOException("Interrupted"));
+                }
+                return movie;
+            });
+        } catch (UncheckedIOException | CompletionException e) {
+            System.err.println("Looking up \"" + title + "\" failed: " + e.getCause().getMessage());
+            return null;
+        }
+    }
+    /**
+     * Searches for a movie by its title like {@link #findByTitle(String)}, without
+     * blocking the caller on TMDB. A catalogue title completes at once; any other
+     * title is looked up on a virtual thread.
+     *
+     * @param title The title of the movie to search for.
+     * @return A future holding the Movie object if found; otherwise, null.
+     */
+    public CompletableFuture<Movie> findByTitleAsync(String title) {
+        Movie known = snapshot.titles.find(title);
+        if (known != null) {
+            return CompletableFuture.completedFuture(known);
+        }
+        return CompletableFuture.supplyAsync(() -> findByTitle(title), LOOKUP_EXECUTOR);
+    }
+    /**
+     * Adds a movie found outside the catalogue to the lookup index, so its connected
+     * movies can be listed. Only the lookup index is copied, which holds just the
+     * movies looked up so far, so a run of unknown titles does not copy the catalogue.
+     *
+     * @param movie The movie to index.
+     */
+    private void indexPeople(Movie movie) {
+        synchronized (writeLock) {
+            Snapshot current = snapshot;
+            if (current.lookups.contains(movie) || current.people.contains(movie)) {
+                return;
+            }
+            PersonIndex lookups = current.lookups.copy();
+            lookups.add(movie);
+            snapshot = new Snapshot(current.titles, current.people, lookups, current.autocomplete,
+                    current.titleTerms, current.graph, current.sampler);
+        }
+    }
+    /**
+     * Lists the movies an actor appears in, from the cache or else from TMDB.
+     *
+     * @param actorName The name of the actor.
+     * @return The actor's movies, or an empty list if none are found.
+     */
+    public List<Movie> getMoviesByActor(String actorName) {
+        try {
+            List<Movie> movies = actorCache.get(actorName,
+                    name -> nullIfEmpty(orFail(() -> tmdb.requestMoviesByActor(name, null))));
+            return movies == null ? Collections.emptyList() : movies;
+        } catch (UncheckedIOException e) {
+            System.err.println("Looking up movies with " + actorName + " failed: " + e.getCause().getMessage());
+            return Collections.emptyList();
+        }
+    }
+    /**
+     * Lists the movies TMDB considers similar to the given movie, from the cache or
+     * else from TMDB.
+     *
+     * @param movie The reference movie.
+     * @return The similar movies, or an empty list if none are found.
+     */
+    public List<Movie> getSimilarMovies(Movie movie) {
+        try {
+            List<Movie> movies = similarCache.get(movie.getMovieId(),
+                    id -> nullIfEmpty(orFail(() -> tmdb.requestSimilarMovies(movie, null))));
+            return movies == null ? Collections.emptyList() : movies;
+        } catch (UncheckedIOException e) {
+            System.err.println("Looking up movies similar to " + movie.getTitle() + " failed: "
+                    + e.getCause().getMessage());
+            return Collections.emptyList();
+        }
+    }
+    /**
+     * Turns an empty TMDB result into a cacheable "not found".
+     */
+    private static List<Movie> nullIfEmpty(List<Movie> movies) {
+        return movies.isEmpty() ? null : List.copyOf(movies);
+    }
+    /**
+     * A TMDB request that reports failure with an exception instead of an empty result.
+     */
+    @FunctionalInterface
+    private interface Request<V> {
+        V send() throws IOException, InterruptedException;
+    }
+    /**
+     * Runs a TMDB request inside a cache loader, turning its failure into an unchecked
+     * exception so the loader returns nothing and the failure is not cached as "not
+     * found". An interrupt is kept on the thread.
+     */
+    private static <V> V orFail(Request<V> request) {
+        try {
+            return request.send();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("Interrupted"));
         }
-
-        return movie;
     }
     /**
      * Preloads a list of popular movies from the TMDB API or from a local cache file.
-     * The data is stored in the local cache and the autocomplete engine is populated.
+     * The stored catalogue (the movie_cache.bin snapshot plus the deltas in
+     * movie_cache.delta) is preferred when it is at least as new as movie_cache.json,
+     * and is synced with TMDB's popular list once catalogue.syncIntervalHours have
+     * passed since the last sync; see {@link #syncPopularMovies(List)}. Otherwise the
+     * JSON cache is parsed and a snapshot is written for the next start. The data is
+     * stored in the local cache and the autocomplete engine is populated.
      */
     public void preloadPopularMovies() {
+        preload(this::addMovies);
+    }
+    /**
+     * Starts preloading popular movies on a background thread and returns at once, so
+     * the game can be set up while the catalogue loads. Loads the same sources as
+     * {@link #preloadPopularMovies()}, but publishes movies in batches as they become
+     * available: a stored catalogue in batches that start at {@value #PRELOAD_BATCH}
+     * movies and double, so the catalogue is copied O(log n) times, and a catalogue
+     * fetched from TMDB one popular page at a time. A sync's new and updated movies
+     * are published at once, after the stored catalogue; see {@link #updateMovies(List)}.
+     *
+     * @param onBatch Called on the loading thread after each batch is published, e.g.
+     *                to redraw a progress indicator.
+     * @return A future completed once preloading has finished.
+     */
+    public CompletableFuture<Void> preloadInBackground(Runnable onBatch) {
+        CompletableFuture<Void> loading = CompletableFuture.runAsync(() -> preload(movies -> {
+            int batch = PRELOAD_BATCH;
+            for (int from = 0; from < movies.size(); from += batch, batch *= 2) {
+                addMovies(movies.subList(from, Math.min(movies.size(), from + batch)));
+                onBatch.run();
+            }
+        }), PRELOAD_EXECUTOR);
+        preload = loading;
+        // Runs once isPreloading() is false, so the last redraw shows the finished state
+        return loading.whenComplete((ignored, e) -> onBatch.run());
+    }
+    /**
+     * Checks whether a background preload is still running.
+     */
+    public boolean isPreloading() {
+        CompletableFuture<Void> running = preload;
+        return running != null && !running.isDone();
+    }
+    /**
+     * Returns how many movies the catalogue holds so far.
+     */
+    public int getLoadedMovieCount() {
+        return snapshot.titles.size();
+    }
+    /**
+     * Returns how many movies the running or last preload expects to load: the stored
+     * catalogue's size, or an estimate when fetching from TMDB. A sync may add more.
+     */
+    public int getExpectedMovieCount() {
+        return expectedMovies;
+    }
+    /**
+     * Loads the catalogue from the first available source, handing movies to a
+     * publisher as they become available.
+     *
+     * @param publish Adds movies to the catalogue; may be called several times.
+     */
+    private void preload(Consumer<List<Movie>> publish) {
         File cacheFile = new File("movie_cache.json");
         ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
 
         List<Movie> popular;
 
+        try {
+            if (store.exists() && (!cacheFile.exists() || store.lastModified() >= cacheFile.lastModified())) {
+                // Load from binary snapshot and deltas
+                popular = estimateMissingStats(store.load());
+                expectedMovies = popular.size();
+                publish.accept(popular);
+                if (isSyncDue()) {
+                    updateMovies(syncPopularMovies(popular));
+                }
+                return;
+            }
+        } catch (IOException e) {
+            System.err.println("Ignoring unreadable " + SNAPSHOT_FILE + ": " + e.getMessage());
+        }
+
         if (cacheFile.exists()) {
             // Load from JSON cache
             try {
                 Movie[] cached = mapper.readValue(cacheFile, Movie[].class);
-                popular = Arrays.asList(cached);
-                populateAutocompleteEngine(autocompleteEngine, popular);
-                for (Movie movie : popular) {
-                    movieCache.put(movie.getTitle(), movie);
-                }
+                popular = estimateMissingStats(Arrays.asList(cached));
+                expectedMovies = popular.size();
+                publish.accept(popular);
+                writeSnapshot(popular);
             } catch (IOException e) {
                 e.printStackTrace();
             }
         } else {
             // Fetch from TMDB and write to cache
-            int maxPages = 25;
-            popular = tmdb.fetchPopularMovies(maxPages);
-            populateAutocompleteEngine(autocompleteEngine, popular);
-            for (Movie movie : popular) {
-                movieCache.put(movie.getTitle(), movie);
-            }
+            expectedMovies = POPULAR_PAGES * 20;
+            popular = tmdb.fetchPopularMovies(POPULAR_PAGES, publish);
 
             try {
                 mapper.writeValue(cacheFile, popular);
             } catch (IOException e) {
                 e.printStackTrace();
             }
+            writeSnapshot(popular);
+        }
+    }
+    /**
+     * Fills in a popularity for movies stored without TMDB's figures, such as those in
+     * the bundled movie_cache.json, so their titles are ranked from the start. The
+     * catalogue is TMDB's popular list in ranking order, so the first of n movies
+     * gets a popularity of n and the last 1. The next sync replaces these estimates
+     * with TMDB's own figures.
+     *
+     * @param popular The catalogue, most popular first.
+     * @return The catalogue with every movie's popularity set.
+     */
+    static List<Movie> estimateMissingStats(List<Movie> popular) {
+        List<Movie> estimated = new ArrayList<>(popular.size());
+        for (int i = 0; i < popular.size(); i++) {
+            Movie movie = popular.get(i);
+            if (movie.getPopularity() <= 0 && movie.getVoteCount() <= 0) {
+                movie = movie.withStats(popular.size() - i, 0);
+            }
+            estimated.add(movie);
+        }
+        return estimated;
+    }
+    /**
+     * Checks whether the stored catalogue was last synced more than
+     * catalogue.syncIntervalHours ago.
+     */
+    private boolean isSyncDue() throws IOException {
+        return SYNC_INTERVAL_HOURS >= 0 && System.currentTimeMillis() - store.lastModified()
+                >= TimeUnit.HOURS.toMillis(SYNC_INTERVAL_HOURS);
+    }
+    /**
+     * Brings a stored catalogue up to date with TMDB's popular list, at a cost that
+     * follows how much the list changed rather than its length. The list's pages are
+     * fetched without details, then compared with the catalogue:
+     * <ul>
+     *     <li>a movie not in the catalogue, or whose title or year changed, has its
+     *     details fetched;</li>
+     *     <li>a movie whose popularity or vote count changed is updated from the list
+     *     alone, keeping its credits;</li>
+     *     <li>movies that dropped off the list stay in the catalogue.</li>
+     * </ul>
+     * The new and updated movies are appended to the store as one delta segment, and
+     * once the deltas are large enough the store is compacted on a background thread.
+     * If the list cannot be fetched, the catalogue is returned unchanged.
+     *
+     * @param known The stored catalogue.
+     * @return The catalogue with the changes applied, in the same order with new
+     *         movies at the end.
+     */
+    List<Movie> syncPopularMovies(List<Movie> known) {
+        List<TmdbResponses.Summary> popular = tmdb.fetchPopularSummaries(POPULAR_PAGES);
+        if (popular.isEmpty()) {
+            return known;
+        }
+
+        Map<Long, Movie> catalogue = new LinkedHashMap<>();
+        for (Movie movie : known) {
+            catalogue.put(movie.getMovieId(), movie);
+        }
+        List<Long> fetch = new ArrayList<>();
+        List<Movie> changed = new ArrayList<>();
+        for (TmdbResponses.Summary summary : popular) {
+            Movie movie = catalogue.get(summary.id);
+            if (movie == null || !movie.getTitle().equals(summary.title)
+                    || (summary.year != 0 && movie.getYear() != summary.year)) {
+                fetch.add(summary.id);
+            } else if (movie.getPopularity() != summary.popularity
+                    || movie.getVoteCount() != summary.voteCount) {
+                changed.add(movie.withStats(summary.popularity, summary.voteCount));
+            }
+        }
+        changed.addAll(tmdb.fetchMoviesById(fetch));
+        for (Movie movie : changed) {
+            catalogue.put(movie.getMovieId(), movie);
+        }
+        List<Movie> merged = List.copyOf(catalogue.values());
+
+        try {
+            store.appendDelta(changed);
+            store.markSynced();
+            if (store.needsCompaction()) {
+                store.compactInBackground(merged);
+            }
+        } catch (IOException e) {
+            System.err.println("Could not save catalogue changes: " + e.getMessage());
+        }
+        return merged;
+    }
+    /**
+     * Stores movies in the catalogue, indexes their people and inserts their titles
+     * into the autocomplete engine, publishing them to readers all at once. Movies
+     * already in the catalogue are skipped.
+     *
+     * @param movies The movies to add.
+     */
+    void addMovies(List<Movie> movies) {
+        synchronized (writeLock) {
+            snapshot = withMovies(snapshot, movies);
+        }
+    }
+    /**
+     * Publishes a synced catalogue. Movies not yet in the catalogue are added as by
+     * {@link #addMovies(List)}; a movie whose ID is already there replaces the stored
+     * record, so a changed title or popularity shows, and its title is re-weighted,
+     * straight away. Replacing records rebuilds the catalogue's indexes, which only
+     * happens once per sync.
+     *
+     * @param movies The synced movies, e.g. from {@link #syncPopularMovies(List)}.
+     */
+    void updateMovies(List<Movie> movies) {
+        synchronized (writeLock) {
+            Snapshot current = snapshot;
+            Map<Long, Movie> replacements = new HashMap<>();
+            for (Movie movie : movies) {
+                if (current.titles.contains(movie.getMovieId()) && !current.people.contains(movie)) {
+                    replacements.put(movie.getMovieId(), movie);
+                }
+            }
+            if (replacements.isEmpty()) {
+                snapshot = withMovies(current, movies);
+                return;
+            }
+
+            List<Movie> catalogue = new ArrayList<>(current.titles.size() + movies.size());
+            for (Movie movie : current.titles.movies()) {
+                catalogue.add(replacements.getOrDefault(movie.getMovieId(), movie));
+            }
+            catalogue.addAll(movies);
+            snapshot = withMovies(emptyCatalogue(current.lookups), catalogue);
+        }
+    }
+    /**
+     * Returns a snapshot that also holds the given movies, skipping those already in
+     * the catalogue, or the same snapshot if there are none to add.
+     *
+     * @param current The snapshot to start from.
+     * @param movies The movies to add.
+     */
+    private Snapshot withMovies(Snapshot current, List<Movie> movies) {
+        List<Movie> added = new ArrayList<>(movies.size());
+        Set<Long> ids = new HashSet<>();
+        for (Movie movie : movies) {
+            if (!current.titles.contains(movie.getMovieId()) && ids.add(movie.getMovieId())) {
+                added.add(movie);
+            }
+        }
+        if (added.isEmpty()) {
+            return current;
         }
+
+        TitleIndex titles = current.titles.copy();
+        PersonIndex people = current.people.copy();
+        Autocomplete autocomplete = current.autocomplete.copy();
+        Map<Long, Term> titleTerms = new HashMap<>(current.titleTerms);
+        for (Movie movie : added) {
+            titles.add(movie);
+            people.add(movie);
+        }
+        populateAutocompleteEngine(autocomplete, titles, titleTerms, added);
+        MovieGraph graph = current.graph.with(added, people);
+        return new Snapshot(titles, people, current.lookups, autocomplete, titleTerms, graph,
+                current.sampler.with(added, graph));
     }
     /**
-     * Populates the autocomplete engine with movie titles for quick suggestions.
+     * Writes the binary snapshot used for fast startup, replacing any deltas. Failure
+     * only costs the next start a JSON parse, so it is reported and otherwise ignored.
+     *
+     * @param movies The movies to store.
+     */
+    private void writeSnapshot(List<Movie> movies) {
+        try {
+            store.compact(movies);
+        } catch (IOException e) {
+            System.err.println("Could not write " + SNAPSHOT_FILE + ": " + e.getMessage());
+        }
+    }
+    /**
+     * Populates the autocomplete engine with movie titles for quick suggestions,
+     * ranked by {@link #titleWeight(Movie, int)}. A title shared by several catalogue
+     * movies is suggested with its year, which {@link #findByTitle(String)} understands.
      *
      * @param autocompleteEngine The autocomplete engine to populate.
+     * @param titles The title index, already holding the movies.
+     * @param titleTerms Receives each inserted movie's term, by movie ID.
      * @param movies The list of movies to insert into the autocomplete engine.
      */
-    private void populateAutocompleteEngine(Autocomplete autocompleteEngine, List<Movie> movies) {
+    private void populateAutocompleteEngine(Autocomplete autocompleteEngine, TitleIndex titles,
+                                            Map<Long, Term> titleTerms, List<Movie> movies) {
         for (Movie movie : movies) {
-            autocompleteEngine.insert(movie.getTitle(), 0);
+            String title = movie.getTitle();
+            if (titles.isAmbiguous(title)) {
+                title += " (" + movie.getYear() + ")";
+            }
+            int plays = playCounts.getOrDefault(movie.getMovieId(), 0);
+            titleTerms.put(movie.getMovieId(), autocompleteEngine.insert(title, titleWeight(movie, plays)));
+        }
+    }
+    /**
+     * Records a successful play of a movie and raises its title in the autocomplete
+     * ranking straight away. Only the title's paths through the autocomplete engine
+     * are copied and re-ranked; see {@link Autocomplete#withWeight(Term, long)}.
+     *
+     * @param movie The movie that was played.
+     */
+    public void recordPlay(Movie movie) {
+        synchronized (writeLock) {
+            int plays = playCounts.merge(movie.getMovieId(), 1, Integer::sum);
+            Snapshot current = snapshot;
+            Term term = current.titleTerms.get(movie.getMovieId());
+            Autocomplete autocomplete = term == null ? null
+                    : current.autocomplete.withWeight(term, titleWeight(movie, plays));
+            if (autocomplete == null) {
+                return;
+            }
+            snapshot = new Snapshot(current.titles, current.people, current.lookups, autocomplete,
+                    current.titleTerms, current.graph, current.sampler);
+        }
+    }
+    /**
+     * Returns how many times a movie has been played successfully.
+     *
+     * @param movie The movie to look up.
+     * @return The number of successful plays.
+     */
+    public int getPlayCount(Movie movie) {
+        return playCounts.getOrDefault(movie.getMovieId(), 0);
+    }
+    /**
+     * Computes the autocomplete weight of a title: TMDB popularity (to two decimal
+     * places) plus the number of votes, plus a fixed boost per successful play.
+     *
+     * @param movie The movie to weigh.
+     * @param plays The number of successful plays of the movie.
+     * @return The weight, never negative.
+     */
+    static long titleWeight(Movie movie, int plays) {
+        long popularity = Math.round(Math.max(0, movie.getPopularity()) * 100);
+        return popularity + Math.max(0, movie.getVoteCount()) + (long) plays * PLAY_BOOST;
+    }
+    /**
+     * Lists every loaded movie that shares a person in the same role with the given
+     * movie, i.e. the legal next moves from it.
+     *
+     * @param movie The movie to start from.
+     * @return The connected movies, or an empty list if the movie is not loaded.
+     */
+    public List<Movie> getConnectedMovies(Movie movie) {
+        Snapshot current = snapshot;
+        if (!current.people.contains(movie) && !current.lookups.contains(movie)) {
+            return Collections.emptyList();
+        }
+        List<Movie> connected = current.people.moviesConnectedTo(movie);
+        for (Movie other : current.lookups.moviesConnectedTo(movie)) {
+            if (!current.titles.contains(other.getMovieId())) {
+                connected.add(other);
+            }
         }
+        return connected;
+    }
+    /**
+     * Lists the people two movies share in the same role, i.e. what connects them.
+     * Between two catalogue movies this is read from the movie graph; otherwise the
+     * movies' credits are compared.
+     *
+     * @param from The movie to start from.
+     * @param to The movie to reach.
+     * @return The connections, or an empty list if the movies are not connected.
+     */
+    public List<Connection> findConnections(Movie from, Movie to) {
+        List<Connection> connections = snapshot.graph.connections(from, to);
+        return connections != null ? connections : from.findConnections(to);
+    }
+    /**
+     * Retrieves the graph of catalogue movies and what connects them, as of now.
+     *
+     * @return The MovieGraph over every preloaded movie.
+     */
+    MovieGraph getMovieGraph() {
+        return snapshot.graph;
+    }
+    /**
+     * Retrieves the person index built over every catalogue movie, as of now; it must
+     * not be modified.
+     *
+     * @return The PersonIndex for this database.
+     */
+    public PersonIndex getPersonIndex() {
+        return snapshot.people;
+    }
+    /**
+     * Retrieves the person index of movies looked up outside the catalogue, as of
+     * now; it must not be modified.
+     *
+     * @return The PersonIndex of TMDB lookups.
+     */
+    PersonIndex getLookupIndex() {
+        return snapshot.lookups;
+    }
+    /**
+     * Retrieves the index of catalogue titles, as of now; it must not be modified.
+     *
+     * @return The TitleIndex over every preloaded movie.
+     */
+    public TitleIndex getTitleIndex() {
+        return snapshot.titles;
+    }
+    /**
+     * Retrieves the cache of title lookups that went to TMDB, e.g. to read its counters.
+     *
+     * @return The title lookup cache.
+     */
+    public LookupCache<String, Movie> getTitleCache() {
+        return movieCache;
+    }
+    /**
+     * Retrieves the cache of actor filmographies fetched from TMDB.
+     *
+     * @return The actor lookup cache.
+     */
+    public LookupCache<String, List<Movie>> getActorCache() {
+        return actorCache;
+    }
+    /**
+     * Retrieves the cache of similar-movie lists fetched from TMDB, by movie ID.
+     *
+     * @return The similar-movie lookup cache.
+     */
+    public LookupCache<Long, List<Movie>> getSimilarCache() {
+        return similarCache;
     }
     /**
-     * Retrieves the autocomplete engine instance associated with the movie database.
+     * Suggests catalogue titles for the text typed so far, tolerating small typos; see
+     * {@link Autocomplete#suggestFuzzy(String)}.
+     *
+     * @param prefix The text typed so far.
+     * @return The suggested titles, best first.
+     */
+    public List<Term> suggestTitles(String prefix) {
+        return getAutocompleteEngine().suggestFuzzy(prefix);
+    }
+    /**
+     * Retrieves the autocomplete engine instance associated with the movie database,
+     * as of now; it must not be modified.
      *
      * @return The Autocomplete engine used for providing movie title suggestions.
      */
     public Autocomplete getAutocompleteEngine() {
-        return autocompleteEngine;
+        return snapshot.autocomplete;
     }
     /**
-     * Retrieves a random movie from the movie cache. If the cache is empty, it attempts
-     * to preload popular movies first.
+     * Retrieves a random movie from the catalogue, each movie equally likely. If the
+     * catalogue is empty, it waits for a running background preload, or else preloads
+     * popular movies first; the same goes for the filtered variants below.
      *
-     * @return A randomly selected Movie object, or null if the cache is empty.
+     * @return A randomly selected Movie object, or null if the catalogue is empty.
      */
     public Movie getRandomMovie() {
-        if (movieCache.isEmpty()) {
-            preloadPopularMovies();
-        }
-
-        if (movieCache.isEmpty()) {
-            return null;
+        return loadedSampler().random();
+    }
+    /**
+     * Retrieves a random catalogue movie with the given genre.
+     *
+     * @param genre The genre name, as TMDB spells it, e.g. "Horror".
+     * @return A randomly selected Movie object, or null if no movie has the genre.
+     */
+    public Movie getRandomMovieWithGenre(String genre) {
+        return loadedSampler().randomWithGenre(genre);
+    }
+    /**
+     * Retrieves a random catalogue movie released within a range of years.
+     *
+     * @param from The first year, inclusive.
+     * @param to The last year, inclusive.
+     * @return A randomly selected Movie object, or null if none was released then.
+     */
+    public Movie getRandomMovieFromYears(int from, int to) {
+        return loadedSampler().randomFromYears(from, to);
+    }
+    /**
+     * Retrieves a random catalogue movie that connects to at least k other catalogue
+     * movies, so a game started from it has at least k possible first moves.
+     *
+     * @param k The least number of connected movies.
+     * @return A randomly selected Movie object, or null if no movie has that many.
+     */
+    public Movie getRandomMovieWithNeighbours(int k) {
+        return loadedSampler().randomWithNeighbours(k);
+    }
+    /**
+     * Returns the current sampler, first loading the catalogue if it is empty. A
+     * background preload that failed is reported and the catalogue loaded here instead.
+     */
+    private MovieSampler loadedSampler() {
+        if (getLoadedMovieCount() == 0) {
+            CompletableFuture<Void> running = preload;
+            if (running != null) {
+                try {
+                    running.join();
+                } catch (CompletionException | CancellationException e) {
+                    System.err.println("Background preload failed: " + e.getMessage());
+                }
+            }
+            if (getLoadedMovieCount() == 0 && (running == null || running.isCompletedExceptionally())) {
+                preloadPopularMovies();
+            }
         }
-
-        List<Movie> all = new ArrayList<>(movieCache.values());
-        return all.get(new Random().nextInt(all.size()));
+        return snapshot.sampler;
     }
 }
@@ -0,0 +1,249 @@
+import java.util.*;
+
+/**
+ * The graph the game is played on: catalogue movies, joined wherever two of them
+ * share a person in the same role, with every edge labelled by the people it stands
+ * for.
+ *
+ * <p>The graph is kept in compressed sparse row form. Movies sit in slots in
+ * catalogue order; the neighbours of slot s are {@code targets[offsets[s]]} up to
+ * {@code targets[offsets[s + 1]]}, ascending, and each undirected edge is stored
+ * from both ends. The labels of edge e are {@code labels[labelOffsets[e]]} up to
+ * {@code labelOffsets[e + 1]}, each a person's {@link NameDictionary} ID and a
+ * {@link ConnectionType} packed into one int, in the order
+ * {@link Movie#findConnections(Movie)} lists them. Listing a movie's moves is then
+ * O(degree), and checking one move a binary search within its row.
+ *
+ * <p>A graph is immutable. {@link #with(List, PersonIndex)} returns a new one with
+ * more movies, finding edges only around the added movies and copying the rest.
+ */
+final class MovieGraph {
+    static final MovieGraph EMPTY = new MovieGraph(new Movie[0], Map.of(), new int[1], new int[0],
+            new int[1], new int[0]);
+
+    private static final ConnectionType[] TYPES = ConnectionType.values();
+    private static final int TYPE_BITS = 3;
+
+    private final Movie[] movies;
+    private final Map<Long, Integer> slots;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] labelOffsets;
+    private final int[] labels;
+
+    private MovieGraph(Movie[] movies, Map<Long, Integer> slots, int[] offsets, int[] targets,
+                       int[] labelOffsets, int[] labels) {
+        this.movies = movies;
+        this.slots = slots;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.labelOffsets = labelOffsets;
+        this.labels = labels;
+    }
+
+    /**
+     * Returns a graph that also holds the given movies. The edges of each added movie
+     * are found from the posting lists of its people; an existing movie's row is
+     * copied, with edges to added movies appended, which keeps it sorted since added
+     * movies take the highest slots.
+     *
+     * @param added Movies not yet in this graph, with distinct IDs.
+     * @param people A person index that already holds the added movies.
+     * @return the new graph
+     */
+    MovieGraph with(List<Movie> added, PersonIndex people) {
+        int n = movies.length;
+        int m = n + added.size();
+        Movie[] all = Arrays.copyOf(movies, m);
+        Map<Long, Integer> allSlots = new HashMap<>(slots);
+        for (int i = 0; i < added.size(); i++) {
+            all[n + i] = added.get(i);
+            allSlots.put(added.get(i).getMovieId(), n + i);
+        }
+
+        // The rows of the added movies, and the edges they add to existing rows
+        List<SortedMap<Integer, IntList>> newRows = new ArrayList<>(added.size());
+        Map<Integer, List<int[]>> appended = new HashMap<>();
+        int newEdges = 0;
+        int newLabels = 0;
+        for (int slot = n; slot < m; slot++) {
+            SortedMap<Integer, IntList> row = edgesOf(all[slot], slot, allSlots, people);
+            newRows.add(row);
+            for (Map.Entry<Integer, IntList> edge : row.entrySet()) {
+                int other = edge.getKey();
+                int[] edgeLabels = edge.getValue().toArray();
+                newEdges++;
+                newLabels += edgeLabels.length;
+                if (other < n) {
+                    // The existing movie's end of the edge; slots arrive in ascending order
+                    appended.computeIfAbsent(other, k -> new ArrayList<>()).add(prepend(slot, edgeLabels));
+                    newEdges++;
+                    newLabels += edgeLabels.length;
+                }
+            }
+        }
+
+        int[] allOffsets = new int[m + 1];
+        int[] allTargets = new int[targets.length + newEdges];
+        int[] allLabelOffsets = new int[allTargets.length + 1];
+        int[] allLabels = new int[labels.length + newLabels];
+        int edge = 0;
+        int label = 0;
+        for (int slot = 0; slot < n; slot++) {
+            allOffsets[slot] = edge;
+            int from = offsets[slot];
+            int to = offsets[slot + 1];
+            System.arraycopy(targets, from, allTargets, edge, to - from);
+            System.arraycopy(labels, labelOffsets[from], allLabels, label,
+                    labelOffsets[to] - labelOffsets[from]);
+            for (int e = from; e < to; e++) {
+                allLabelOffsets[edge++] = label;
+                label += labelOffsets[e + 1] - labelOffsets[e];
+            }
+            for (int[] extra : appended.getOrDefault(slot, List.of())) {
+                allTargets[edge] = extra[0];
+                allLabelOffsets[edge++] = label;
+                System.arraycopy(extra, 1, allLabels, label, extra.length - 1);
+                label += extra.length - 1;
+            }
+        }
+        for (int slot = n; slot < m; slot++) {
+            allOffsets[slot] = edge;
+            for (Map.Entry<Integer, IntList> entry : newRows.get(slot - n).entrySet()) {
+                allTargets[edge] = entry.getKey();
+                allLabelOffsets[edge++] = label;
+                IntList edgeLabels = entry.getValue();
+                System.arraycopy(edgeLabels.values, 0, allLabels, label, edgeLabels.size);
+                label += edgeLabels.size;
+            }
+        }
+        allOffsets[m] = edge;
+        allLabelOffsets[edge] = label;
+        return new MovieGraph(all, allSlots, allOffsets, allTargets, allLabelOffsets, allLabels);
+    }
+
+    /**
+     * Returns the catalogue movies connected to a movie, i.e. every legal next move
+     * from it.
+     *
+     * @param movie A movie in this graph.
+     * @return the neighbours in catalogue order, or an empty list if the movie is not
+     *         in the graph
+     */
+    List<Movie> neighbours(Movie movie) {
+        int slot = slotOf(movie);
+        if (slot < 0) {
+            return Collections.emptyList();
+        }
+        List<Movie> neighbours = new ArrayList<>(offsets[slot + 1] - offsets[slot]);
+        for (int e = offsets[slot]; e < offsets[slot + 1]; e++) {
+            neighbours.add(movies[targets[e]]);
+        }
+        return neighbours;
+    }
+
+    /**
+     * Lists what connects two movies, the same as {@code from.findConnections(to)}
+     * but read from the graph.
+     *
+     * @param from A movie.
+     * @param to Another movie.
+     * @return the shared people and their roles, empty if the movies are not
+     *         connected, or null if either movie is not in the graph
+     */
+    List<Connection> connections(Movie from, Movie to) {
+        int source = slotOf(from);
+        int target = slotOf(to);
+        if (source < 0 || target < 0) {
+            return null;
+        }
+        int e = Arrays.binarySearch(targets, offsets[source], offsets[source + 1], target);
+        if (e < 0) {
+            return new ArrayList<>();
+        }
+        List<Connection> connections = new ArrayList<>(labelOffsets[e + 1] - labelOffsets[e]);
+        for (int i = labelOffsets[e]; i < labelOffsets[e + 1]; i++) {
+            connections.add(new Connection(NameDictionary.name(labels[i] >>> TYPE_BITS),
+                    TYPES[labels[i] & ((1 << TYPE_BITS) - 1)]));
+        }
+        return connections;
+    }
+
+    /**
+     * Returns how many other catalogue movies a movie connects to.
+     *
+     * @param movie A movie in this graph.
+     * @return the number of neighbours, or -1 if the movie is not in the graph
+     */
+    int degreeOf(Movie movie) {
+        int slot = slotOf(movie);
+        return slot < 0 ? -1 : offsets[slot + 1] - offsets[slot];
+    }
+
+    int size() {
+        return movies.length;
+    }
+
+    /**
+     * Returns the number of edges, counting each pair of connected movies once.
+     */
+    int edgeCount() {
+        return targets.length / 2;
+    }
+
+    /**
+     * Returns the slot of this exact movie object, or -1. A different object with the
+     * same TMDB ID may carry different credits, so it does not count.
+     */
+    private int slotOf(Movie movie) {
+        Integer slot = movie == null ? null : slots.get(movie.getMovieId());
+        return slot != null && movies[slot] == movie ? slot : -1;
+    }
+
+    /**
+     * Collects a movie's neighbours among the catalogue movies, each with the labels
+     * of the edge to it.
+     */
+    private static SortedMap<Integer, IntList> edgesOf(Movie movie, int slot, Map<Long, Integer> catalogue,
+                                                        PersonIndex people) {
+        SortedMap<Integer, IntList> row = new TreeMap<>();
+        for (ConnectionType type : TYPES) {
+            for (int person : movie.getPersonIds(type)) {
+                int label = person << TYPE_BITS | type.ordinal();
+                for (Movie other : people.moviesWith(person, type)) {
+                    Integer otherSlot = catalogue.get(other.getMovieId());
+                    if (otherSlot != null && otherSlot != slot) {
+                        row.computeIfAbsent(otherSlot, k -> new IntList()).add(label);
+                    }
+                }
+            }
+        }
+        return row;
+    }
+
+    private static int[] prepend(int first, int[] rest) {
+        int[] values = new int[rest.length + 1];
+        values[0] = first;
+        System.arraycopy(rest, 0, values, 1, rest.length);
+        return values;
+    }
+
+    /**
+     * A growable list of ints.
+     */
+    private static final class IntList {
+        int[] values = new int[2];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks random catalogue movies without copying or scanning the catalogue, either
+ * from every movie or from those matching a filter.
+ *
+ * <p>Movies sit in a dense array in catalogue order, so a uniform pick is one random
+ * index. For filtered picks the sampler also keeps, per genre, the slots of that
+ * genre's movies; all slots ordered by release year, so a year range is a contiguous
+ * run found by binary search; and all slots ordered by how many other catalogue
+ * movies each one connects to, so "at least K neighbours" is a prefix. Every pick is
+ * therefore O(1) or O(log n).
+ *
+ * <p>A sampler is immutable. {@link #with(List, MovieGraph)} returns a new one with
+ * more movies, taking neighbour counts from the {@link MovieGraph}.
+ */
+final class MovieSampler {
+    static final MovieSampler EMPTY = new MovieSampler(new Movie[0], Map.of(), new int[0],
+            Map.of(), new int[0], new int[0]);
+
+    private final Movie[] movies;
+    private final Map<Long, Integer> slots;
+    // degrees[slot]: how many other catalogue movies share a person in the same role
+    private final int[] degrees;
+    // Slots of each genre's movies, ascending
+    private final Map<String, int[]> byGenre;
+    // All slots by ascending year, and by descending degree
+    private final int[] byYear;
+    private final int[] byDegree;
+
+    private MovieSampler(Movie[] movies, Map<Long, Integer> slots, int[] degrees,
+                         Map<String, int[]> byGenre, int[] byYear, int[] byDegree) {
+        this.movies = movies;
+        this.slots = slots;
+        this.degrees = degrees;
+        this.byGenre = byGenre;
+        this.byYear = byYear;
+        this.byDegree = byDegree;
+    }
+
+    /**
+     * Returns a sampler that also holds the given movies. Degrees are read from the
+     * graph and the orderings rebuilt with a counting sort, in linear time.
+     *
+     * @param added Movies not yet in this sampler.
+     * @param graph A movie graph holding this sampler's movies and the added ones.
+     * @return the new sampler
+     */
+    MovieSampler with(List<Movie> added, MovieGraph graph) {
+        int n = movies.length;
+        int m = n + added.size();
+        Movie[] all = Arrays.copyOf(movies, m);
+        Map<Long, Integer> allSlots = new HashMap<>(slots);
+        for (int i = 0; i < added.size(); i++) {
+            all[n + i] = added.get(i);
+            allSlots.put(added.get(i).getMovieId(), n + i);
+        }
+
+        int[] allDegrees = new int[m];
+        for (int slot = 0; slot < m; slot++) {
+            allDegrees[slot] = graph.degreeOf(all[slot]);
+        }
+
+        Map<String, int[]> allByGenre = new HashMap<>(byGenre);
+        for (int slot = n; slot < m; slot++) {
+            for (String genre : all[slot].getGenres()) {
+                int[] genreSlots = allByGenre.getOrDefault(genre, new int[0]);
+                genreSlots = Arrays.copyOf(genreSlots, genreSlots.length + 1);
+                genreSlots[genreSlots.length - 1] = slot;
+                allByGenre.put(genre, genreSlots);
+            }
+        }
+
+        int[] years = new int[m];
+        for (int slot = 0; slot < m; slot++) {
+            years[slot] = all[slot].getYear();
+        }
+        int[] negatedDegrees = new int[m];
+        for (int slot = 0; slot < m; slot++) {
+            negatedDegrees[slot] = -allDegrees[slot];
+        }
+        return new MovieSampler(all, allSlots, allDegrees, allByGenre,
+                countingSort(years), countingSort(negatedDegrees));
+    }
+
+    /**
+     * Picks a movie uniformly.
+     *
+     * @return a movie, or null if the sampler is empty
+     */
+    Movie random() {
+        return movies.length == 0 ? null : movies[ThreadLocalRandom.current().nextInt(movies.length)];
+    }
+
+    /**
+     * Picks a movie uniformly among those with a genre.
+     *
+     * @param genre The genre name, as TMDB spells it, e.g. "Horror".
+     * @return a movie, or null if none has the genre
+     */
+    Movie randomWithGenre(String genre) {
+        int[] genreSlots = byGenre.get(genre);
+        return genreSlots == null ? null : movies[genreSlots[ThreadLocalRandom.current().nextInt(genreSlots.length)]];
+    }
+
+    /**
+     * Picks a movie uniformly among those released within a range of years.
+     *
+     * @param from The first year, inclusive.
+     * @param to The last year, inclusive.
+     * @return a movie, or null if none was released in the range
+     */
+    Movie randomFromYears(int from, int to) {
+        int start = firstYearAtLeast(from);
+        int end = to == Integer.MAX_VALUE ? byYear.length : firstYearAtLeast(to + 1);
+        if (start >= end) {
+            return null;
+        }
+        return movies[byYear[ThreadLocalRandom.current().nextInt(start, end)]];
+    }
+
+    /**
+     * Picks a movie uniformly among those connected to at least k other catalogue
+     * movies, i.e. with at least k possible next moves.
+     *
+     * @param k The least number of neighbours.
+     * @return a movie, or null if none has that many
+     */
+    Movie randomWithNeighbours(int k) {
+        // byDegree is descending, so the movies with degree >= k come first
+        int low = 0;
+        int high = byDegree.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (degrees[byDegree[mid]] >= k) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low == 0 ? null : movies[byDegree[ThreadLocalRandom.current().nextInt(low)]];
+    }
+
+    /**
+     * Returns how many other catalogue movies a movie connects to.
+     *
+     * @param movie A movie in this sampler.
+     * @return the number of neighbours, or -1 if the movie is not in the sampler
+     */
+    int degreeOf(Movie movie) {
+        Integer slot = slots.get(movie.getMovieId());
+        return slot == null ? -1 : degrees[slot];
+    }
+
+    int size() {
+        return movies.length;
+    }
+
+    private int firstYearAtLeast(int year) {
+        int low = 0;
+        int high = byYear.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (movies[byYear[mid]].getYear() < year) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Orders slots 0..keys.length-1 by ascending key, stably, in time linear in the
+     * number of slots plus the range of keys.
+     */
+    private static int[] countingSort(int[] keys) {
+        if (keys.length == 0) {
+            return keys;
+        }
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int key : keys) {
+            min = Math.min(min, key);
+            max = Math.max(max, key);
+        }
+        int[] starts = new int[max - min + 2];
+        for (int key : keys) {
+            starts[key - min + 1]++;
+        }
+        for (int i = 1; i < starts.length; i++) {
+            starts[i] += starts[i - 1];
+        }
+        int[] sorted = new int[keys.length];
+        for (int slot = 0; slot < keys.length; slot++) {
+            sorted[starts[keys[slot] - min]++] = slot;
+        }
+        return sorted;
+    }
+}
@@ -0,0 +1,410 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * A compact, memory-mapped binary copy of the movie catalogue, used instead of
+ * parsing movie_cache.json at startup.
+ *
+ * <p>The file holds a header, a table of string offsets, one fixed-width record per
+ * movie, a pool of credit entries and finally the UTF-8 bytes of every distinct
+ * string. Titles, genres and people are stored once and referred to by index, and
+ * credits are read straight into {@link NameDictionary} IDs. Opening the file only
+ * checks that every index in it points inside its section; strings and movies are
+ * built on first access.
+ *
+ * <pre>
+ * header   int magic, int version, int stringCount, int movieCount, int creditCount
+ * offsets  int[stringCount + 1]   byte offset of each string within the string data
+ * movies   movieCount records of  long id, int title, int year, double popularity,
+ *                                 int voteCount,
+ *                                 CREDIT_LISTS x (int first credit, int credit count)
+ * credits  int[creditCount]       string index of each genre or person
+ * strings  UTF-8 bytes
+ * </pre>
+ * Credit lists are stored in the order genres, actors, directors, writers, composers,
+ * cinematographers, i.e. genres followed by {@link ConnectionType} order.
+ */
+public class MovieSnapshot {
+    private static final int MAGIC = 0x4D56534E; // "MVSN"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 5 * Integer.BYTES;
+    private static final int CREDIT_LISTS = 1 + ConnectionType.values().length;
+    private static final int CREDITS_OFFSET = Long.BYTES + 2 * Integer.BYTES
+            + Double.BYTES + Integer.BYTES;
+    private static final int RECORD_BYTES = CREDITS_OFFSET + CREDIT_LISTS * 2 * Integer.BYTES;
+
+    private final ByteBuffer buffer;
+    private final int stringCount;
+    private final int movieCount;
+    private final int offsetsStart;
+    private final int moviesStart;
+    private final int creditsStart;
+    private final int stringsStart;
+    private final String[] strings;
+    private final int[] nameIds;
+    private final Movie[] movies;
+
+    /**
+     * Wraps a buffer holding a snapshot and validates its structure.
+     *
+     * @param buffer The snapshot contents.
+     * @throws IOException if the buffer is not a snapshot this version can read.
+     */
+    private MovieSnapshot(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a movie snapshot.");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported movie snapshot version " + buffer.getInt(4) + ".");
+        }
+        this.stringCount = buffer.getInt(8);
+        this.movieCount = buffer.getInt(12);
+        int creditCount = buffer.getInt(16);
+        if (stringCount < 0 || movieCount < 0 || creditCount < 0) {
+            throw new IOException("Corrupt movie snapshot header.");
+        }
+        this.offsetsStart = HEADER_BYTES;
+        this.moviesStart = sectionEnd(offsetsStart, stringCount + 1L, Integer.BYTES);
+        this.creditsStart = sectionEnd(moviesStart, movieCount, RECORD_BYTES);
+        this.stringsStart = sectionEnd(creditsStart, creditCount, Integer.BYTES);
+        int stringBytes = buffer.getInt(moviesStart - Integer.BYTES);
+        if (stringBytes < 0 || stringsStart + (long) stringBytes != buffer.capacity()) {
+            throw new IOException("Truncated movie snapshot.");
+        }
+        checkReferences(creditCount);
+        this.strings = new String[stringCount];
+        this.nameIds = new int[stringCount];
+        Arrays.fill(nameIds, -1);
+        this.movies = new Movie[movieCount];
+    }
+
+    /**
+     * Returns where a section of the buffer ends, checking that it fits.
+     *
+     * @param start The section's first byte.
+     * @param count The number of entries in the section.
+     * @param width The size of each entry in bytes.
+     * @return The offset just past the section.
+     * @throws IOException if the section would run past the end of the buffer.
+     */
+    private int sectionEnd(int start, long count, int width) throws IOException {
+        try {
+            long end = Math.addExact(start, Math.multiplyExact(count, width));
+            if (end > buffer.capacity()) {
+                throw new IOException("Truncated movie snapshot.");
+            }
+            return (int) end;
+        } catch (ArithmeticException e) {
+            throw new IOException("Corrupt movie snapshot header.", e);
+        }
+    }
+
+    /**
+     * Checks every string offset, title, credit range and credit entry against the
+     * section it points into, so decoding a record later cannot read out of bounds.
+     *
+     * @param creditCount The number of entries in the credit pool.
+     * @throws IOException if any of them is out of range.
+     */
+    private void checkReferences(int creditCount) throws IOException {
+        int previous = 0;
+        for (int i = 0; i <= stringCount; i++) {
+            int offset = buffer.getInt(offsetsStart + i * Integer.BYTES);
+            if (offset < previous || (i == 0 && offset != 0)) {
+                throw new IOException("Corrupt movie snapshot string table.");
+            }
+            previous = offset;
+        }
+        for (int index = 0; index < movieCount; index++) {
+            int record = moviesStart + index * RECORD_BYTES;
+            checkStringId(buffer.getInt(record + Long.BYTES));
+            for (int list = 0; list < CREDIT_LISTS; list++) {
+                int first = buffer.getInt(record + CREDITS_OFFSET + 2 * list * Integer.BYTES);
+                int count = buffer.getInt(record + CREDITS_OFFSET + (2 * list + 1) * Integer.BYTES);
+                if (first < 0 || count < 0 || (long) first + count > creditCount) {
+                    throw new IOException("Corrupt credit list in movie snapshot record " + index + ".");
+                }
+            }
+        }
+        for (int i = 0; i < creditCount; i++) {
+            checkStringId(buffer.getInt(creditsStart + i * Integer.BYTES));
+        }
+    }
+
+    private void checkStringId(int id) throws IOException {
+        if (id < 0 || id >= stringCount) {
+            throw new IOException("Corrupt string reference " + id + " in movie snapshot.");
+        }
+    }
+
+    /**
+     * Maps a snapshot file into memory. Only the header and indexes are read up
+     * front.
+     *
+     * @param path The snapshot file.
+     * @return The opened snapshot.
+     * @throws IOException if the file cannot be read or is not a valid snapshot.
+     */
+    public static MovieSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new MovieSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Reads a snapshot held in memory, e.g. one segment of a larger file.
+     *
+     * @param bytes The snapshot, as produced by {@link #encode(List)}.
+     * @return The snapshot.
+     * @throws IOException if the bytes are not a valid snapshot.
+     */
+    static MovieSnapshot read(byte[] bytes) throws IOException {
+        return new MovieSnapshot(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Writes the movies to a snapshot file. The file is written next to the target
+     * and moved into place, so readers never see a half-written snapshot.
+     *
+     * @param movies The movies to store.
+     * @param path The snapshot file to create or replace.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void write(List<Movie> movies, Path path) throws IOException {
+        byte[] bytes = encode(movies);
+        Path absolute = path.toAbsolutePath();
+        Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, bytes);
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Encodes movies in the snapshot format.
+     *
+     * @param movies The movies to store.
+     * @return The snapshot bytes.
+     */
+    static byte[] encode(List<Movie> movies) {
+        Map<String, Integer> stringIds = new LinkedHashMap<>();
+        List<Integer> credits = new ArrayList<>();
+        int[][] lists = new int[movies.size()][CREDIT_LISTS * 2];
+
+        for (int i = 0; i < movies.size(); i++) {
+            Movie movie = movies.get(i);
+            intern(stringIds, movie.getTitle());
+            List<Set<String>> creditLists = creditLists(movie);
+            for (int list = 0; list < CREDIT_LISTS; list++) {
+                lists[i][2 * list] = credits.size();
+                lists[i][2 * list + 1] = creditLists.get(list).size();
+                for (String name : creditLists.get(list)) {
+                    credits.add(intern(stringIds, name));
+                }
+            }
+        }
+
+        List<byte[]> encoded = new ArrayList<>(stringIds.size());
+        int stringBytes = 0;
+        for (String s : stringIds.keySet()) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            stringBytes += bytes.length;
+        }
+
+        int size = HEADER_BYTES + (stringIds.size() + 1) * Integer.BYTES
+                + movies.size() * RECORD_BYTES + credits.size() * Integer.BYTES + stringBytes;
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.putInt(MAGIC).putInt(VERSION)
+                .putInt(stringIds.size()).putInt(movies.size()).putInt(credits.size());
+
+        int offset = 0;
+        for (byte[] bytes : encoded) {
+            out.putInt(offset);
+            offset += bytes.length;
+        }
+        out.putInt(offset);
+
+        for (int i = 0; i < movies.size(); i++) {
+            Movie movie = movies.get(i);
+            out.putLong(movie.getMovieId());
+            out.putInt(stringIds.get(movie.getTitle()));
+            out.putInt(movie.getYear());
+            out.putDouble(movie.getPopularity());
+            out.putInt(movie.getVoteCount());
+            for (int value : lists[i]) {
+                out.putInt(value);
+            }
+        }
+        for (int credit : credits) {
+            out.putInt(credit);
+        }
+        for (byte[] bytes : encoded) {
+            out.put(bytes);
+        }
+        return out.array();
+    }
+
+    /**
+     * Returns the number of movies in the snapshot.
+     *
+     * @return the movie count
+     */
+    public int size() {
+        return movieCount;
+    }
+
+    /**
+     * Returns the TMDB ID of a movie without decoding the rest of its record.
+     *
+     * @param index The position of the movie in the snapshot.
+     * @return the movie's TMDB ID
+     */
+    public long movieId(int index) {
+        return buffer.getLong(recordStart(index));
+    }
+
+    /**
+     * Returns the title of a movie without decoding the rest of its record.
+     *
+     * @param index The position of the movie in the snapshot.
+     * @return the movie's title
+     */
+    public String title(int index) {
+        return string(buffer.getInt(recordStart(index) + Long.BYTES));
+    }
+
+    /**
+     * Returns the movie at the given position, decoding it on first access.
+     *
+     * @param index The position of the movie in the snapshot.
+     * @return the decoded Movie
+     */
+    public Movie movie(int index) {
+        Movie movie = movies[index];
+        if (movie == null) {
+            movie = decode(index);
+            movies[index] = movie;
+        }
+        return movie;
+    }
+
+    /**
+     * Decodes every movie in the snapshot, in stored order.
+     *
+     * @return a list of all movies
+     */
+    public List<Movie> movies() {
+        List<Movie> all = new ArrayList<>(movieCount);
+        for (int i = 0; i < movieCount; i++) {
+            all.add(movie(i));
+        }
+        return all;
+    }
+
+    /**
+     * Builds the Movie for one record, translating its credits straight into
+     * {@link NameDictionary} IDs.
+     */
+    private Movie decode(int index) {
+        int record = recordStart(index);
+        long id = buffer.getLong(record);
+        String title = string(buffer.getInt(record + Long.BYTES));
+        int year = buffer.getInt(record + Long.BYTES + Integer.BYTES);
+        double popularity = buffer.getDouble(record + Long.BYTES + 2 * Integer.BYTES);
+        int voteCount = buffer.getInt(record + Long.BYTES + 2 * Integer.BYTES + Double.BYTES);
+
+        int[][] lists = new int[CREDIT_LISTS][];
+        int listStart = record + CREDITS_OFFSET;
+        for (int list = 0; list < CREDIT_LISTS; list++) {
+            int first = buffer.getInt(listStart + 2 * list * Integer.BYTES);
+            int count = buffer.getInt(listStart + (2 * list + 1) * Integer.BYTES);
+            int[] ids = new int[count];
+            for (int i = 0; i < count; i++) {
+                ids[i] = nameId(buffer.getInt(creditsStart + (first + i) * Integer.BYTES));
+            }
+            Arrays.sort(ids);
+            lists[list] = ids;
+        }
+        return new Movie(id, title, year, popularity, voteCount, lists[0],
+                Arrays.copyOfRange(lists, 1, CREDIT_LISTS));
+    }
+
+    /**
+     * Returns the NameDictionary ID of a string-table entry, interning it on first use.
+     */
+    private int nameId(int stringId) {
+        int id = nameIds[stringId];
+        if (id < 0) {
+            id = NameDictionary.intern(string(stringId));
+            nameIds[stringId] = id;
+        }
+        return id;
+    }
+
+    /**
+     * Returns a string from the string table, decoding it on first access.
+     */
+    private String string(int id) {
+        String s = strings[id];
+        if (s == null) {
+            int start = buffer.getInt(offsetsStart + id * Integer.BYTES);
+            int end = buffer.getInt(offsetsStart + (id + 1) * Integer.BYTES);
+            byte[] bytes = new byte[end - start];
+            buffer.get(stringsStart + start, bytes);
+            s = new String(bytes, StandardCharsets.UTF_8);
+            strings[id] = s;
+        }
+        return s;
+    }
+
+    private int recordStart(int index) {
+        Objects.checkIndex(index, movieCount);
+        return moviesStart + index * RECORD_BYTES;
+    }
+
+    private static int intern(Map<String, Integer> ids, String s) {
+        return ids.computeIfAbsent(s, k -> ids.size());
+    }
+
+    /**
+     * Returns a movie's credit lists in the order they are stored in a record.
+     */
+    private static List<Set<String>> creditLists(Movie movie) {
+        return List.of(movie.getGenres(), movie.getActors(), movie.getDirectors(),
+                movie.getWriters(), movie.getComposers(), movie.getCinematographers());
+    }
+
+    /**
+     * Converts a JSON movie cache into a snapshot.
+     *
+     * <p>Usage: java MovieSnapshot [movie_cache.json] [movie_cache.bin]
+     *
+     * @param args The JSON source and snapshot target paths.
+     * @throws IOException if either file cannot be read or written.
+     */
+    public static void main(String[] args) throws IOException {
+        Path json = Paths.get(args.length > 0 ? args[0] : "movie_cache.json");
+        Path snapshot = Paths.get(args.length > 1 ? args[1] : "movie_cache.bin");
+
+        List<Movie> movies = Arrays.asList(new ObjectMapper().readValue(json.toFile(), Movie[].class));
+        write(movies, snapshot);
+        System.out.println("Wrote " + movies.size() + " movies to " + snapshot
+                + " (" + Files.size(snapshot) + " bytes, JSON was " + Files.size(json) + " bytes)");
+    }
+}
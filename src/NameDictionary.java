@@ -0,0 +1,75 @@
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide dictionary that interns person and genre names to dense int IDs, so
+ * every movie can store its credits as small sorted int arrays and each distinct
+ * name is kept in memory once. IDs are handed out in first-seen order and never
+ * change. Safe for concurrent use; lookups do not lock.
+ */
+public final class NameDictionary {
+    private static final Map<String, Integer> IDS = new ConcurrentHashMap<>();
+    private static volatile String[] names = new String[1024];
+    private static int size;
+
+    private NameDictionary() {
+    }
+
+    /**
+     * Returns the ID of a name, assigning the next free ID if it is new.
+     *
+     * @param name the name to intern
+     * @return the name's ID
+     */
+    public static int intern(String name) {
+        Integer id = IDS.get(name);
+        if (id != null) {
+            return id;
+        }
+        synchronized (NameDictionary.class) {
+            id = IDS.get(name);
+            if (id != null) {
+                return id;
+            }
+            String[] current = names;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, size * 2);
+            }
+            current[size] = name;
+            names = current; // volatile write publishes the new entry
+            IDS.put(name, size);
+            return size++;
+        }
+    }
+
+    /**
+     * Returns the ID of a name without interning it.
+     *
+     * @param name the name to look up
+     * @return the name's ID, or -1 if it has never been interned
+     */
+    public static int lookup(Object name) {
+        Integer id = name == null ? null : IDS.get(name);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the name with the given ID.
+     *
+     * @param id an ID returned by {@link #intern(String)}
+     * @return the interned name
+     */
+    public static String name(int id) {
+        return names[id];
+    }
+
+    /**
+     * Returns the number of distinct names interned so far.
+     *
+     * @return the dictionary size
+     */
+    public static int size() {
+        return IDS.size();
+    }
+}
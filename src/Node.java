@@ -1,12 +1,86 @@
 import java.util.*;
 
 /**
- * Node structure used in the autocomplete trie.
+ * Node structure used in the compressed (radix) autocomplete trie.
+ * Each node is reached by a multi-character edge label; chains of single-child
+ * nodes are merged into one, so every node is either a branch point or the end
+ * of at least one title.
  */
 public class Node {
-    Map<Character, Node> children = new HashMap<>();
-    boolean isEndOfWord = false;
+    private static final char[] NO_CHARS = new char[0];
+    private static final Node[] NO_NODES = new Node[0];
+    static final Term[] NO_TERMS = new Term[0];
 
-    // All terms that pass through this node (used for autocomplete suggestions)
-    List<Term> suggestions = new ArrayList<>();
+    // Lowercased characters on the edge leading into this node
+    char[] label = NO_CHARS;
+
+    // First label character of each child, sorted, parallel to children
+    char[] keys = NO_CHARS;
+    Node[] children = NO_NODES;
+
+    // Terms whose whole key ends at this node, in insertion order; only the first termCount are set
+    Term[] terms = NO_TERMS;
+    int termCount = 0;
+
+    // The highest-ranked terms in this subtree, best first; only the first topSize are set
+    Term[] top = NO_TERMS;
+    int topSize = 0;
+
+    /**
+     * Returns the child whose label starts with the given character.
+     *
+     * @param c the first character of the child's label
+     * @return the child, or null if there is none
+     */
+    Node child(char c) {
+        int i = Arrays.binarySearch(keys, c);
+        return i >= 0 ? children[i] : null;
+    }
+
+    /**
+     * Adds a child, keeping children sorted by the first character of their label.
+     * Replaces any existing child with the same first character.
+     *
+     * @param child the child to add; its label must not be empty
+     */
+    void putChild(Node child) {
+        char c = child.label[0];
+        int i = Arrays.binarySearch(keys, c);
+        if (i >= 0) {
+            children[i] = child;
+            return;
+        }
+        int pos = -i - 1;
+        char[] newKeys = new char[keys.length + 1];
+        Node[] newChildren = new Node[children.length + 1];
+        System.arraycopy(keys, 0, newKeys, 0, pos);
+        System.arraycopy(children, 0, newChildren, 0, pos);
+        newKeys[pos] = c;
+        newChildren[pos] = child;
+        System.arraycopy(keys, pos, newKeys, pos + 1, keys.length - pos);
+        System.arraycopy(children, pos, newChildren, pos + 1, children.length - pos);
+        keys = newKeys;
+        children = newChildren;
+    }
+
+    /**
+     * Appends a term whose whole key ends at this node.
+     *
+     * @param term the term to add
+     */
+    void addTerm(Term term) {
+        if (termCount == terms.length) {
+            terms = Arrays.copyOf(terms, Math.max(1, termCount * 2));
+        }
+        terms[termCount++] = term;
+    }
+
+    /**
+     * Checks whether at least one title ends exactly at this node.
+     *
+     * @return true if this node ends a title
+     */
+    boolean isEndOfWord() {
+        return termCount > 0;
+    }
 }
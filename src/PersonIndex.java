@@ -0,0 +1,283 @@
+import java.util.*;
+
+/**
+ * Inverted index from people to the movies they worked on, kept separately for each
+ * {@link ConnectionType}. People are identified by their {@link NameDictionary} ID and
+ * every indexed movie gets a dense int slot, assigned in insertion order.
+ *
+ * <p>For each type the index keeps each person's movies as a sorted int array of
+ * slots. New movies take the next slot, so a posting list mostly stays sorted by
+ * appending; a movie replaced by a record with the same ID keeps its slot.
+ * Neighbour lists then come down to merging sorted arrays instead of hashing names.
+ */
+public class PersonIndex {
+    private static final ConnectionType[] TYPES = ConnectionType.values();
+
+    private final List<Movie> movies = new ArrayList<>();
+    private final Map<Long, Integer> slots = new HashMap<>();
+    // postings.get(type).get(personId): slots of that person's movies, or null
+    private final EnumMap<ConnectionType, List<Postings>> postings =
+            new EnumMap<>(ConnectionType.class);
+
+    /**
+     * Constructs an empty index.
+     */
+    public PersonIndex() {
+        for (ConnectionType type : TYPES) {
+            postings.put(type, new ArrayList<>());
+        }
+    }
+
+    /**
+     * Adds a movie to the index. A movie whose TMDB ID is already indexed replaces the
+     * old record in its slot: the old record's people lose the slot and the new
+     * record's people gain it, so a lookup-only record never shadows a fuller one.
+     *
+     * @param movie the movie to add
+     */
+    public void add(Movie movie) {
+        Integer existing = slots.get(movie.getMovieId());
+        if (existing != null) {
+            Movie old = movies.get(existing);
+            if (old == movie) {
+                return;
+            }
+            for (ConnectionType type : TYPES) {
+                for (int id : old.getPersonIds(type)) {
+                    postings.get(type).get(id).remove(existing);
+                }
+            }
+            movies.set(existing, movie);
+            addPostings(movie, existing);
+            return;
+        }
+        int slot = movies.size();
+        movies.add(movie);
+        slots.put(movie.getMovieId(), slot);
+        addPostings(movie, slot);
+    }
+
+    /**
+     * Adds a slot to the posting list of every person on a movie.
+     */
+    private void addPostings(Movie movie, int slot) {
+        for (ConnectionType type : TYPES) {
+            List<Postings> lists = postings.get(type);
+            for (int id : movie.getPersonIds(type)) {
+                while (lists.size() <= id) {
+                    lists.add(null);
+                }
+                if (lists.get(id) == null) {
+                    lists.set(id, new Postings());
+                }
+                lists.get(id).add(slot);
+            }
+        }
+    }
+
+    /**
+     * Returns an independent copy of this index; adding to the copy does not affect
+     * readers of this one.
+     *
+     * @return the copy
+     */
+    public PersonIndex copy() {
+        PersonIndex copy = new PersonIndex();
+        copy.movies.addAll(movies);
+        copy.slots.putAll(slots);
+        for (ConnectionType type : TYPES) {
+            List<Postings> lists = copy.postings.get(type);
+            for (Postings list : postings.get(type)) {
+                lists.add(list == null ? null : list.copy());
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Checks whether this exact movie object has been indexed. A different object
+     * with the same TMDB ID may carry different credits, so it does not count.
+     *
+     * @param movie the movie to look up
+     * @return true if the movie is in the index
+     */
+    public boolean contains(Movie movie) {
+        Integer slot = movie == null ? null : slots.get(movie.getMovieId());
+        return slot != null && movies.get(slot) == movie;
+    }
+
+    /**
+     * Returns the number of indexed movies.
+     *
+     * @return the movie count
+     */
+    public int size() {
+        return movies.size();
+    }
+
+    /**
+     * Returns every indexed movie the person worked on in the given role.
+     *
+     * @param person the person's name
+     * @param type the role to look up
+     * @return the movies in insertion order, or an empty list if none
+     */
+    public List<Movie> moviesWith(String person, ConnectionType type) {
+        return moviesWith(NameDictionary.lookup(person), type);
+    }
+
+    /**
+     * Returns every indexed movie the person worked on in the given role.
+     *
+     * @param id the person's {@link NameDictionary} ID, or -1 for nobody
+     * @param type the role to look up
+     * @return the movies in insertion order, or an empty list if none
+     */
+    List<Movie> moviesWith(int id, ConnectionType type) {
+        List<Postings> lists = postings.get(type);
+        if (id < 0 || id >= lists.size() || lists.get(id) == null) {
+            return Collections.emptyList();
+        }
+        Postings list = lists.get(id);
+        List<Movie> result = new ArrayList<>(list.size);
+        for (int i = 0; i < list.size; i++) {
+            result.add(movies.get(list.slots[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Returns every other indexed movie that shares at least one person with the given
+     * movie in the same role, i.e. every legal next move from it. The posting lists of
+     * all its people are merged into one sorted, duplicate-free list.
+     *
+     * @param movie an indexed movie
+     * @return the connected movies in insertion order
+     * @throws IllegalArgumentException if the movie is not indexed
+     */
+    public List<Movie> connectedMovies(Movie movie) {
+        return connectedMovies(movie, slotOf(movie));
+    }
+
+    /**
+     * Returns every indexed movie that shares at least one person with the given
+     * movie in the same role, like {@link #connectedMovies(Movie)}, for a movie that
+     * need not be in this index, e.g. one held in another index. Indexed movies with
+     * the same TMDB ID are left out.
+     *
+     * @param movie any movie
+     * @return the connected movies in insertion order
+     */
+    List<Movie> moviesConnectedTo(Movie movie) {
+        Integer slot = slots.get(movie.getMovieId());
+        return connectedMovies(movie, slot == null ? -1 : slot);
+    }
+
+    /**
+     * Merges the posting lists of a movie's people, leaving out the given slot.
+     */
+    private List<Movie> connectedMovies(Movie movie, int slot) {
+        int[] merged = new int[0];
+        int mergedSize = 0;
+        for (ConnectionType type : TYPES) {
+            List<Postings> lists = postings.get(type);
+            for (int id : movie.getPersonIds(type)) {
+                Postings list = id < lists.size() ? lists.get(id) : null;
+                if (list == null) {
+                    continue;
+                }
+                int[] next = new int[mergedSize + list.size];
+                mergedSize = union(merged, mergedSize, list.slots, list.size, next);
+                merged = next;
+            }
+        }
+
+        List<Movie> result = new ArrayList<>(mergedSize);
+        for (int i = 0; i < mergedSize; i++) {
+            if (merged[i] != slot) {
+                result.add(movies.get(merged[i]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Merges two sorted arrays into out, dropping duplicates.
+     *
+     * @return the number of values written to out
+     */
+    private static int union(int[] a, int aSize, int[] b, int bSize, int[] out) {
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < aSize && j < bSize) {
+            if (a[i] < b[j]) {
+                out[n++] = a[i++];
+            } else if (a[i] > b[j]) {
+                out[n++] = b[j++];
+            } else {
+                out[n++] = a[i++];
+                j++;
+            }
+        }
+        while (i < aSize) {
+            out[n++] = a[i++];
+        }
+        while (j < bSize) {
+            out[n++] = b[j++];
+        }
+        return n;
+    }
+
+    private int slotOf(Movie movie) {
+        Integer slot = slots.get(movie.getMovieId());
+        if (slot == null) {
+            throw new IllegalArgumentException("Movie not indexed: " + movie.getTitle());
+        }
+        return slot;
+    }
+
+    /**
+     * A growable, sorted list of movie slots for one person.
+     */
+    private static class Postings {
+        int[] slots = new int[2];
+        int size;
+
+        Postings copy() {
+            Postings copy = new Postings();
+            copy.slots = Arrays.copyOf(slots, slots.length);
+            copy.size = size;
+            return copy;
+        }
+
+        /**
+         * Adds a slot, keeping the list sorted. New movies take the highest slot, so
+         * this is an append unless a replaced movie keeps its old slot.
+         */
+        void add(int slot) {
+            int pos = size;
+            if (size > 0 && slots[size - 1] >= slot) {
+                pos = Arrays.binarySearch(slots, 0, size, slot);
+                if (pos >= 0) {
+                    return;
+                }
+                pos = -pos - 1;
+            }
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            System.arraycopy(slots, pos, slots, pos + 1, size - pos);
+            slots[pos] = slot;
+            size++;
+        }
+
+        void remove(int slot) {
+            int pos = Arrays.binarySearch(slots, 0, size, slot);
+            if (pos >= 0) {
+                System.arraycopy(slots, pos + 1, slots, pos, size - pos - 1);
+                size--;
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Caps how many requests may be in flight at the same time.
+ * Tasks over the limit wait in a FIFO queue and are started as earlier ones
+ * complete, so no thread ever blocks waiting for a slot. Requests sent on the
+ * calling thread can take a slot with {@link #acquire()} instead; they wait in the
+ * same queue, so both kinds share one limit.
+ */
+class RequestLimiter {
+    private final int maxInFlight;
+    private final Deque<Runnable> waiting = new ArrayDeque<>();
+    private int inFlight;
+
+    /**
+     * Constructs a limiter that allows up to maxInFlight concurrent tasks.
+     *
+     * @param maxInFlight The maximum number of tasks running at once.
+     * @throws IllegalArgumentException if maxInFlight is less than 1.
+     */
+    RequestLimiter(int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be at least 1.");
+        }
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Runs the task as soon as a slot is free.
+     *
+     * @param task Starts the asynchronous work and returns its future.
+     * @return A future completed with the task's outcome.
+     */
+    <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable start = () -> {
+            CompletableFuture<T> future;
+            try {
+                future = task.get();
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            future.whenComplete((value, error) -> {
+                release();
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+        };
+
+        boolean runNow;
+        synchronized (this) {
+            runNow = inFlight < maxInFlight;
+            if (runNow) {
+                inFlight++;
+            } else {
+                waiting.add(start);
+            }
+        }
+        if (runNow) {
+            start.run();
+        }
+        return result;
+    }
+
+    /**
+     * Blocks until a slot is free and takes it, for a request sent on the calling
+     * thread. The slot must be given back with {@link #release()}.
+     *
+     * @throws InterruptedException if interrupted while waiting; no slot is held then.
+     */
+    void acquire() throws InterruptedException {
+        CompletableFuture<Void> granted = new CompletableFuture<>();
+        synchronized (this) {
+            if (inFlight < maxInFlight) {
+                inFlight++;
+                return;
+            }
+            // A slot handed to a caller that gave up is passed on
+            waiting.add(() -> {
+                if (!granted.complete(null)) {
+                    release();
+                }
+            });
+        }
+        try {
+            granted.get();
+        } catch (InterruptedException e) {
+            if (!granted.cancel(false)) {
+                release();
+            }
+            throw e;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Hands the freed slot to the next waiting task or caller, if any.
+     */
+    void release() {
+        Runnable next;
+        synchronized (this) {
+            next = waiting.poll();
+            if (next == null) {
+                inFlight--;
+                return;
+            }
+        }
+        next.run();
+    }
+
+    /**
+     * Returns the maximum number of tasks allowed in flight.
+     *
+     * @return the in-flight limit
+     */
+    int getMaxInFlight() {
+        return maxInFlight;
+    }
+}
@@ -0,0 +1,406 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.*;
+import java.util.function.LongSupplier;
+
+/**
+ * A persistent cache of TMDB response bodies, so lookups made in one run are
+ * answered locally in the next and the game can run offline from a recorded corpus.
+ *
+ * <p>Bodies are content-addressed: each is stored once in an append-only data file
+ * under its SHA-256 hash, however many keys share it, and is checked against the
+ * hash when read back. An append-only index file maps each key (an endpoint and
+ * its parameters) to a body together with its ETag and how long it stays fresh; the
+ * last record for a key wins. The index is read into memory on open, so a lookup
+ * touches the disk only to read the body.
+ *
+ * <p>A stale entry is not discarded: the client revalidates it with its ETag, and a
+ * 304 answer appends a record making it fresh again. In offline mode entries never
+ * go stale. Superseded index records and unreferenced bodies are dropped by
+ * {@link #compact()}, which runs on its own once they take up most of the files.
+ *
+ * <p>All methods are synchronized.
+ */
+public class ResponseCache implements Closeable {
+    private static final String DATA_FILE = "responses.dat";
+    private static final String INDEX_FILE = "index.log";
+    private static final long MIN_COMPACT_BYTES = 1 << 20;
+
+    private final Path dir;
+    private final Duration defaultMaxAge;
+    private final boolean offline;
+    private final LongSupplier clock;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<String, Blob> blobs = new HashMap<>();
+    private RandomAccessFile data;
+    private DataOutputStream index;
+    private long indexRecords;
+    private long hits;
+    private long misses;
+    private long revalidations;
+
+    /**
+     * Where a body is stored in the data file.
+     */
+    private static final class Blob {
+        final long offset;
+        final int length;
+
+        Blob(long offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /**
+     * A cached response: the hash of its body, its ETag and when it goes stale.
+     */
+    public static final class Entry {
+        final String hash;
+        final String etag;
+        final long storedAt;
+        final long maxAgeMillis;
+
+        Entry(String hash, String etag, long storedAt, long maxAgeMillis) {
+            this.hash = hash;
+            this.etag = etag;
+            this.storedAt = storedAt;
+            this.maxAgeMillis = maxAgeMillis;
+        }
+
+        /**
+         * Returns the ETag to revalidate this response with, or null if it had none.
+         */
+        public String getEtag() {
+            return etag;
+        }
+    }
+
+    /**
+     * Opens the cache in a directory, creating it if needed.
+     *
+     * @param dir The directory holding the data and index files.
+     * @param defaultMaxAge How long a response stays fresh when it does not say.
+     * @param offline Whether entries should be treated as fresh forever.
+     * @throws IOException if the files cannot be opened.
+     */
+    public ResponseCache(Path dir, Duration defaultMaxAge, boolean offline) throws IOException {
+        this(dir, defaultMaxAge, offline, System::currentTimeMillis);
+    }
+
+    ResponseCache(Path dir, Duration defaultMaxAge, boolean offline, LongSupplier clock) throws IOException {
+        this.dir = dir;
+        this.defaultMaxAge = defaultMaxAge;
+        this.offline = offline;
+        this.clock = clock;
+        Files.createDirectories(dir);
+        open();
+    }
+
+    /**
+     * Returns the entry for a key, stale or not.
+     *
+     * @param key The endpoint and parameters the response was fetched with.
+     * @return The entry, or null if the key was never cached.
+     */
+    public synchronized Entry lookup(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+        }
+        return entry;
+    }
+
+    /**
+     * Checks whether an entry may be used without asking TMDB; always true offline.
+     *
+     * @param entry An entry returned by {@link #lookup(String)}.
+     * @return true if the entry is within its max-age.
+     */
+    public boolean isFresh(Entry entry) {
+        return offline || clock.getAsLong() - entry.storedAt < entry.maxAgeMillis;
+    }
+
+    /**
+     * Reads an entry's body.
+     *
+     * @param key The key the entry was looked up with.
+     * @param entry An entry returned by {@link #lookup(String)}.
+     * @return The body, or null if it is missing from the data file or does not
+     *         match its hash, in which case the entry is dropped.
+     * @throws IOException if the data file cannot be read.
+     */
+    public synchronized byte[] read(String key, Entry entry) throws IOException {
+        byte[] body = readBody(entry);
+        if (body == null) {
+            entries.remove(key, entry);
+        } else {
+            hits++;
+        }
+        return body;
+    }
+
+    /**
+     * Reads a body from the data file and checks it against its hash.
+     *
+     * @return the body, or null if it is missing or corrupt
+     */
+    private byte[] readBody(Entry entry) throws IOException {
+        Blob blob = blobs.get(entry.hash);
+        if (blob == null || blob.offset + blob.length > data.length()) {
+            return null;
+        }
+        byte[] body = new byte[blob.length];
+        data.seek(blob.offset);
+        data.readFully(body);
+        return hash(body).equals(entry.hash) ? body : null;
+    }
+
+    /**
+     * Stores a response under a key, replacing any earlier one. The body is only
+     * written if no other entry already holds the same bytes.
+     *
+     * @param key The endpoint and parameters the response was fetched with.
+     * @param body The response body.
+     * @param etag The response's ETag, or null if it had none.
+     * @param maxAge The response's max-age, or null to use the default.
+     * @throws IOException if the files cannot be written.
+     */
+    public synchronized void put(String key, byte[] body, String etag, Duration maxAge) throws IOException {
+        String hash = hash(body);
+        if (!blobs.containsKey(hash)) {
+            long offset = data.length();
+            data.seek(offset);
+            data.write(body);
+            blobs.put(hash, new Blob(offset, body.length));
+        }
+        append(key, new Entry(hash, etag, clock.getAsLong(), maxAgeMillis(maxAge)));
+        compactIfWasteful();
+    }
+
+    /**
+     * Marks an entry fresh again after TMDB answered its revalidation with 304.
+     *
+     * @param key The key of the revalidated entry.
+     * @param maxAge The max-age of the 304 response, or null to use the default.
+     * @throws IOException if the index cannot be written.
+     */
+    public synchronized void revalidated(String key, Duration maxAge) throws IOException {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            revalidations++;
+            append(key, new Entry(entry.hash, entry.etag, clock.getAsLong(), maxAgeMillis(maxAge)));
+            compactIfWasteful();
+        }
+    }
+
+    /**
+     * Rewrites both files with only the bodies still referenced and one index record
+     * per key. The new files are written beside the old ones and moved into place.
+     *
+     * @throws IOException if the files cannot be rewritten.
+     */
+    public synchronized void compact() throws IOException {
+        Path dataTemp = dir.resolve(DATA_FILE + ".tmp");
+        Path indexTemp = dir.resolve(INDEX_FILE + ".tmp");
+        Map<String, Blob> live = new HashMap<>();
+        try (RandomAccessFile out = new RandomAccessFile(dataTemp.toFile(), "rw");
+             DataOutputStream outIndex = new DataOutputStream(
+                     new BufferedOutputStream(Files.newOutputStream(indexTemp)))) {
+            out.setLength(0);
+            for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                Entry entry = e.getValue();
+                if (!live.containsKey(entry.hash)) {
+                    byte[] body = readBody(entry);
+                    if (body == null) {
+                        continue;
+                    }
+                    live.put(entry.hash, new Blob(out.getFilePointer(), body.length));
+                    out.write(body);
+                }
+                writeRecord(outIndex, e.getKey(), entry, live.get(entry.hash));
+            }
+        }
+        close();
+        try {
+            // A crash between the two moves leaves offsets pointing at the wrong bytes;
+            // reads check every body against its hash, so those entries just miss
+            Files.move(dataTemp, dir.resolve(DATA_FILE), StandardCopyOption.REPLACE_EXISTING);
+            Files.move(indexTemp, dir.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            // Reopen whichever files are now in place, so a failed move leaves the
+            // cache usable instead of closed
+            entries.clear();
+            blobs.clear();
+            open();
+            Files.deleteIfExists(dataTemp);
+            Files.deleteIfExists(indexTemp);
+        }
+    }
+
+    public boolean isOffline() {
+        return offline;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns how many bodies were served from the cache.
+     */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * Returns how many lookups found no entry at all.
+     */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Returns how many stale entries TMDB confirmed unchanged.
+     */
+    public synchronized long getRevalidationCount() {
+        return revalidations;
+    }
+
+    /**
+     * Returns the size of the data file in bytes.
+     */
+    public synchronized long getDataSize() throws IOException {
+        return data.length();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%d entries, %d bodies, %d hits, %d misses, %d revalidations",
+                entries.size(), blobs.size(), hits, misses, revalidations);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            index.close();
+        } finally {
+            data.close();
+        }
+    }
+
+    /**
+     * Opens the data file and replays the index. A record cut short by a crash ends
+     * the replay and is truncated away, so appending can resume after it.
+     */
+    private void open() throws IOException {
+        data = new RandomAccessFile(dir.resolve(DATA_FILE).toFile(), "rw");
+        Path indexPath = dir.resolve(INDEX_FILE);
+        long valid = 0;
+        indexRecords = 0;
+        if (Files.exists(indexPath)) {
+            try (DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(Files.newInputStream(indexPath)))) {
+                while (true) {
+                    String key = in.readUTF();
+                    String hash = in.readUTF();
+                    long offset = in.readLong();
+                    int length = in.readInt();
+                    String etag = in.readUTF();
+                    long storedAt = in.readLong();
+                    long maxAge = in.readLong();
+                    entries.put(key, new Entry(hash, etag.isEmpty() ? null : etag, storedAt, maxAge));
+                    blobs.put(hash, new Blob(offset, length));
+                    indexRecords++;
+                    valid += recordSize(key, hash, etag);
+                }
+            } catch (EOFException e) {
+                // End of the index, possibly mid-record
+            }
+            try (RandomAccessFile file = new RandomAccessFile(indexPath.toFile(), "rw")) {
+                file.setLength(valid);
+            }
+        }
+        index = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(indexPath.toFile(), true)));
+    }
+
+    private void append(String key, Entry entry) throws IOException {
+        writeRecord(index, key, entry, blobs.get(entry.hash));
+        index.flush();
+        entries.put(key, entry);
+        indexRecords++;
+    }
+
+    private static void writeRecord(DataOutputStream out, String key, Entry entry, Blob blob)
+            throws IOException {
+        out.writeUTF(key);
+        out.writeUTF(entry.hash);
+        out.writeLong(blob.offset);
+        out.writeInt(blob.length);
+        out.writeUTF(entry.etag == null ? "" : entry.etag);
+        out.writeLong(entry.storedAt);
+        out.writeLong(entry.maxAgeMillis);
+    }
+
+    /**
+     * Compacts once superseded records or unreferenced bodies make up more than
+     * half of the files.
+     */
+    private void compactIfWasteful() throws IOException {
+        long dataSize = data.length();
+        boolean wastefulData = dataSize > MIN_COMPACT_BYTES && dataSize > 2 * liveBytes();
+        boolean wastefulIndex = indexRecords > 1000 && indexRecords > 2L * entries.size();
+        if (wastefulData || wastefulIndex) {
+            compact();
+        }
+    }
+
+    private long liveBytes() {
+        Set<String> live = new HashSet<>();
+        long bytes = 0;
+        for (Entry entry : entries.values()) {
+            if (live.add(entry.hash)) {
+                bytes += blobs.get(entry.hash).length;
+            }
+        }
+        return bytes;
+    }
+
+    private long maxAgeMillis(Duration maxAge) {
+        return (maxAge != null ? maxAge : defaultMaxAge).toMillis();
+    }
+
+    /**
+     * Returns the size in bytes of an index record as DataOutputStream writes it.
+     */
+    private static long recordSize(String key, String hash, String etag) {
+        return utfSize(key) + utfSize(hash) + 8 + 4 + utfSize(etag) + 8 + 8;
+    }
+
+    /**
+     * Returns the size of a string written by writeUTF: a two-byte length followed by
+     * modified UTF-8.
+     */
+    private static long utfSize(String s) {
+        long size = 2;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            size += c >= 0x01 && c <= 0x7F ? 1 : c <= 0x7FF ? 2 : 3;
+        }
+        return size;
+    }
+
+    private static String hash(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+import com.googlecode.lanterna.TerminalPosition;
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.TextCharacter;
+import com.googlecode.lanterna.TextColor;
+import com.googlecode.lanterna.screen.Screen;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A retained model of what the game view shows, so that a redraw only sends the
+ * cells that changed.
+ *
+ * <p>Each frame is drawn into a plain grid of characters and style numbers between
+ * {@link #begin()} and {@link #end()}. {@code end} compares the grid with the one
+ * last shown, skipping identical rows, hands only the differing cells to the screen
+ * and asks it for a delta refresh. A frame that changes nothing sends nothing, a
+ * timer tick sends the timer's digits, and a keystroke the input line and the
+ * suggestions under it.
+ *
+ * <p>Drawing allocates nothing per cell: both grids are reused from frame to frame,
+ * and the {@link TextCharacter} for an ASCII character in a given style is created
+ * once and cached.
+ */
+final class ScreenFrame {
+    private static final int CACHED_CHARS = 128;
+    // Style of a cell whose content on screen is not known, e.g. after a resize
+    private static final byte UNKNOWN = -1;
+
+    private final Screen screen;
+    private final List<TextColor> foregrounds = new ArrayList<>();
+    private final List<TextColor> backgrounds = new ArrayList<>();
+    private final List<TextCharacter[]> glyphs = new ArrayList<>();
+
+    private TerminalSize size = new TerminalSize(0, 0);
+    private int columns;
+    private int rows;
+    // The frame on screen and the frame being drawn, one cell per column, row by row
+    private char[] shownChars = new char[0];
+    private byte[] shownStyles = new byte[0];
+    private char[] chars = new char[0];
+    private byte[] styles = new byte[0];
+    private boolean complete = true;
+
+    private int cursorColumn;
+    private int cursorRow;
+    private int shownCursorColumn = -1;
+    private int shownCursorRow = -1;
+
+    /**
+     * Constructs a frame over a started screen. The first frame is sent in full.
+     *
+     * @param screen The screen to draw on; nothing else should draw on it.
+     */
+    ScreenFrame(Screen screen) {
+        this.screen = screen;
+        style(TextColor.ANSI.DEFAULT, TextColor.ANSI.DEFAULT);  // blank cells, as Screen.clear() leaves them
+    }
+
+    /**
+     * Starts drawing a new, blank frame. If the terminal has been resized, the grids
+     * are resized with it and the next frame is sent in full.
+     *
+     * @return the size of the terminal
+     */
+    TerminalSize begin() {
+        TerminalSize resized = screen.doResizeIfNecessary();
+        TerminalSize current = resized != null ? resized : screen.getTerminalSize();
+        if (current.getColumns() != columns || current.getRows() != rows) {
+            size = current;
+            columns = current.getColumns();
+            rows = current.getRows();
+            shownChars = new char[columns * rows];
+            shownStyles = new byte[columns * rows];
+            chars = new char[columns * rows];
+            styles = new byte[columns * rows];
+            complete = true;
+        }
+        Arrays.fill(chars, ' ');
+        Arrays.fill(styles, (byte) 0);
+        return size;
+    }
+
+    /**
+     * Draws a string into the frame; whatever falls outside the terminal is cut off.
+     *
+     * @param column The column of the first character.
+     * @param row The row.
+     * @param text The string to draw.
+     * @param fg The foreground color.
+     * @param bg The background color.
+     */
+    void print(int column, int row, String text, TextColor fg, TextColor bg) {
+        if (row < 0 || row >= rows) {
+            return;
+        }
+        byte style = style(fg, bg);
+        int offset = row * columns;
+        int end = Math.min(column + text.length(), columns);
+        for (int c = Math.max(column, 0); c < end; c++) {
+            chars[offset + c] = text.charAt(c - column);
+            styles[offset + c] = style;
+        }
+    }
+
+    /**
+     * Places the cursor; it stays there in later frames until moved again.
+     *
+     * @param column The cursor's column.
+     * @param row The cursor's row.
+     */
+    void setCursor(int column, int row) {
+        cursorColumn = column;
+        cursorRow = row;
+    }
+
+    /**
+     * Finishes the frame: sends the cells that differ from the frame on screen, and
+     * refreshes the screen if anything, including the cursor, changed.
+     *
+     * @return the number of cells sent
+     * @throws IOException If the screen cannot be refreshed.
+     */
+    int end() throws IOException {
+        if (complete) {
+            Arrays.fill(shownStyles, UNKNOWN);
+        }
+        int sent = 0;
+        for (int row = 0; row < rows; row++) {
+            int from = row * columns;
+            int to = from + columns;
+            if (Arrays.equals(chars, from, to, shownChars, from, to)
+                    && Arrays.equals(styles, from, to, shownStyles, from, to)) {
+                continue;
+            }
+            for (int i = from; i < to; i++) {
+                if (chars[i] != shownChars[i] || styles[i] != shownStyles[i]) {
+                    screen.setCharacter(i - from, row, glyph(chars[i], styles[i]));
+                    sent++;
+                }
+            }
+        }
+
+        // The frame just drawn is now the one on screen; the old one is drawn over next
+        char[] oldChars = shownChars;
+        byte[] oldStyles = shownStyles;
+        shownChars = chars;
+        shownStyles = styles;
+        chars = oldChars;
+        styles = oldStyles;
+
+        boolean cursorMoved = cursorColumn != shownCursorColumn || cursorRow != shownCursorRow;
+        if (cursorMoved) {
+            screen.setCursorPosition(new TerminalPosition(cursorColumn, cursorRow));
+            shownCursorColumn = cursorColumn;
+            shownCursorRow = cursorRow;
+        }
+        if (complete) {
+            screen.refresh(Screen.RefreshType.COMPLETE);
+        } else if (sent > 0 || cursorMoved) {
+            screen.refresh(Screen.RefreshType.DELTA);
+        }
+        complete = false;
+        return sent;
+    }
+
+    /**
+     * Returns the number of a color pair, registering it the first time it is seen.
+     */
+    private byte style(TextColor fg, TextColor bg) {
+        for (int i = 0; i < foregrounds.size(); i++) {
+            if (foregrounds.get(i).equals(fg) && backgrounds.get(i).equals(bg)) {
+                return (byte) i;
+            }
+        }
+        if (foregrounds.size() == Byte.MAX_VALUE) {
+            throw new IllegalStateException("Too many styles");
+        }
+        foregrounds.add(fg);
+        backgrounds.add(bg);
+        glyphs.add(new TextCharacter[CACHED_CHARS]);
+        return (byte) (foregrounds.size() - 1);
+    }
+
+    private TextCharacter glyph(char c, byte style) {
+        if (c >= CACHED_CHARS) {
+            return new TextCharacter(c, foregrounds.get(style), backgrounds.get(style));
+        }
+        TextCharacter[] cached = glyphs.get(style);
+        if (cached[c] == null) {
+            cached[c] = new TextCharacter(c, foregrounds.get(style), backgrounds.get(style));
+        }
+        return cached[c];
+    }
+}
@@ -0,0 +1,137 @@
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent lookups of the same key. While a lookup for a key is in
+ * flight, later callers for that key share its future instead of starting their
+ * own; once it completes, the next caller starts a fresh lookup.
+ *
+ * <p>Every caller gets its own copy of the shared future, so one caller cancelling
+ * or completing its copy does not affect the others. A blocking lookup runs on its
+ * caller's thread, so if that caller is interrupted its result is not shared: the
+ * callers waiting on it start a fresh lookup instead.
+ *
+ * @param <K> the key type
+ * @param <V> the result type
+ */
+class SingleFlight<K, V> {
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Starts an asynchronous lookup, or joins the one already in flight for the key.
+     *
+     * @param key The key being looked up.
+     * @param lookup Starts the lookup and returns its future; only called if no lookup
+     *               for the key is in flight.
+     * @return A future completed with the lookup's outcome.
+     */
+    CompletableFuture<V> submit(K key, Supplier<CompletableFuture<V>> lookup) {
+        CompletableFuture<V> shared = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, shared);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return existing.exceptionallyCompose(error -> error instanceof Abandoned
+                    ? submit(key, lookup)
+                    : CompletableFuture.failedFuture(error));
+        }
+
+        CompletableFuture<V> future;
+        try {
+            future = lookup.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((value, error) -> {
+            inFlight.remove(key, shared);
+            if (error != null) {
+                shared.completeExceptionally(error);
+            } else {
+                shared.complete(value);
+            }
+        });
+        return shared.copy();
+    }
+
+    /**
+     * Runs a blocking lookup on the calling thread, or waits for the one already in
+     * flight for the key. A caller interrupted while waiting gets null back with its
+     * interrupt flag set; the shared lookup carries on for the others. If the caller
+     * running the lookup is interrupted instead, its result is kept to itself and the
+     * waiting callers start a fresh lookup.
+     *
+     * @param key The key being looked up.
+     * @param lookup Performs the lookup; only called if no lookup for the key is in flight.
+     * @return The lookup's result.
+     * @throws CompletionException if a shared lookup failed.
+     */
+    V call(K key, Supplier<V> lookup) {
+        while (true) {
+            CompletableFuture<V> shared = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, shared);
+            if (existing == null) {
+                return lead(key, shared, lookup);
+            }
+            coalesced.incrementAndGet();
+            try {
+                return existing.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException e) {
+                if (!(e.getCause() instanceof Abandoned)) {
+                    throw new CompletionException(e.getCause());
+                }
+                // The leader was interrupted; start again
+            }
+        }
+    }
+
+    /**
+     * Runs a blocking lookup as the leader for its key and hands the outcome to the
+     * callers waiting on it, unless this thread was interrupted along the way.
+     */
+    private V lead(K key, CompletableFuture<V> shared, Supplier<V> lookup) {
+        V value;
+        try {
+            value = lookup.get();
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, shared);
+            shared.completeExceptionally(Thread.currentThread().isInterrupted() ? new Abandoned() : e);
+            throw e;
+        }
+        inFlight.remove(key, shared);
+        if (Thread.currentThread().isInterrupted()) {
+            shared.completeExceptionally(new Abandoned());
+        } else {
+            shared.complete(value);
+        }
+        return value;
+    }
+
+    /**
+     * Returns how many callers shared a lookup instead of starting their own.
+     *
+     * @return the number of coalesced calls
+     */
+    long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    /**
+     * Tells the callers waiting on a lookup that its leader was interrupted and they
+     * should look the key up again.
+     */
+    private static final class Abandoned extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        Abandoned() {
+            super(null, null, false, false);
+        }
+    }
+}
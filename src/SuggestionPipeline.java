@@ -0,0 +1,148 @@
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Turns the player's typing into autocomplete lookups, without running one for
+ * every keystroke.
+ *
+ * <ul>
+ *     <li>Input that leaves the prefix as it was, such as an arrow key, does nothing.</li>
+ *     <li>A lookup starts only once the prefix has stayed the same for the debounce
+ *     delay, so a burst of typing costs one lookup, for where it ended.</li>
+ *     <li>While waiting, a prefix that extends the previous one narrows the current
+ *     suggestions at once to the titles that still match, so the list keeps up with
+ *     the typing.</li>
+ *     <li>A new prefix cancels the lookup for the old one if it has not started, and
+ *     otherwise drops its result when it arrives.</li>
+ * </ul>
+ *
+ * <p>Lookups run on virtual threads. Everything else, including publishing results,
+ * runs on the owner's thread, through the executor it supplies.
+ */
+final class SuggestionPipeline {
+    private static final Executor LOOKUP_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Function<String, List<String>> lookup;
+    private final ScheduledExecutorService timer;
+    private final Executor owner;
+    private final long debounceMillis;
+    private final Consumer<List<String>> publish;
+
+    private String prefix = "";
+    private List<String> suggestions = List.of();
+    // Bumped by every new prefix; a result for an older one is stale
+    private int generation;
+    private ScheduledFuture<?> pending;
+
+    /**
+     * Constructs a pipeline.
+     *
+     * @param lookup Finds the suggestions for a prefix; it may be slow, and is called
+     *               on a lookup thread.
+     * @param timer Runs the debounce delays.
+     * @param owner Runs tasks on the owner's thread, e.g. by posting them to its event
+     *              queue.
+     * @param debounceMillis How long the prefix must stay the same before a lookup.
+     * @param publish Called on the owner's thread with each new list of suggestions.
+     */
+    SuggestionPipeline(Function<String, List<String>> lookup, ScheduledExecutorService timer,
+                       Executor owner, long debounceMillis, Consumer<List<String>> publish) {
+        this.lookup = lookup;
+        this.timer = timer;
+        this.owner = owner;
+        this.debounceMillis = debounceMillis;
+        this.publish = publish;
+    }
+
+    /**
+     * Updates the suggestions for the text typed so far. Must be called on the
+     * owner's thread.
+     *
+     * @param prefix The text typed so far; an empty prefix clears the suggestions.
+     */
+    void update(String prefix) {
+        if (prefix.equals(this.prefix)) {
+            return;
+        }
+        String previous = this.prefix;
+        this.prefix = prefix;
+        int requested = ++generation;
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+
+        if (prefix.isEmpty()) {
+            show(List.of());
+            return;
+        }
+        if (!previous.isEmpty() && prefix.startsWith(previous)) {
+            show(narrow(suggestions, prefix));
+        }
+        pending = timer.schedule(() -> CompletableFuture
+                        .supplyAsync(() -> lookup.apply(prefix), LOOKUP_EXECUTOR)
+                        .whenCompleteAsync((found, failure) -> finish(requested, found, failure), owner),
+                debounceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the suggestions currently offered.
+     */
+    List<String> suggestions() {
+        return suggestions;
+    }
+
+    /**
+     * Checks whether a lookup for the current prefix is waiting or running.
+     */
+    boolean isPending() {
+        return pending != null;
+    }
+
+    private void finish(int requested, List<String> found, Throwable failure) {
+        if (requested != generation) {
+            return;  // the prefix has changed since
+        }
+        pending = null;
+        if (failure != null) {
+            System.err.println("Autocomplete lookup failed: " + failure.getMessage());
+            return;
+        }
+        show(found);
+    }
+
+    private void show(List<String> found) {
+        if (!found.equals(suggestions)) {
+            suggestions = found;
+            publish.accept(found);
+        }
+    }
+
+    /**
+     * Keeps the titles that still match a longer prefix: each of its words must begin
+     * a word of the title. Typo matches are dropped until the lookup brings them back.
+     */
+    private static List<String> narrow(List<String> titles, String prefix) {
+        String[] words = TitleIndex.key(prefix).split(" ");
+        return titles.stream().filter(title -> matchesAll(TitleIndex.key(title), words)).toList();
+    }
+
+    private static boolean matchesAll(String titleKey, String[] words) {
+        String[] titleWords = titleKey.split(" ");
+        for (String word : words) {
+            boolean found = false;
+            for (String titleWord : titleWords) {
+                if (titleWord.startsWith(word)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
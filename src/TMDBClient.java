@@ -1,27 +1,142 @@
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.http.*;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
-import com.fasterxml.jackson.databind.*;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
 
 /**
  * Client for accessing TMDB (The Movie Database) API
  */
 public class TMDBClient {
     private static final String BASE_URL = "https://api.themoviedb.org/3";
+    private static final int DEFAULT_MAX_IN_FLIGHT = 16;
+    private static final int DEFAULT_TIMEOUT_MS = 10_000;
+    private static final int DEFAULT_MAX_REQUESTS_PER_SECOND = 40;
+    private static final int MIN_REQUESTS_PER_SECOND = 1;
+    private static final int DEFAULT_MAX_RETRIES = 3;
+    private static final int DEFAULT_RETRY_BACKOFF_MS = 250;
+    private static final String DEFAULT_RESPONSE_CACHE_DIR = "http_cache";
+    private static final int DEFAULT_RESPONSE_MAX_AGE_MINUTES = 24 * 60;
+    // Response bodies are read with blocking streams, so async reads get a thread of their own
+    private static final Executor READ_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+    private final String baseUrl;
     private final String apiKey;
     private final HttpClient client;
-    private final ObjectMapper mapper;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final RequestLimiter limiter;
+    private final Duration requestTimeout;
+    private final AdaptiveRateLimiter rateLimiter;
+    private final ResponseCache cache;
+    // Concurrent detail lookups of the same movie share one request
+    private final SingleFlight<Long, Movie> detailLookups = new SingleFlight<>();
     /**
      * Constructs a new TMDBClient with API key, HttpClient, and ObjectMapper.
-     * The API key is loaded from the configuration.
+     * The API key is loaded from the configuration, along with the optional
+     * tmdb.maxInFlight, tmdb.requestTimeoutMs, tmdb.maxRequestsPerSecond,
+     * tmdb.maxRetries and tmdb.retryBackoffMs settings. Responses are cached on disk
+     * as described in {@link #openResponseCache()}.
      */
     public TMDBClient() {
-        this.apiKey = ConfigLoader.get("tmdb.api.key");
-        this.client = HttpClient.newHttpClient();
-        this.mapper = new ObjectMapper();
+        this(BASE_URL, ConfigLoader.get("tmdb.api.key"), HttpClient.newHttpClient(),
+                ConfigLoader.getInt("tmdb.maxInFlight", DEFAULT_MAX_IN_FLIGHT),
+                Duration.ofMillis(ConfigLoader.getInt("tmdb.requestTimeoutMs", DEFAULT_TIMEOUT_MS)),
+                new AdaptiveRateLimiter(
+                        ConfigLoader.getInt("tmdb.maxRequestsPerSecond", DEFAULT_MAX_REQUESTS_PER_SECOND),
+                        MIN_REQUESTS_PER_SECOND,
+                        ConfigLoader.getInt("tmdb.maxRetries", DEFAULT_MAX_RETRIES),
+                        Duration.ofMillis(ConfigLoader.getInt("tmdb.retryBackoffMs", DEFAULT_RETRY_BACKOFF_MS))),
+                openResponseCache());
+    }
+    /**
+     * Opens the response cache in the directory named by cache.http.dir (default
+     * http_cache). Responses that do not give a max-age stay fresh for
+     * cache.http.maxAgeMinutes (default one day). With tmdb.offline=true every
+     * request is answered from the cache, however old, and fails if it is not there.
+     *
+     * @return The cache, or null if cache.http.dir is empty or the cache cannot be opened.
+     */
+    private static ResponseCache openResponseCache() {
+        String dir = ConfigLoader.get("cache.http.dir");
+        if (dir == null) {
+            dir = DEFAULT_RESPONSE_CACHE_DIR;
+        }
+        if (dir.isBlank()) {
+            return null;
+        }
+        try {
+            return new ResponseCache(Paths.get(dir.trim()),
+                    Duration.ofMinutes(ConfigLoader.getInt("cache.http.maxAgeMinutes",
+                            DEFAULT_RESPONSE_MAX_AGE_MINUTES)),
+                    Boolean.parseBoolean(ConfigLoader.get("tmdb.offline")));
+        } catch (IOException e) {
+            System.err.println("Response cache unavailable: " + e.getMessage());
+            return null;
+        }
+    }
+    /**
+     * Constructs a TMDBClient against a custom endpoint (for testing or benchmarking
+     * against a local server).
+     *
+     * @param baseUrl The API root, without a trailing slash.
+     * @param apiKey The API key appended to every request.
+     * @param client The HttpClient used to send requests.
+     * @param maxInFlight The maximum number of requests in flight at once.
+     * @param requestTimeout The timeout applied to each individual request.
+     * @param rateLimiter Paces requests and decides when to retry them.
+     * @param cache Caches responses on disk, or null to always ask TMDB.
+     */
+    TMDBClient(String baseUrl, String apiKey, HttpClient client, int maxInFlight,
+               Duration requestTimeout, AdaptiveRateLimiter rateLimiter, ResponseCache cache) {
+        this.baseUrl = baseUrl;
+        this.apiKey = apiKey;
+        this.client = client;
+        this.limiter = new RequestLimiter(maxInFlight);
+        this.requestTimeout = requestTimeout;
+        this.rateLimiter = rateLimiter;
+        this.cache = cache;
+    }
+    /**
+     * Returns the rate limiter pacing this client's requests, whose counters show how
+     * often TMDB throttled or failed them.
+     *
+     * @return the rate limiter
+     */
+    public AdaptiveRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+    /**
+     * Returns the on-disk response cache, whose counters show how many requests it
+     * answered.
+     *
+     * @return the response cache, or null if responses are not cached
+     */
+    public ResponseCache getResponseCache() {
+        return cache;
     }
     /**
      * Fetches a movie by its title from the TMDB API.
@@ -31,79 +146,80 @@ public class TMDBClient {
      */
     public Movie fetchMovieByTitle(String title) {
         try {
-            String encoded = URLEncoder.encode(title, StandardCharsets.UTF_8);
-            String url = BASE_URL + "/search/movie?query=" + encoded + "&api_key=" + apiKey;
-
-            HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(url))
-                .GET()
-                .build();
-
-            HttpResponse<String> response = client.send(
-                    request, HttpResponse.BodyHandlers.ofString());
-
-            JsonNode root = mapper.readTree(response.body());
-            JsonNode results = root.path("results");
-
-
-            if (results.isArray() && results.size() > 0) {
-                long id = results.get(0).get("id").asLong();
-                return fetchMovieDetailsById(id);
-            }
+            return requestMovieByTitle(title);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             System.err.println("fetchMovieByTitle error: " + e.getMessage());
         }
         return null;
     }
     /**
-     * Fetches detailed information about a movie by its ID from the TMDB API.
+     * Fetches a movie by its title, telling a title TMDB does not know apart from a
+     * request that failed.
+     *
+     * @param title The title of the movie to search for.
+     * @return The Movie object, or null if TMDB found no movie with the title.
+     * @throws IOException if TMDB could not be asked or its answer could not be read.
+     * @throws InterruptedException if the calling thread was interrupted.
+     */
+    Movie requestMovieByTitle(String title) throws IOException, InterruptedException {
+        String encoded = URLEncoder.encode(title, StandardCharsets.UTF_8);
+        String url = baseUrl + "/search/movie?query=" + encoded + "&api_key=" + apiKey;
+
+        List<Long> results = send(url, parser -> TmdbResponses.readIds(parser, "results", 1));
+        if (results.isEmpty()) {
+            return null;
+        }
+        Movie movie = fetchMovieDetailsById(results.get(0));
+        if (movie == null) {
+            throwIfInterrupted();
+            throw new IOException("Could not fetch details of movie " + results.get(0));
+        }
+        return movie;
+    }
+    /**
+     * Fetches detailed information about a movie by its ID from the TMDB API. A
+     * lookup of the same ID already in flight is joined rather than repeated.
      *
      * @param id The TMDB ID of the movie.
      * @return The Movie object with detailed information, or null if not found.
      */
     private Movie fetchMovieDetailsById(long id) {
+        return detailLookups.call(id, () -> sendDetailsRequest(id));
+    }
+    /**
+     * Sends the details request for one movie on the calling thread.
+     *
+     * @param id The TMDB ID of the movie.
+     * @return The Movie, or null if it could not be fetched.
+     */
+    private Movie sendDetailsRequest(long id) {
         try {
-            String url = BASE_URL + "/movie/" + id +
-                    "?api_key=" + apiKey + "&append_to_response=credits";
-            HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(url))
-                .build();
-
-            HttpResponse<String> response = client.send(
-                    request, HttpResponse.BodyHandlers.ofString());
-
-            JsonNode root = mapper.readTree(response.body());
-            String title = root.path("title").asText();
-            int year = Integer.parseInt(root.path("release_date").asText().split("-")[0]);
-
-            Set<String> genres = new HashSet<>();
-            for (JsonNode genre : root.path("genres")) {
-                genres.add(genre.path("name").asText());
-            }
-
-            Set<String> actors = new HashSet<>();
-            for (JsonNode cast : root.path("credits").path("cast")) {
-                if (actors.size() >= 5) {
-                    break;
-                }
-                actors.add(cast.path("name").asText());
-            }
-
-            Set<String> directors = new HashSet<>();
-            for (JsonNode crew : root.path("credits").path("crew")) {
-                if ("Director".equals(crew.path("job").asText())) {
-                    directors.add(crew.path("name").asText());
-                }
-            }
-
-
-            return new Movie(id, title, year, genres, actors, directors,
-                    Set.of(), Set.of(), Set.of());
+            return send(detailsUrl(id), parser -> TmdbResponses.readMovieDetails(id, parser));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             System.err.println("fetchMovieDetailsById error: " + e.getMessage());
         }
         return null;
     }
+    /**
+     * Asynchronously fetches detailed information about a movie by its ID.
+     * The request counts against the client's in-flight limit, and a lookup of the
+     * same ID already in flight is joined rather than repeated.
+     *
+     * @param id The TMDB ID of the movie.
+     * @return A future holding the Movie, or null if it could not be fetched.
+     */
+    private CompletableFuture<Movie> fetchMovieDetailsByIdAsync(long id) {
+        return detailLookups.submit(id, () -> sendAsync(detailsUrl(id),
+                        parser -> TmdbResponses.readMovieDetails(id, parser))
+                .exceptionally(e -> {
+                    System.err.println("fetchMovieDetailsById error: " + rootMessage(e));
+                    return null;
+                }));
+    }
     /**
      * Fetches a list of movies similar to the given movie from the TMDB API.
      *
@@ -113,26 +229,43 @@ public class TMDBClient {
 
     // Method implementation
     public List<Movie> fetchSimilarMovies(Movie movie) {
-        List<Movie> list = new ArrayList<>();
+        return fetchSimilarMovies(movie, null);
+    }
+    /**
+     * Fetches a list of movies similar to the given movie, giving up on detail lookups
+     * that have not finished within the timeout.
+     *
+     * @param movie The reference Movie object.
+     * @param timeout How long to wait for detail lookups, or null to wait for all of them.
+     * @return The similar movies fetched in time, or an empty list if none are found.
+     */
+    public List<Movie> fetchSimilarMovies(Movie movie, Duration timeout) {
         try {
-            long movieId = movie.getMovieId();
-            String url = BASE_URL + "/movie/" + movieId + "/similar?api_key=" + apiKey;
-            HttpRequest request = HttpRequest.newBuilder().uri(URI.create(url)).build();
-            HttpResponse<String> response = client.send(
-                    request, HttpResponse.BodyHandlers.ofString());
-
-            JsonNode results = mapper.readTree(response.body()).path("results");
-            for (JsonNode node : results) {
-                long id = node.get("id").asLong();
-                Movie similar = fetchMovieDetailsById(id);
-                if (similar != null) {
-                    list.add(similar);
-                }
-            }
+            return requestSimilarMovies(movie, timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (Exception e) {
             System.err.println("fetchSimilarMovies error: " + e.getMessage());
         }
-        return list;
+        return new ArrayList<>();
+    }
+    /**
+     * Fetches the movies similar to the given movie, telling a movie TMDB lists no
+     * similar movies for apart from a request that failed.
+     *
+     * @param movie The reference Movie object.
+     * @param timeout How long to wait for detail lookups, or null to wait for all of them.
+     * @return The similar movies fetched in time, or an empty list if TMDB lists none.
+     * @throws IOException if TMDB could not be asked, or none of the movies it listed
+     *                     could be fetched.
+     * @throws InterruptedException if the calling thread was interrupted before any
+     *                              movie was fetched.
+     */
+    List<Movie> requestSimilarMovies(Movie movie, Duration timeout) throws IOException, InterruptedException {
+        String url = baseUrl + "/movie/" + movie.getMovieId() + "/similar?api_key=" + apiKey;
+        List<Long> ids = send(url, parser ->
+                TmdbResponses.readIds(parser, "results", Integer.MAX_VALUE));
+        return fetchListedMovies(ids, timeout);
     }
     /**
      * Fetches a list of movies featuring the specified actor.
@@ -141,77 +274,653 @@ public class TMDBClient {
      * @return A list of movies featuring the actor, or an empty list if none are found.
      */
     public List<Movie> fetchMoviesByActor(String actorName) {
-        List<Movie> movies = new ArrayList<>();
+        return fetchMoviesByActor(actorName, null);
+    }
+    /**
+     * Fetches a list of movies featuring the specified actor, giving up on detail
+     * lookups that have not finished within the timeout.
+     *
+     * @param actorName The name of the actor to search for.
+     * @param timeout How long to wait for detail lookups, or null to wait for all of them.
+     * @return The actor's movies fetched in time, or an empty list if none are found.
+     */
+    public List<Movie> fetchMoviesByActor(String actorName, Duration timeout) {
         try {
-            String encoded = URLEncoder.encode(actorName, StandardCharsets.UTF_8);
-            String searchUrl = BASE_URL + "/search/person?query=" +
-                    encoded + "&api_key=" + apiKey;
-            HttpRequest searchRequest = HttpRequest.newBuilder().uri(URI.create(searchUrl)).build();
-            HttpResponse<String> searchResponse = client.send(
-                    searchRequest, HttpResponse.BodyHandlers.ofString());
+            return requestMoviesByActor(actorName, timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("fetchMoviesByActor error: " + e.getMessage());
+        }
+        return new ArrayList<>();
+    }
+    /**
+     * Fetches the movies featuring the specified actor, telling an actor TMDB does not
+     * know apart from a request that failed.
+     *
+     * @param actorName The name of the actor to search for.
+     * @param timeout How long to wait for detail lookups, or null to wait for all of them.
+     * @return The actor's movies fetched in time, or an empty list if TMDB has none.
+     * @throws IOException if TMDB could not be asked, or none of the movies it listed
+     *                     could be fetched.
+     * @throws InterruptedException if the calling thread was interrupted before any
+     *                              movie was fetched.
+     */
+    List<Movie> requestMoviesByActor(String actorName, Duration timeout) throws IOException, InterruptedException {
+        String encoded = URLEncoder.encode(actorName, StandardCharsets.UTF_8);
+        String searchUrl = baseUrl + "/search/person?query=" +
+                encoded + "&api_key=" + apiKey;
+        List<Long> results = send(searchUrl, parser -> TmdbResponses.readIds(parser, "results", 1));
+        if (results.isEmpty()) {
+            return new ArrayList<>();
+        }
 
-            JsonNode results = mapper.readTree(searchResponse.body()).path("results");
-            if (results.size() == 0) {
-                return movies;
-            }
+        long personId = results.get(0);
 
-            long personId = results.get(0).get("id").asLong();
+        String creditsUrl = baseUrl + "/person/" + personId +
+                "/movie_credits?api_key=" + apiKey;
+        List<Long> ids = send(creditsUrl, parser ->
+                TmdbResponses.readIds(parser, "cast", Integer.MAX_VALUE));
+        return fetchListedMovies(ids, timeout);
+    }
+    /**
+     * Fetches the details of the movies TMDB listed. Some may be missing if their
+     * lookups failed or ran out of time, but a listing that yields no movie at all is
+     * reported as a failure rather than as an empty answer.
+     *
+     * @param ids The TMDB IDs to look up.
+     * @param timeout How long to wait, or null to wait for every lookup.
+     * @return The fetched movies, in the same order as their IDs.
+     * @throws IOException if TMDB listed movies but none of them could be fetched.
+     * @throws InterruptedException if the calling thread was interrupted before any
+     *                              movie was fetched.
+     */
+    private List<Movie> fetchListedMovies(List<Long> ids, Duration timeout)
+            throws IOException, InterruptedException {
+        List<Movie> movies = fetchMovieDetailsFanOut(ids, timeout);
+        if (movies.isEmpty() && !ids.isEmpty()) {
+            throwIfInterrupted();
+            throw new IOException("None of the " + ids.size() + " listed movies could be fetched");
+        }
+        return movies;
+    }
+    /**
+     * Turns a pending interrupt into an InterruptedException, clearing the flag as
+     * the exception's catcher expects.
+     */
+    private static void throwIfInterrupted() throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+    /**
+     * Fetches the details of every ID at once, one virtual thread per lookup. The
+     * lookups share the client's in-flight limit, so at most tmdb.maxInFlight requests
+     * talk to TMDB at a time.
+     * Lookups that fail are skipped. If the timeout passes or the calling thread is
+     * interrupted, the unfinished lookups are cancelled and the movies fetched so far
+     * are returned.
+     *
+     * @param ids The TMDB IDs to look up.
+     * @param timeout How long to wait, or null to wait for every lookup.
+     * @return The fetched movies, in the same order as their IDs.
+     */
+    private List<Movie> fetchMovieDetailsFanOut(List<Long> ids, Duration timeout) {
+        long deadline = timeout == null ? Long.MAX_VALUE : System.nanoTime() + timeout.toNanos();
+        List<Future<Movie>> futures = new ArrayList<>(ids.size());
 
-            String creditsUrl = BASE_URL + "/person/" + personId +
-                    "/movie_credits?api_key=" + apiKey;
-            HttpRequest creditsRequest = HttpRequest.newBuilder().uri(
-                    URI.create(creditsUrl)).build();
-            HttpResponse<String> creditsResponse = client.send(
-                    creditsRequest, HttpResponse.BodyHandlers.ofString());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long id : ids) {
+                futures.add(executor.submit(() -> fetchMovieDetailsById(id)));
+            }
 
-            JsonNode cast = mapper.readTree(creditsResponse.body()).path("cast");
-            for (JsonNode movieNode : cast) {
-                long movieId = movieNode.get("id").asLong();
-                Movie m = fetchMovieDetailsById(movieId);
-                if (m != null) {
-                    movies.add(m);
+            try {
+                for (Future<Movie> future : futures) {
+                    try {
+                        if (timeout == null) {
+                            future.get();
+                        } else {
+                            future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                        }
+                    } catch (ExecutionException e) {
+                        // Skip this movie; the others can still succeed
+                    }
                 }
+            } catch (TimeoutException e) {
+                executor.shutdownNow();
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
             }
+        }
 
-        } catch (Exception e) {
-            System.err.println("fetchMoviesByActor error: " + e.getMessage());
+        List<Movie> movies = new ArrayList<>();
+        for (Future<Movie> future : futures) {
+            if (future.state() == Future.State.SUCCESS && future.resultNow() != null) {
+                movies.add(future.resultNow());
+            }
         }
         return movies;
     }
     /**
      * Fetches a list of popular movies from the TMDB API, with pagination support.
+     * Pages and their detail lookups are requested concurrently; see
+     * {@link #fetchPopularMoviesAsync(int)}.
      *
      * @param maxPages The maximum number of pages to fetch from the API.
      * @return A list of popular movies, or an empty list if none are found.
      */
 
     public List<Movie> fetchPopularMovies(int maxPages) {
-        List<Movie> popular = new ArrayList<>();
+        return fetchPopularMovies(maxPages, page -> { });
+    }
+    /**
+     * Fetches a list of popular movies like {@link #fetchPopularMovies(int)}, handing
+     * each page's movies to a consumer as soon as that page is complete.
+     *
+     * @param maxPages The maximum number of pages to fetch from the API.
+     * @param onPage Called with each page's movies, in completion order and possibly
+     *               concurrently from several threads.
+     * @return A list of popular movies, or an empty list if none are found.
+     */
+    public List<Movie> fetchPopularMovies(int maxPages, Consumer<List<Movie>> onPage) {
         try {
-            for (int page = 1; page <= maxPages; page++) {
-                String url = BASE_URL + "/movie/popular?api_key=" + apiKey + "&page=" + page;
-                HttpRequest request = HttpRequest.newBuilder().uri(URI.create(url)).build();
-                HttpResponse<String> response = client.send(request,
-                        HttpResponse.BodyHandlers.ofString());
-                JsonNode results = mapper.readTree(response.body()).path("results");
+            return fetchPopularMoviesAsync(maxPages, onPage).join();
+        } catch (CompletionException e) {
+            System.err.println("fetchPopularMovies error: " + rootMessage(e));
+        }
+        return new ArrayList<>();
+    }
+    /**
+     * Asynchronously fetches popular movies. All pages are requested at once and each
+     * page's detail lookups start as soon as that page arrives, with at most
+     * tmdb.maxInFlight requests outstanding. Movies are returned in page order and,
+     * within a page, in TMDB's ranking order, regardless of completion order.
+     * A page or movie that fails or times out is left out of the result.
+     *
+     * @param maxPages The maximum number of pages to fetch from the API.
+     * @return A future holding the popular movies in ranking order.
+     */
+    public CompletableFuture<List<Movie>> fetchPopularMoviesAsync(int maxPages) {
+        return fetchPopularMoviesAsync(maxPages, page -> { });
+    }
+    /**
+     * Asynchronously fetches popular movies like {@link #fetchPopularMoviesAsync(int)},
+     * handing each page's movies to a consumer as soon as that page is complete.
+     *
+     * @param maxPages The maximum number of pages to fetch from the API.
+     * @param onPage Called with each page's movies, in completion order.
+     * @return A future holding the popular movies in ranking order.
+     */
+    public CompletableFuture<List<Movie>> fetchPopularMoviesAsync(int maxPages, Consumer<List<Movie>> onPage) {
+        // TMDB only allows up to 500 results (25 pages * 20 movies)
+        List<CompletableFuture<List<Movie>>> pages = new ArrayList<>();
+        for (int page = 1; page <= maxPages; page++) {
+            pages.add(fetchPopularPageAsync(page).thenApply(movies -> {
+                onPage.accept(movies);
+                return movies;
+            }));
+        }
+        return allInOrder(pages).thenApply(results -> {
+            List<Movie> popular = new ArrayList<>();
+            for (List<Movie> page : results) {
+                popular.addAll(page);
+            }
+            return popular;
+        });
+    }
+    /**
+     * Fetches the popular list without any movie's details, one request per page.
+     * Pages are requested concurrently; a page that fails is left out.
+     *
+     * @param maxPages The maximum number of pages to fetch from the API.
+     * @return The list's entries in ranking order.
+     */
+    List<TmdbResponses.Summary> fetchPopularSummaries(int maxPages) {
+        List<CompletableFuture<List<TmdbResponses.Summary>>> pages = new ArrayList<>();
+        for (int page = 1; page <= maxPages; page++) {
+            int number = page;
+            pages.add(sendAsync(popularUrl(page), TmdbResponses::readSummaries)
+                    .exceptionally(e -> {
+                        System.err.println("fetchPopularSummaries page " + number + " error: " + rootMessage(e));
+                        return List.of();
+                    }));
+        }
+        List<TmdbResponses.Summary> summaries = new ArrayList<>();
+        for (List<TmdbResponses.Summary> page : allInOrder(pages).join()) {
+            summaries.addAll(page);
+        }
+        return summaries;
+    }
+    /**
+     * Fetches the details of the given movies concurrently, within the in-flight limit.
+     * Lookups that fail are left out.
+     *
+     * @param ids The TMDB IDs to look up.
+     * @return The fetched movies, in the same order as their IDs.
+     */
+    List<Movie> fetchMoviesById(List<Long> ids) {
+        List<CompletableFuture<Movie>> details = new ArrayList<>(ids.size());
+        for (long id : ids) {
+            details.add(fetchMovieDetailsByIdAsync(id));
+        }
+        List<Movie> movies = allInOrder(details).join();
+        movies.removeIf(Objects::isNull);
+        return movies;
+    }
+    /**
+     * Fetches one page of the popular list together with the details of every movie on it.
+     *
+     * @param page The 1-based page number.
+     * @return A future holding the page's movies in ranking order.
+     */
+    private CompletableFuture<List<Movie>> fetchPopularPageAsync(int page) {
+        return sendAsync(popularUrl(page), parser -> TmdbResponses.readIds(parser, "results", Integer.MAX_VALUE))
+                .thenCompose(ids -> {
+                    List<CompletableFuture<Movie>> details = new ArrayList<>();
+                    for (long id : ids) {
+                        details.add(fetchMovieDetailsByIdAsync(id));
+                    }
+                    return allInOrder(details);
+                })
+                .thenApply(movies -> {
+                    movies.removeIf(Objects::isNull);
+                    return movies;
+                })
+                .exceptionally(e -> {
+                    System.err.println("fetchPopularMovies page " + page + " error: " + rootMessage(e));
+                    return new ArrayList<>();
+                });
+    }
+    /**
+     * Waits for every future and collects their values in the order given.
+     *
+     * @param futures The futures to combine.
+     * @return A future holding the values, positionally matching the input list.
+     */
+    private static <T> CompletableFuture<List<T>> allInOrder(List<CompletableFuture<T>> futures) {
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .thenApply(v -> {
+                    List<T> values = new ArrayList<>(futures.size());
+                    for (CompletableFuture<T> future : futures) {
+                        values.add(future.join());
+                    }
+                    return values;
+                });
+    }
+    /**
+     * Builds a GET request for the given URL with the per-request timeout applied.
+     *
+     * @param url The full request URL.
+     * @param cached The cached response to revalidate, or null.
+     * @return The HttpRequest.
+     */
+    private HttpRequest newRequest(String url, ResponseCache.Entry cached) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .timeout(requestTimeout)
+                .GET();
+        if (cached != null && cached.getEtag() != null) {
+            builder.header("If-None-Match", cached.getEtag());
+        }
+        return builder.build();
+    }
+    /**
+     * Reads the fields a caller needs from a response body.
+     */
+    @FunctionalInterface
+    private interface ResponseReader<T> {
+        T read(JsonParser parser) throws IOException;
+    }
+    /**
+     * The outcome of one attempt at an asynchronous request: either the value read
+     * from the response, or how long to back off before trying again.
+     */
+    private static final class Attempt<T> {
+        final T value;
+        final long backoff;
 
-                for (JsonNode node : results) {
-                    long id = node.get("id").asLong();
-                    Movie movie = fetchMovieDetailsById(id);
-                    if (movie != null) {
-                        popular.add(movie);
+        Attempt(T value, long backoff) {
+            this.value = value;
+            this.backoff = backoff;
+        }
+    }
+    /**
+     * Sends a request on the calling thread once the in-flight limit and then the rate
+     * limiter allow it, and reads the response body as it streams in. Throttled (429)
+     * and server-error (5xx) responses and dropped connections are retried with
+     * backoff, up to tmdb.maxRetries times; waits between attempts do not hold a
+     * slot. A fresh cached response is read without asking TMDB, and a stale one is
+     * revalidated with its ETag.
+     *
+     * @param url The full request URL.
+     * @param reader Reads the needed fields from the body.
+     * @return The value read from the body.
+     * @throws IOException if the request failed, or still failed after its last retry.
+     * @throws InterruptedException if interrupted while waiting to send.
+     */
+    private <T> T send(String url, ResponseReader<T> reader) throws IOException, InterruptedException {
+        String key = cacheKey(url);
+        ResponseCache.Entry cached = cache == null ? null : cache.lookup(key);
+        byte[] fresh = freshBody(key, cached);
+        if (fresh != null) {
+            return read(new ByteArrayInputStream(fresh), reader);
+        }
+        for (int attempt = 0; ; attempt++) {
+            long backoff;
+            limiter.acquire();
+            try {
+                rateLimiter.acquire();
+                HttpResponse<InputStream> response = null;
+                try {
+                    response = client.send(newRequest(url, cached), HttpResponse.BodyHandlers.ofInputStream());
+                } catch (IOException e) {
+                    if (!isRetryable(e) || !rateLimiter.shouldRetry(attempt)) {
+                        throw e;
                     }
                 }
+                backoff = response == null ? rateLimiter.backoffNanos(attempt) : retryBackoff(response, attempt);
+                if (backoff < 0) {
+                    return readResponse(key, cached, response, reader);
+                }
+            } finally {
+                limiter.release();
+            }
+            TimeUnit.NANOSECONDS.sleep(backoff);
+        }
+    }
+    /**
+     * Sends a request asynchronously once the in-flight limit and then the rate
+     * limiter allow it, retrying as {@link #send(String, ResponseReader)} does. The
+     * body is read on a virtual thread while the request still holds its in-flight slot.
+     * Waits between attempts are scheduled rather than slept, and do not hold a slot.
+     * The response cache is consulted on a virtual thread too, before the request
+     * takes a token from the rate limiter.
+     *
+     * @param url The full request URL.
+     * @param reader Reads the needed fields from the body.
+     * @return A future holding the value read from the body.
+     */
+    private <T> CompletableFuture<T> sendAsync(String url, ResponseReader<T> reader) {
+        String key = cacheKey(url);
+        if (cache == null) {
+            return sendAsync(url, key, null, reader, 0);
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                ResponseCache.Entry cached = cache.lookup(key);
+                byte[] fresh = freshBody(key, cached);
+                return fresh != null
+                        ? CompletableFuture.completedFuture(read(new ByteArrayInputStream(fresh), reader))
+                        : sendAsync(url, key, cached, reader, 0);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, READ_EXECUTOR).thenCompose(Function.identity());
+    }
+    private <T> CompletableFuture<T> sendAsync(String url, String key, ResponseCache.Entry cached,
+                                               ResponseReader<T> reader, int attempt) {
+        // The slot comes first, so a token is only spent by a request ready to go out
+        return limiter.submit(() -> rateLimiter.acquireAsync()
+                        .thenCompose(v -> client.sendAsync(newRequest(url, cached),
+                                HttpResponse.BodyHandlers.ofInputStream()))
+                        .thenApplyAsync(response -> {
+                            try {
+                                long backoff = retryBackoff(response, attempt);
+                                return new Attempt<>(
+                                        backoff < 0 ? readResponse(key, cached, response, reader) : null,
+                                        backoff);
+                            } catch (IOException e) {
+                                throw new CompletionException(e);
+                            }
+                        }, READ_EXECUTOR))
+                .handle((outcome, error) -> {
+                    long backoff;
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause() : error;
+                        if (!isRetryable(cause) || !rateLimiter.shouldRetry(attempt)) {
+                            return CompletableFuture.<T>failedFuture(cause);
+                        }
+                        backoff = rateLimiter.backoffNanos(attempt);
+                    } else if (outcome.backoff < 0) {
+                        return CompletableFuture.completedFuture(outcome.value);
+                    } else {
+                        backoff = outcome.backoff;
+                    }
+                    return CompletableFuture.runAsync(() -> { },
+                                    CompletableFuture.delayedExecutor(backoff, TimeUnit.NANOSECONDS))
+                            .thenCompose(v -> sendAsync(url, key, cached, reader, attempt + 1));
+                })
+                .thenCompose(Function.identity());
+    }
+    /**
+     * Returns a cached body that can be used without asking TMDB.
+     *
+     * @param key The request's cache key.
+     * @param cached The request's cache entry, or null if it has none.
+     * @return The body if the entry is fresh and readable, otherwise null.
+     * @throws IOException if offline and the request is not in the cache.
+     */
+    private byte[] freshBody(String key, ResponseCache.Entry cached) throws IOException {
+        if (cache == null) {
+            return null;
+        }
+        if (cached != null && cache.isFresh(cached)) {
+            byte[] body = cache.read(key, cached);
+            if (body != null) {
+                return body;
+            }
+        }
+        if (cache.isOffline()) {
+            throw new IOException("Not in the offline response cache: " + key);
+        }
+        return null;
+    }
+    /**
+     * Reads a successful response. Without a response cache the body is streamed
+     * straight into the reader; with one, it is read in full and stored first. A 304
+     * means the cached body is still current, and that is read instead.
+     *
+     * @param key The request's cache key.
+     * @param cached The cache entry the request revalidated, or null.
+     * @param response The response.
+     * @param reader Reads the needed fields from the body.
+     * @return The value read from the body.
+     * @throws IOException if the body cannot be read, parsed or cached.
+     */
+    private <T> T readResponse(String key, ResponseCache.Entry cached,
+                               HttpResponse<InputStream> response, ResponseReader<T> reader) throws IOException {
+        if (cache == null) {
+            return read(response.body(), reader);
+        }
+        String cacheControl = response.headers().firstValue("Cache-Control").orElse("");
+        Duration maxAge = parseMaxAge(cacheControl);
+        if (response.statusCode() == 304) {
+            try (InputStream body = response.body()) {
+                body.transferTo(OutputStream.nullOutputStream());
+            }
+            byte[] body = cached == null ? null : cache.read(key, cached);
+            if (body == null) {
+                throw new IOException("Cached response to revalidate is unreadable: " + key);
+            }
+            cache.revalidated(key, maxAge);
+            return read(new ByteArrayInputStream(body), reader);
+        }
+        byte[] body;
+        try (InputStream in = response.body()) {
+            body = in.readAllBytes();
+        }
+        if (!cacheControl.contains("no-store")) {
+            cache.put(key, body, response.headers().firstValue("ETag").orElse(null), maxAge);
+        }
+        return read(new ByteArrayInputStream(body), reader);
+    }
+    /**
+     * Reads a body with a streaming parser, then discards whatever the reader left
+     * unread so the connection can be reused.
+     *
+     * @param body The response body; closed when done.
+     * @param reader Reads the needed fields from the body.
+     * @return The value read from the body.
+     * @throws IOException if the body cannot be read or parsed.
+     */
+    private <T> T read(InputStream body, ResponseReader<T> reader) throws IOException {
+        try (InputStream in = body) {
+            T value;
+            try (JsonParser parser = jsonFactory.createParser(in)) {
+                // Closing the parser would close the body before the rest is discarded
+                parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+                value = reader.read(parser);
+            }
+            in.transferTo(OutputStream.nullOutputStream());
+            return value;
+        }
+    }
+    /**
+     * Reports a response to the rate limiter and decides what to do with it.
+     *
+     * @param response The response to an attempt.
+     * @param attempt The number of the attempt, starting at 0.
+     * @return -1 if the response succeeded or was a 304, otherwise the backoff in
+     *         nanoseconds before sending the request again.
+     * @throws IOException if the response failed and is not to be retried.
+     */
+    private long retryBackoff(HttpResponse<InputStream> response, int attempt) throws IOException {
+        int status = response.statusCode();
+        if ((status >= 200 && status < 300) || status == 304) {
+            rateLimiter.onSuccess();
+            return -1;
+        }
+        try (InputStream body = response.body()) {
+            body.transferTo(OutputStream.nullOutputStream());
+        }
+        if (status == 429) {
+            // The limiter holds every request back until Retry-After has passed;
+            // the backoff on top spreads out the retries that were waiting
+            rateLimiter.onThrottled(response.headers().firstValue("Retry-After")
+                    .map(TMDBClient::parseRetryAfter).orElse(null));
+        }
+        if ((status == 429 || status >= 500) && rateLimiter.shouldRetry(attempt)) {
+            return rateLimiter.backoffNanos(attempt);
+        }
+        throw new HttpStatusException(status);
+    }
+    /**
+     * A response whose status means the request failed and is not to be retried.
+     */
+    private static final class HttpStatusException extends IOException {
+        private static final long serialVersionUID = 1L;
 
-                // TMDB only allows up to 500 results (25 pages * 20 movies)
-                if (results.isEmpty()) {
-                    break;
+        HttpStatusException(int status) {
+            super("TMDB returned HTTP " + status);
+        }
+    }
+    /**
+     * Checks whether a failed attempt is worth retrying: only I/O failures are. A
+     * timed-out request is not retried, since the timeout is the caller's budget for
+     * it, and neither is a rejected status or a body that does not parse.
+     */
+    private static boolean isRetryable(Throwable e) {
+        return e instanceof IOException
+                && !(e instanceof HttpTimeoutException)
+                && !(e instanceof HttpStatusException)
+                && !(e instanceof JsonProcessingException);
+    }
+    /**
+     * Parses the max-age of a Cache-Control header.
+     *
+     * @param cacheControl The header value, or an empty string if there was none.
+     * @return The max-age, zero for no-cache, or null if the header does not say.
+     */
+    static Duration parseMaxAge(String cacheControl) {
+        for (String directive : cacheControl.split(",")) {
+            String d = directive.trim().toLowerCase(Locale.ROOT);
+            if (d.equals("no-cache")) {
+                return Duration.ZERO;
+            }
+            if (d.startsWith("max-age=")) {
+                try {
+                    return Duration.ofSeconds(Math.max(0, Long.parseLong(d.substring(8).trim())));
+                } catch (NumberFormatException e) {
+                    return null;
                 }
             }
-        } catch (Exception e) {
-            System.err.println("fetchPopularMovies error: " + e.getMessage());
         }
-        return popular;
+        return null;
+    }
+    /**
+     * Returns the key a request's response is cached under: its path and parameters
+     * relative to the API root, without the API key.
+     *
+     * @param url The full request URL.
+     * @return The cache key.
+     */
+    private String cacheKey(String url) {
+        String relative = url.startsWith(baseUrl) ? url.substring(baseUrl.length()) : url;
+        int query = relative.indexOf('?');
+        if (query < 0) {
+            return relative;
+        }
+        StringJoiner params = new StringJoiner("&", relative.substring(0, query) + "?", "");
+        params.setEmptyValue(relative.substring(0, query));
+        for (String param : relative.substring(query + 1).split("&")) {
+            if (!param.startsWith("api_key=")) {
+                params.add(param);
+            }
+        }
+        return params.toString();
+    }
+    /**
+     * Parses a Retry-After header, given either as a number of seconds or as an
+     * HTTP date.
+     *
+     * @param value The header value.
+     * @return How long to wait, or null if the value could not be parsed.
+     */
+    static Duration parseRetryAfter(String value) {
+        String trimmed = value.trim();
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(trimmed)));
+        } catch (NumberFormatException e) {
+            // Not a number of seconds; try a date
+        }
+        try {
+            Duration wait = Duration.between(Instant.now(),
+                    ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME));
+            return wait.isNegative() ? Duration.ZERO : wait;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+    /**
+     * Returns the message of the underlying cause of an asynchronous failure.
+     *
+     * @param e The failure, possibly wrapped in a CompletionException.
+     * @return The most specific message available.
+     */
+    private static String rootMessage(Throwable e) {
+        while (e instanceof CompletionException && e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e.getMessage() != null ? e.getMessage() : e.toString();
+    }
+    /**
+     * Returns the URL of one page of the popular list.
+     *
+     * @param page The 1-based page number.
+     * @return The page URL.
+     */
+    private String popularUrl(int page) {
+        return baseUrl + "/movie/popular?api_key=" + apiKey + "&page=" + page;
+    }
+    /**
+     * Returns the URL for a movie's details with credits appended.
+     *
+     * @param id The TMDB ID of the movie.
+     * @return The details URL.
+     */
+    private String detailsUrl(long id) {
+        return baseUrl + "/movie/" + id + "?api_key=" + apiKey + "&append_to_response=credits";
     }
 }
-
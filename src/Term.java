@@ -4,6 +4,10 @@ import java.util.Comparator;
 public class Term {
     private final String term;
     private long weight;
+    // Insertion order within an Autocomplete; breaks ties between equal weights and orders word postings
+    int sequence;
+    // The TitleIndex key the term was inserted under
+    String key;
     /**
      * Constructs a Term with the specified term string and weight.
      *
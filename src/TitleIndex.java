@@ -0,0 +1,171 @@
+import java.text.Normalizer;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Finds catalogue movies by title without regard to case, accents, punctuation or
+ * spacing, so "spider man", "Spider-Man" and "SPIDER–MAN " all find the same movie.
+ *
+ * <p>Every title is reduced to a key by {@link #key(String)}; the autocomplete
+ * engine uses the same keys, so any suggestion it offers is found here. Several
+ * movies may share a key (remakes); a query may name one by appending its year in
+ * parentheses, as in "Dune (1984)", and otherwise finds the most popular.
+ */
+public class TitleIndex {
+    private static final Pattern YEAR_SUFFIX = Pattern.compile("(.*?)\\s*\\((\\d{4})\\)\\s*");
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private final Map<String, List<Movie>> movies = new HashMap<>();
+    private final Set<Long> movieIds = new HashSet<>();
+    private final List<Movie> all = new ArrayList<>();
+
+    /**
+     * Adds a movie under its title key. A movie whose ID is already indexed is ignored.
+     *
+     * @param movie The movie to add.
+     * @return true if the movie was added, false if it was already indexed.
+     */
+    public boolean add(Movie movie) {
+        if (!movieIds.add(movie.getMovieId())) {
+            return false;
+        }
+        movies.computeIfAbsent(key(movie.getTitle()), k -> new ArrayList<>(1)).add(movie);
+        all.add(movie);
+        return true;
+    }
+
+    /**
+     * Returns an independent copy of this index; adding to the copy does not affect
+     * readers of this one.
+     *
+     * @return the copy
+     */
+    public TitleIndex copy() {
+        TitleIndex copy = new TitleIndex();
+        for (Map.Entry<String, List<Movie>> entry : movies.entrySet()) {
+            copy.movies.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+        }
+        copy.movieIds.addAll(movieIds);
+        copy.all.addAll(all);
+        return copy;
+    }
+
+    /**
+     * Checks whether a movie with this TMDB ID is indexed.
+     *
+     * @param movieId The TMDB ID to look up.
+     * @return true if the movie is indexed.
+     */
+    public boolean contains(long movieId) {
+        return movieIds.contains(movieId);
+    }
+
+    /**
+     * Finds the movie a player means by a title. A trailing year in parentheses picks
+     * among movies with the same title; otherwise the most popular one is returned.
+     *
+     * @param query The title as typed, optionally followed by " (year)".
+     * @return The movie, or null if no catalogue title matches.
+     */
+    public Movie find(String query) {
+        Matcher matcher = YEAR_SUFFIX.matcher(query);
+        if (matcher.matches()) {
+            int year = Integer.parseInt(matcher.group(2));
+            for (Movie movie : movies.getOrDefault(key(matcher.group(1)), List.of())) {
+                if (movie.getYear() == year) {
+                    return movie;
+                }
+            }
+        }
+
+        Movie best = null;
+        for (Movie movie : movies.getOrDefault(key(query), List.of())) {
+            if (best == null || morePopular(movie, best)) {
+                best = movie;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Checks whether more than one indexed movie has this title.
+     *
+     * @param title The title to check.
+     * @return true if the title alone does not identify a single movie.
+     */
+    public boolean isAmbiguous(String title) {
+        return movies.getOrDefault(key(title), List.of()).size() > 1;
+    }
+
+    /**
+     * Returns every indexed movie, in the order they were added.
+     *
+     * @return a read-only list of all movies
+     */
+    public List<Movie> movies() {
+        return Collections.unmodifiableList(all);
+    }
+
+    public int size() {
+        return all.size();
+    }
+
+    /**
+     * Reduces a title to its lookup key:
+     * <ul>
+     *     <li>accents are removed and case is folded ("Amélie" and "AMELIE" become "amelie");</li>
+     *     <li>apostrophes are dropped ("Schindler's" becomes "schindlers");</li>
+     *     <li>"&amp;" becomes "and";</li>
+     *     <li>any other run of punctuation or whitespace becomes one space, and
+     *     leading and trailing spaces are removed.</li>
+     * </ul>
+     *
+     * @param title The title to reduce.
+     * @return the key, which is empty if the title has no letters or digits
+     */
+    public static String key(String title) {
+        String s = title;
+        if (!isAscii(s)) {
+            s = COMBINING_MARKS.matcher(Normalizer.normalize(s, Normalizer.Form.NFKD)).replaceAll("");
+        }
+        // Upper then lower case folds the characters with no single lowercase form, e.g. ß
+        s = s.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+
+        StringBuilder key = new StringBuilder(s.length());
+        boolean gap = false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (gap && key.length() > 0) {
+                    key.append(' ');
+                }
+                key.append(c);
+                gap = false;
+            } else if (c == '&') {
+                if (key.length() > 0) {
+                    key.append(' ');
+                }
+                key.append("and");
+                gap = true;
+            } else if (c != '\'' && c != '’') {
+                gap = true;
+            }
+        }
+        return key.toString();
+    }
+
+    private static boolean isAscii(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean morePopular(Movie a, Movie b) {
+        return a.getPopularity() > b.getPopularity()
+                || (a.getPopularity() == b.getPopularity() && a.getVoteCount() > b.getVoteCount());
+    }
+}
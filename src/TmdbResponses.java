@@ -0,0 +1,342 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Reads the few fields the game needs out of TMDB responses with a streaming
+ * parser, without building the body as a String or a JSON tree.
+ *
+ * <p>Values the game does not use are skipped token by token, and each reader
+ * returns as soon as it has what it needs; the caller discards the rest of the body.
+ */
+final class TmdbResponses {
+    /** How many cast members are kept as a movie's actors. */
+    static final int CAST_LIMIT = 5;
+
+    private static final int TITLE = 1;
+    private static final int RELEASE_DATE = 1 << 1;
+    private static final int POPULARITY = 1 << 2;
+    private static final int VOTE_COUNT = 1 << 3;
+    private static final int GENRES = 1 << 4;
+    private static final int CREDITS = 1 << 5;
+    private static final int ALL_DETAILS = (1 << 6) - 1;
+
+    /**
+     * What a list entry, such as a popular-list result, says about a movie without
+     * its credits.
+     */
+    static final class Summary {
+        final long id;
+        final String title;
+        final int year;
+        final double popularity;
+        final int voteCount;
+
+        Summary(long id, String title, int year, double popularity, int voteCount) {
+            this.id = id;
+            this.title = title;
+            this.year = year;
+            this.popularity = popularity;
+            this.voteCount = voteCount;
+        }
+    }
+
+    private TmdbResponses() {
+    }
+
+    /**
+     * Reads the "id" of each object in one of the response's top-level arrays, such
+     * as "results" in a search or "cast" in a person's movie credits.
+     *
+     * @param parser A parser positioned before the response object.
+     * @param field The name of the array.
+     * @param limit The maximum number of IDs to read.
+     * @return The IDs in response order; objects without an ID are skipped.
+     * @throws IOException if the body cannot be read or is not a JSON object.
+     */
+    static List<Long> readIds(JsonParser parser, String field, int limit) throws IOException {
+        List<Long> ids = new ArrayList<>();
+        expect(parser, JsonToken.START_OBJECT);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            boolean wanted = field.equals(parser.currentName());
+            if (parser.nextToken() != JsonToken.START_ARRAY || !wanted) {
+                parser.skipChildren();
+                continue;
+            }
+            while (ids.size() < limit && parser.nextToken() == JsonToken.START_OBJECT) {
+                long id = readId(parser);
+                if (id >= 0) {
+                    ids.add(id);
+                }
+            }
+            return ids;
+        }
+        return ids;
+    }
+
+    /**
+     * Reads the entries of a list response's "results" array, such as a page of the
+     * popular list.
+     *
+     * @param parser A parser positioned before the response object.
+     * @return The entries in response order; entries without an ID are skipped, and
+     *         an entry without a release date has year 0.
+     * @throws IOException if the body cannot be read or is not a JSON object.
+     */
+    static List<Summary> readSummaries(JsonParser parser) throws IOException {
+        List<Summary> summaries = new ArrayList<>();
+        expect(parser, JsonToken.START_OBJECT);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            boolean results = "results".equals(parser.currentName());
+            if (parser.nextToken() != JsonToken.START_ARRAY || !results) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                Summary summary = readSummary(parser);
+                if (summary != null) {
+                    summaries.add(summary);
+                }
+            }
+        }
+        return summaries;
+    }
+
+    /**
+     * Reads a movie from a details response that includes appended credits. Only the
+     * first {@link #CAST_LIMIT} cast members are read; the rest are skipped.
+     *
+     * @param id The TMDB ID of the movie.
+     * @param parser A parser positioned before the response object.
+     * @return The Movie described by the response.
+     * @throws IOException if the body cannot be read or is not a JSON object.
+     * @throws NumberFormatException if the response has no release year.
+     */
+    static Movie readMovieDetails(long id, JsonParser parser) throws IOException {
+        String title = "";
+        String releaseDate = "";
+        double popularity = 0;
+        int voteCount = 0;
+        Set<String> genres = new HashSet<>();
+        Set<String> actors = new HashSet<>();
+        Set<String> directors = new HashSet<>();
+
+        int seen = 0;
+        expect(parser, JsonToken.START_OBJECT);
+        // Credits are appended last, so the loop usually ends right after them
+        while (seen != ALL_DETAILS && parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "title" -> {
+                    title = parser.getValueAsString("");
+                    seen |= TITLE;
+                }
+                case "release_date" -> {
+                    releaseDate = parser.getValueAsString("");
+                    seen |= RELEASE_DATE;
+                }
+                case "popularity" -> {
+                    popularity = parser.getValueAsDouble();
+                    seen |= POPULARITY;
+                }
+                case "vote_count" -> {
+                    voteCount = parser.getValueAsInt();
+                    seen |= VOTE_COUNT;
+                }
+                case "genres" -> {
+                    readGenres(parser, genres);
+                    seen |= GENRES;
+                }
+                case "credits" -> {
+                    readCredits(parser, actors, directors);
+                    seen |= CREDITS;
+                }
+                default -> parser.skipChildren();
+            }
+        }
+
+        int year = Integer.parseInt(releaseDate.split("-")[0]);
+        return new Movie(id, title, year, popularity, voteCount, genres, actors, directors,
+                Set.of(), Set.of(), Set.of());
+    }
+
+    /**
+     * Reads the "id" field of the object the parser has just entered, leaving the
+     * parser at the end of the object.
+     *
+     * @return the ID, or -1 if the object has none
+     */
+    private static long readId(JsonParser parser) throws IOException {
+        long id = -1;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            boolean isId = "id".equals(parser.currentName());
+            parser.nextToken();
+            if (isId && parser.currentToken().isNumeric()) {
+                id = parser.getLongValue();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Reads one list entry, leaving the parser at the end of its object.
+     *
+     * @return the entry, or null if it has no ID
+     */
+    private static Summary readSummary(JsonParser parser) throws IOException {
+        long id = -1;
+        String title = "";
+        int year = 0;
+        double popularity = 0;
+        int voteCount = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "id" -> id = parser.getValueAsLong(-1);
+                case "title" -> title = parser.getValueAsString("");
+                case "release_date" -> year = parseYear(parser.getValueAsString(""));
+                case "popularity" -> popularity = parser.getValueAsDouble();
+                case "vote_count" -> voteCount = parser.getValueAsInt();
+                default -> parser.skipChildren();
+            }
+        }
+        return id < 0 ? null : new Summary(id, title, year, popularity, voteCount);
+    }
+
+    private static int parseYear(String releaseDate) {
+        int dash = releaseDate.indexOf('-');
+        try {
+            return Integer.parseInt(dash < 0 ? releaseDate : releaseDate.substring(0, dash));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static void readGenres(JsonParser parser, Set<String> genres) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            String name = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                boolean isName = "name".equals(parser.currentName());
+                parser.nextToken();
+                if (isName) {
+                    name = parser.getValueAsString();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (name != null) {
+                genres.add(name);
+            }
+        }
+    }
+
+    private static void readCredits(JsonParser parser, Set<String> actors, Set<String> directors)
+            throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY && "cast".equals(field)) {
+                readCast(parser, actors);
+            } else if (token == JsonToken.START_ARRAY && "crew".equals(field)) {
+                readDirectors(parser, directors);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Keeps cast members' names until {@link #CAST_LIMIT} actors are known, then skips
+     * the remaining entries without reading their fields.
+     */
+    private static void readCast(JsonParser parser, Set<String> actors) throws IOException {
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            if (actors.size() >= CAST_LIMIT) {
+                parser.skipChildren();
+                continue;
+            }
+            String name = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                boolean isName = "name".equals(parser.currentName());
+                parser.nextToken();
+                if (isName) {
+                    name = parser.getValueAsString();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (name != null) {
+                actors.add(name);
+            }
+        }
+    }
+
+    /**
+     * Keeps the names of crew members whose job is "Director". A crew entry lists its
+     * name before its job, so every name is read, but jobs are compared in place.
+     */
+    private static void readDirectors(JsonParser parser, Set<String> directors) throws IOException {
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            String name = null;
+            boolean director = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken token = parser.nextToken();
+                if (token == JsonToken.VALUE_STRING && "name".equals(field)) {
+                    name = parser.getText();
+                } else if (token == JsonToken.VALUE_STRING && "job".equals(field)) {
+                    director = textEquals(parser, "Director");
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (director && name != null) {
+                directors.add(name);
+            }
+        }
+    }
+
+    /**
+     * Compares the current string value with a constant without copying it out of
+     * the parser's buffer.
+     */
+    private static boolean textEquals(JsonParser parser, String expected) throws IOException {
+        int length = parser.getTextLength();
+        if (length != expected.length()) {
+            return false;
+        }
+        char[] text = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        for (int i = 0; i < length; i++) {
+            if (text[offset + i] != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void expect(JsonParser parser, JsonToken expected) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token != expected) {
+            throw new JsonParseException(parser, "Expected " + expected + " but found " + token);
+        }
+    }
+}
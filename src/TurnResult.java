@@ -2,6 +2,7 @@ public class TurnResult {
     private final boolean success;
     private final boolean gameOver;
     private final String message;
+    private final boolean late;
     /**
      * Constructs a TurnResult object representing the outcome of a game turn.
      *
@@ -10,9 +11,24 @@ public class TurnResult {
      * @param message A message providing details about the turn result.
      */
     public TurnResult(boolean success, boolean gameOver, String message) {
+        this(success, gameOver, message, false);
+    }
+
+    private TurnResult(boolean success, boolean gameOver, String message, boolean late) {
         this.success = success;
         this.gameOver = gameOver;
         this.message = message;
+        this.late = late;
+    }
+    /**
+     * Creates the result of a guess that was judged after its turn had already ended,
+     * e.g. because the timer ran out during a slow lookup. It changed nothing.
+     *
+     * @param message A message providing details about the turn result.
+     * @return the unsuccessful, late result
+     */
+    public static TurnResult late(String message) {
+        return new TurnResult(false, false, message, true);
     }
     /**
      * Constructs a TurnResult object representing the outcome of a game turn.
@@ -41,6 +57,15 @@ public class TurnResult {
     public boolean isGameOver() {
         return gameOver;
     }
+    /**
+     * Checks if the guess arrived after its turn had ended, in which case the game
+     * state was left alone and the result should be dropped.
+     *
+     * @return true if the result is late; false otherwise.
+     */
+    public boolean isLate() {
+        return late;
+    }
     /**
      * Retrieves the message associated with the turn result.
      *
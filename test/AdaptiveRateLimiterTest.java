@@ -0,0 +1,113 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class AdaptiveRateLimiterTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private long now;
+    private AdaptiveRateLimiter limiter;
+
+    @Before
+    public void setUp() {
+        now = 0;
+        limiter = new AdaptiveRateLimiter(10, 1, 3, Duration.ofMillis(100), () -> now);
+    }
+
+    @Test
+    public void testBurstUpToOneSecondOfTokens() {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, limiter.reserve());
+        }
+        assertTrue(limiter.reserve() > 0);
+    }
+
+    @Test
+    public void testRequestsBeyondBurstAreSpacedEvenly() {
+        for (int i = 0; i < 10; i++) {
+            limiter.reserve();
+        }
+        assertEquals(SECOND / 10, limiter.reserve());
+        assertEquals(2 * SECOND / 10, limiter.reserve());
+        assertEquals(3 * SECOND / 10, limiter.getTotalWait().toNanos());
+    }
+
+    @Test
+    public void testTokensRefillOverTime() {
+        for (int i = 0; i < 10; i++) {
+            limiter.reserve();
+        }
+        now += SECOND / 2;
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.reserve());
+        }
+        assertTrue(limiter.reserve() > 0);
+    }
+
+    @Test
+    public void testThrottlingHalvesRateAndPauses() {
+        limiter.onThrottled(Duration.ofSeconds(2));
+
+        assertEquals(5.0, limiter.getRate(), 1e-9);
+        assertEquals(2 * SECOND, limiter.reserve());
+        assertEquals(1, limiter.getThrottledCount());
+
+        now += 2 * SECOND;
+        assertEquals(0, limiter.reserve());
+    }
+
+    @Test
+    public void testRateNeverDropsBelowFloor() {
+        for (int i = 0; i < 10; i++) {
+            limiter.onThrottled(null);
+        }
+        assertEquals(1.0, limiter.getRate(), 1e-9);
+        assertEquals(0, limiter.reserve());
+    }
+
+    @Test
+    public void testSuccessRecoversRateUpToCeiling() {
+        limiter.onThrottled(null);
+        limiter.onSuccess();
+        assertEquals(5.5, limiter.getRate(), 1e-9);
+
+        for (int i = 0; i < 100; i++) {
+            limiter.onSuccess();
+        }
+        assertEquals(10.0, limiter.getRate(), 1e-9);
+    }
+
+    @Test
+    public void testRetriesAreCountedUntilExhausted() {
+        assertTrue(limiter.shouldRetry(0));
+        assertTrue(limiter.shouldRetry(2));
+        assertFalse(limiter.shouldRetry(3));
+        assertEquals(2, limiter.getRetryCount());
+        assertEquals(1, limiter.getFailureCount());
+    }
+
+    @Test
+    public void testBackoffGrowsExponentiallyWithJitter() {
+        long base = TimeUnit.MILLISECONDS.toNanos(100);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.backoffNanos(0) <= base);
+            assertTrue(limiter.backoffNanos(3) <= 8 * base);
+            assertTrue(limiter.backoffNanos(40) <= TimeUnit.SECONDS.toNanos(30));
+        }
+        long total = 0;
+        for (int i = 0; i < 1000; i++) {
+            total += limiter.backoffNanos(3);
+        }
+        // Full jitter averages half the ceiling
+        assertTrue(total / 1000 > 2 * base && total / 1000 < 6 * base);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFloorAboveCeilingIsRejected() {
+        new AdaptiveRateLimiter(1, 2, 3, Duration.ofMillis(100));
+    }
+}
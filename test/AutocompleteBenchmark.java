@@ -0,0 +1,180 @@
+import java.util.*;
+
+/**
+ * Compares heap usage and suggest latency of the radix-trie Autocomplete against
+ * the previous layout of one node per character, each with a HashMap of children,
+ * a list of every term passing through it and a top-k array. The radix figures
+ * include the word index, and its suggestions add word matches after the title
+ * matches, which must agree with the old layout.
+ *
+ * Titles are synthetic (one to four words from a seeded vocabulary), so runs are
+ * repeatable. Needs a large heap for 500k titles, e.g.
+ * java -Xmx4g AutocompleteBenchmark [sizes...]
+ */
+public class AutocompleteBenchmark {
+    private static final int LIMIT = 5;
+    private static final int QUERIES = 200_000;
+
+    public static void main(String[] args) throws Exception {
+        int[] sizes = args.length > 0
+                ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[] {500, 50_000, 500_000};
+
+        for (int n : sizes) {
+            List<Term> terms = titles(n, new Random(n));
+            String[] prefixes = prefixes(terms, new Random(7));
+
+            long before = usedHeap();
+            LegacyTrie legacy = new LegacyTrie();
+            for (Term t : terms) {
+                legacy.insert(t.getTerm(), t.getWeight());
+            }
+            long legacyBytes = usedHeap() - before;
+            double legacyNs = time(prefix -> legacy.suggest(prefix).size(), prefixes);
+
+            before = usedHeap();
+            Autocomplete radix = new Autocomplete();
+            radix.setSuggestionLimit(LIMIT);
+            radix.loadTerms(terms);
+            long radixBytes = usedHeap() - before;
+            double radixNs = time(prefix -> radix.suggest(prefix).size(), prefixes);
+
+            for (String prefix : prefixes) {
+                List<Term> expected = legacy.suggest(prefix);
+                List<Term> actual = radix.suggest(prefix);
+                for (int i = 0; i < expected.size(); i++) {
+                    if (!expected.get(i).getTerm().equals(actual.get(i).getTerm())) {
+                        throw new IllegalStateException("Tries returned different results for " + prefix);
+                    }
+                }
+            }
+            System.out.printf("%7d titles | per-char trie %8d KB %7.0f ns/suggest | "
+                            + "radix trie %8d KB %7.0f ns/suggest%n",
+                    n, legacyBytes / 1024, legacyNs, radixBytes / 1024, radixNs);
+
+            // Keep both tries reachable until after measuring
+            if (legacy.root == null || radix.suggest("").size() > 0) {
+                throw new IllegalStateException();
+            }
+        }
+    }
+
+    private interface Query {
+        int run(String prefix);
+    }
+
+    private static double time(Query query, String[] prefixes) {
+        for (int warmup = 0; warmup < 3; warmup++) {
+            checksum(query, prefixes);
+        }
+        long start = System.nanoTime();
+        checksum(query, prefixes);
+        return (System.nanoTime() - start) / (double) prefixes.length;
+    }
+
+    private static int checksum(Query query, String[] prefixes) {
+        int sum = 0;
+        for (String prefix : prefixes) {
+            sum += query.run(prefix);
+        }
+        return sum;
+    }
+
+    static List<Term> titles(int n, Random random) {
+        String[] words = new String[2000];
+        for (int i = 0; i < words.length; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 3 + random.nextInt(7);
+            for (int c = 0; c < length; c++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            words[i] = Character.toUpperCase(word.charAt(0)) + word.substring(1);
+        }
+
+        List<Term> terms = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            StringBuilder title = new StringBuilder(random.nextInt(10) < 3 ? "The " : "");
+            int count = 1 + random.nextInt(4);
+            for (int w = 0; w < count; w++) {
+                title.append(w == 0 ? "" : " ").append(words[random.nextInt(words.length)]);
+            }
+            terms.add(new Term(title.toString(), random.nextInt(100_000)));
+        }
+        return terms;
+    }
+
+    private static String[] prefixes(List<Term> terms, Random random) {
+        String[] prefixes = new String[QUERIES];
+        for (int i = 0; i < prefixes.length; i++) {
+            String title = terms.get(random.nextInt(terms.size())).getTerm();
+            prefixes[i] = title.substring(0, Math.min(title.length(), 1 + random.nextInt(6)));
+        }
+        return prefixes;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * The previous Autocomplete layout: one node per character.
+     */
+    private static class LegacyTrie {
+        final LegacyNode root = new LegacyNode();
+
+        void insert(String title, long weight) {
+            LegacyNode node = root;
+            Term term = new Term(title, weight);
+            for (int i = 0; i < title.length(); i++) {
+                char c = Character.toLowerCase(title.charAt(i));
+                node = node.children.computeIfAbsent(c, k -> new LegacyNode());
+                node.suggestions.add(term);
+                node.offer(term);
+            }
+            node.isEndOfWord = true;
+        }
+
+        List<Term> suggest(String prefix) {
+            LegacyNode node = root;
+            for (int i = 0; i < prefix.length(); i++) {
+                node = node.children.get(Character.toLowerCase(prefix.charAt(i)));
+                if (node == null) {
+                    return Collections.emptyList();
+                }
+            }
+            return Collections.unmodifiableList(Arrays.asList(Arrays.copyOf(node.top, node.topSize)));
+        }
+    }
+
+    private static class LegacyNode {
+        Map<Character, LegacyNode> children = new HashMap<>();
+        boolean isEndOfWord = false;
+        List<Term> suggestions = new ArrayList<>();
+        Term[] top = new Term[0];
+        int topSize = 0;
+
+        void offer(Term term) {
+            int size = topSize;
+            if (size == LIMIT) {
+                if (term.getWeight() <= top[size - 1].getWeight()) {
+                    return;
+                }
+                size--;
+            } else if (size == top.length) {
+                top = Arrays.copyOf(top, Math.min(LIMIT, Math.max(1, size * 2)));
+            }
+            int pos = size;
+            while (pos > 0 && top[pos - 1].getWeight() < term.getWeight()) {
+                top[pos] = top[pos - 1];
+                pos--;
+            }
+            top[pos] = term;
+            topSize = size + 1;
+        }
+    }
+}
@@ -61,4 +61,343 @@ public class AutocompleteTest {
         List<Term> suggestions = engine.suggest("In");
         assertEquals(3, suggestions.size());
     }
+
+    @Test
+    public void testTopSuggestionsMatchFullSort() {
+        Autocomplete big = new Autocomplete();
+        big.setSuggestionLimit(5);
+        Random random = new Random(42);
+        List<Term> all = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            String title = "T" + (char) ('a' + random.nextInt(3)) + i;
+            Term t = new Term(title, random.nextInt(50));
+            all.add(t);
+            big.insert(t.getTerm(), t.getWeight());
+        }
+
+        for (String prefix : Arrays.asList("t", "ta", "tb1", "tc19")) {
+            List<String> expected = new ArrayList<>();
+            all.stream()
+                    .filter(t -> t.getTerm().toLowerCase().startsWith(prefix))
+                    .sorted(Term.byReverseWeightOrder())
+                    .limit(5)
+                    .forEach(t -> expected.add(t.getTerm()));
+            List<String> actual = new ArrayList<>();
+            for (Term t : big.suggest(prefix)) {
+                actual.add(t.getTerm());
+            }
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void testTiesKeepInsertionOrder() {
+        Autocomplete ties = new Autocomplete();
+        ties.insert("Alpha", 1);
+        ties.insert("Alps", 1);
+        ties.insert("Altitude", 1);
+
+        assertEquals("Alpha", ties.suggest("al").get(0).getTerm());
+        assertEquals("Altitude", ties.suggest("al").get(2).getTerm());
+    }
+
+    @Test
+    public void testUpdateWeightPromotesTerm() {
+        engine.setSuggestionLimit(3);
+        assertTrue(engine.updateWeight("Indiana Jones", 1000));
+
+        List<Term> suggestions = engine.suggest("In");
+        assertEquals("Indiana Jones", suggestions.get(0).getTerm());
+        assertEquals(1000, suggestions.get(0).getWeight());
+        assertEquals("Interstellar", suggestions.get(1).getTerm());
+        assertEquals(3, suggestions.size());
+    }
+
+    @Test
+    public void testUpdateWeightDemotesTerm() {
+        engine.setSuggestionLimit(3);
+        assertTrue(engine.updateWeight("Interstellar", 0));
+
+        List<String> titles = new ArrayList<>();
+        for (Term t : engine.suggest("In")) {
+            titles.add(t.getTerm());
+        }
+        assertEquals(Arrays.asList("Inception", "Into the Wild", "Inside Out"), titles);
+        assertEquals("Interstellar", engine.suggest("Inter").get(0).getTerm());
+    }
+
+    @Test
+    public void testUpdateWeightUnknownTitle() {
+        assertFalse(engine.updateWeight("Unknown", 10));
+        assertFalse(engine.updateWeight("Incep", 10));
+    }
+
+    @Test
+    public void testRaisingSuggestionLimitAfterLoad() {
+        engine.setSuggestionLimit(2);
+        assertEquals(2, engine.suggest("In").size());
+        engine.setSuggestionLimit(10);
+        assertEquals(5, engine.suggest("In").size());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testSuggestionsAreReadOnly() {
+        engine.suggest("In").clear();
+    }
+
+    @Test
+    public void testPrefixEndingInsideCompressedEdge() {
+        Autocomplete radix = new Autocomplete();
+        radix.insert("The Dark Knight", 10);
+        radix.insert("The Dark Knight Rises", 5);
+        radix.insert("The Darjeeling Limited", 1);
+
+        assertEquals(3, radix.suggest("the da").size());
+        assertEquals(2, radix.suggest("the dark kn").size());
+        assertEquals("The Darjeeling Limited", radix.suggest("the darj").get(0).getTerm());
+        assertTrue(radix.suggest("the dark q").isEmpty());
+        assertTrue(radix.suggest("the dark knight rises again").isEmpty());
+    }
+
+    @Test
+    public void testTitleThatIsPrefixOfAnother() {
+        Autocomplete radix = new Autocomplete();
+        radix.insert("Alien", 5);
+        radix.insert("Aliens", 8);
+        radix.insert("Alien", 1);  // a second movie with the same title
+
+        List<Term> suggestions = radix.suggest("alien");
+        assertEquals(3, suggestions.size());
+        assertEquals("Aliens", suggestions.get(0).getTerm());
+        assertEquals(1, suggestions.get(2).getWeight());
+        assertTrue(radix.updateWeight("Alien", 9));
+        assertEquals("Alien", radix.suggest("alien").get(0).getTerm());
+    }
+
+    @Test
+    public void testFuzzySubstitution() {
+        List<Term> suggestions = engine.suggestFuzzy("Inveption", 1);
+        assertEquals(1, suggestions.size());
+        assertEquals("Inception", suggestions.get(0).getTerm());
+    }
+
+    @Test
+    public void testFuzzyInsertionDeletionAndSwap() {
+        assertEquals("Interstellar", engine.suggestFuzzy("Intersteller", 1).get(0).getTerm());
+        assertEquals("Interstellar", engine.suggestFuzzy("Intrstellar", 1).get(0).getTerm());
+        assertEquals("Interstellar", engine.suggestFuzzy("Interrstellar", 1).get(0).getTerm());
+        assertEquals("Interstellar", engine.suggestFuzzy("Intersetllar", 1).get(0).getTerm());
+    }
+
+    @Test
+    public void testFuzzyRespectsEditBudget() {
+        assertTrue(engine.suggestFuzzy("Ibveption", 1).isEmpty());
+        assertEquals("Inception", engine.suggestFuzzy("Ibveption", 2).get(0).getTerm());
+    }
+
+    @Test
+    public void testFuzzyRanksCloserMatchesFirst() {
+        Autocomplete fuzzy = new Autocomplete();
+        fuzzy.insert("Alien", 1);
+        fuzzy.insert("Allen", 900);
+        fuzzy.insert("Aliens", 500);
+        fuzzy.insert("Alive", 800);  // two edits away
+
+        List<Term> suggestions = fuzzy.suggestFuzzy("Alien", 1);
+        assertEquals(3, suggestions.size());
+        assertEquals("Aliens", suggestions.get(0).getTerm());
+        assertEquals("Alien", suggestions.get(1).getTerm());   // exact, despite low weight
+        assertEquals("Allen", suggestions.get(2).getTerm());
+    }
+
+    @Test
+    public void testFuzzyMatchesPrefixes() {
+        List<Term> suggestions = engine.suggestFuzzy("Ibsi", 1);
+        assertEquals(1, suggestions.size());
+        assertEquals("Inside Out", suggestions.get(0).getTerm());
+    }
+
+    @Test
+    public void testFuzzyBudgetFollowsPrefixLength() {
+        assertTrue(engine.suggestFuzzy("Ix").isEmpty());
+        assertEquals("Inception", engine.suggestFuzzy("Incpe").get(0).getTerm());
+        assertEquals("Interstellar", engine.suggestFuzzy("Imtertsellar").get(0).getTerm());
+    }
+
+    @Test
+    public void testFuzzyRespectsSuggestionLimit() {
+        engine.setSuggestionLimit(2);
+        assertEquals(2, engine.suggestFuzzy("Inx", 1).size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFuzzyRejectsNegativeBudget() {
+        engine.suggestFuzzy("Inception", -1);
+    }
+
+    @Test
+    public void testWordInsideTitle() {
+        engine.insert("The Dark Knight", 900);
+        List<Term> suggestions = engine.suggest("knight");
+        assertEquals(1, suggestions.size());
+        assertEquals("The Dark Knight", suggestions.get(0).getTerm());
+        assertEquals("The Dark Knight", engine.suggest("Kni").get(0).getTerm());
+    }
+
+    @Test
+    public void testTitleStartMatchesComeFirst() {
+        Autocomplete words = new Autocomplete();
+        words.insert("The Dark Knight", 900);
+        words.insert("Dark City", 100);
+        words.insert("Darkman", 50);
+
+        List<Term> suggestions = words.suggest("dark");
+        assertEquals(3, suggestions.size());
+        assertEquals("Dark City", suggestions.get(0).getTerm());
+        assertEquals("Darkman", suggestions.get(1).getTerm());
+        assertEquals("The Dark Knight", suggestions.get(2).getTerm());
+    }
+
+    @Test
+    public void testMultiWordQueryIntersectsWords() {
+        Autocomplete words = new Autocomplete();
+        words.insert("The Dark Knight", 900);
+        words.insert("The Dark Knight Rises", 800);
+        words.insert("A Knight's Tale", 700);
+        words.insert("Dark Shadows", 600);
+
+        List<Term> suggestions = words.suggest("knight dark");
+        assertEquals(2, suggestions.size());
+        assertEquals("The Dark Knight", suggestions.get(0).getTerm());
+        assertEquals("The Dark Knight Rises", suggestions.get(1).getTerm());
+
+        suggestions = words.suggest("dark kni");
+        assertEquals(2, suggestions.size());
+        assertEquals("The Dark Knight", suggestions.get(0).getTerm());
+
+        assertTrue(words.suggest("dar knight").isEmpty());  // only the last word may be partial
+        assertTrue(words.suggest("shadows knight").isEmpty());
+    }
+
+    @Test
+    public void testRepeatedWordSuggestedOnce() {
+        Autocomplete words = new Autocomplete();
+        words.insert("Tora! Tora! Tora!", 10);
+        words.insert("Star Wars: Starfighter", 20);
+
+        assertEquals(1, words.suggest("tora").size());
+        assertEquals(1, words.suggest("star").size());
+        assertEquals(1, words.suggest("wars star").size());
+    }
+
+    @Test
+    public void testWordMatchesShareTerms() {
+        Autocomplete words = new Autocomplete();
+        words.insert("The Dark Knight", 900);
+        assertSame(words.suggest("the").get(0), words.suggest("knight").get(0));
+    }
+
+    @Test
+    public void testUpdateWeightReordersWordMatches() {
+        Autocomplete words = new Autocomplete();
+        words.insert("The Dark Knight", 900);
+        words.insert("A Knight's Tale", 700);
+        assertEquals("The Dark Knight", words.suggest("knight").get(0).getTerm());
+
+        assertTrue(words.updateWeight("A Knight's Tale", 1000));
+        assertEquals("A Knight's Tale", words.suggest("knight").get(0).getTerm());
+        assertEquals("A Knight's Tale", words.suggest("tale").get(0).getTerm());
+    }
+
+    @Test
+    public void testWordMatchesRespectSuggestionLimit() {
+        Autocomplete words = new Autocomplete();
+        for (int i = 0; i < 20; i++) {
+            words.insert("Movie Part " + i, i);
+        }
+        words.setSuggestionLimit(3);
+        List<Term> suggestions = words.suggest("part");
+        assertEquals(3, suggestions.size());
+        assertEquals("Movie Part 19", suggestions.get(0).getTerm());
+        assertEquals(3, words.suggest("part movie").size());
+    }
+
+    @Test
+    public void testUpdateWeightOfOneOfEqualTitles() {
+        Autocomplete remakes = new Autocomplete();
+        Term original = remakes.insert("Dune", 500);
+        Term remake = remakes.insert("Dune", 100);
+
+        assertTrue(remakes.updateWeight(remake, 900));
+        assertSame(remake, remakes.suggest("dune").get(0));
+        assertSame(original, remakes.suggest("dune").get(1));
+        assertEquals(500, original.getWeight());
+    }
+
+    @Test
+    public void testUpdateWeightOfForeignTermFails() {
+        assertFalse(engine.updateWeight(new Term("Inception", 1), 900));
+        assertEquals(500, engine.suggest("Inception").get(0).getWeight());
+    }
+
+    @Test
+    public void testSuggestIgnoresAccentsAndPunctuation() {
+        Autocomplete keys = new Autocomplete();
+        keys.insert("Spider-Man", 10);
+        keys.insert("Le Fabuleux Destin d'Amélie Poulain", 20);
+        keys.insert("Schindler's List", 30);
+
+        assertEquals("Spider-Man", keys.suggest("spider m").get(0).getTerm());
+        assertEquals("Spider-Man", keys.suggest("SPIDER–").get(0).getTerm());
+        assertEquals("Le Fabuleux Destin d'Amélie Poulain", keys.suggest("amelie").get(0).getTerm());
+        assertEquals("Schindler's List", keys.suggest("schindlers").get(0).getTerm());
+        assertTrue(keys.updateWeight("Spider-Man", 99));
+    }
+
+    @Test
+    public void testTrailingSpaceEndsWord() {
+        Autocomplete keys = new Autocomplete();
+        keys.insert("Darkman", 50);
+        keys.insert("Dark City", 10);
+        assertEquals(2, keys.suggest("dark").size());
+        List<Term> suggestions = keys.suggest("dark ");
+        assertEquals(1, suggestions.size());
+        assertEquals("Dark City", suggestions.get(0).getTerm());
+    }
+
+    @Test
+    public void testCopyIsIndependent() {
+        Autocomplete copy = engine.copy();
+        copy.insert("Inferno", 900);
+        Term inception = null;
+        for (Term t : copy.suggest("Inception")) {
+            inception = t;
+        }
+        assertTrue(copy.updateWeight(inception, 1000));
+
+        assertEquals("Inception", copy.suggest("In").get(0).getTerm());
+        assertEquals("Inferno", copy.suggest("In").get(1).getTerm());
+        assertEquals("Interstellar", engine.suggest("In").get(0).getTerm());
+        assertEquals(500, engine.suggest("Inception").get(0).getWeight());
+        assertTrue(engine.suggest("Inferno").isEmpty());
+        assertEquals("Into the Wild", copy.suggest("wild").get(0).getTerm());
+    }
+
+    @Test
+    public void testWithWeightLeavesOriginalUntouched() {
+        Term wild = engine.suggest("Into the Wild").get(0);
+        Autocomplete raised = engine.withWeight(wild, 1000);
+
+        assertEquals("Into the Wild", raised.suggest("In").get(0).getTerm());
+        assertEquals("Into the Wild", raised.suggest("wild").get(0).getTerm());
+        assertEquals(1000, raised.suggest("the").get(0).getWeight());
+        assertEquals("Interstellar", engine.suggest("In").get(0).getTerm());
+        assertEquals(450, wild.getWeight());
+
+        // The old handle still finds the term in the derived trie
+        Autocomplete lowered = raised.withWeight(wild, 0);
+        assertEquals("Into the Wild", lowered.suggest("In").get(4).getTerm());
+        assertEquals("Into the Wild", raised.suggest("In").get(0).getTerm());
+        assertNull(engine.withWeight(new Term("Into the Wild", 1), 10));
+    }
 }
@@ -0,0 +1,120 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class CatalogueStoreTest {
+
+    private Path base;
+    private Path deltas;
+    private CatalogueStore store;
+
+    @Before
+    public void setUp() throws IOException {
+        base = Files.createTempFile("movies", ".bin");
+        deltas = Files.createTempFile("movies", ".delta");
+        Files.delete(deltas);
+        store = new CatalogueStore(base, deltas);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(base);
+        Files.deleteIfExists(deltas);
+    }
+
+    private static Movie movie(long id, String title, double popularity) {
+        return new Movie(id, title, 2000, popularity, 10,
+                Set.of("Drama"), Set.of("Actor " + id), Set.of("Director " + id),
+                Set.of(), Set.of(), Set.of());
+    }
+
+    private static List<String> titles(List<Movie> movies) {
+        List<String> titles = new ArrayList<>();
+        for (Movie movie : movies) {
+            titles.add(movie.getTitle() + "@" + movie.getPopularity());
+        }
+        return titles;
+    }
+
+    @Test
+    public void testDeltasReplaceByIdAndAppendNewMovies() throws IOException {
+        store.compact(List.of(movie(1, "A", 1), movie(2, "B", 2), movie(3, "C", 3)));
+        store.appendDelta(List.of(movie(2, "B", 20), movie(4, "D", 4)));
+        store.appendDelta(List.of(movie(4, "D", 40)));
+
+        List<Movie> loaded = new CatalogueStore(base, deltas).load();
+
+        assertEquals(List.of("A@1.0", "B@20.0", "C@3.0", "D@40.0"), titles(loaded));
+        assertEquals(Set.of("Actor 2"), loaded.get(1).getActors());
+    }
+
+    @Test
+    public void testEmptyDeltaWritesNothing() throws IOException {
+        store.compact(List.of(movie(1, "A", 1)));
+        store.appendDelta(List.of());
+
+        assertFalse(Files.exists(deltas));
+        assertEquals(0, store.getSegmentCount());
+    }
+
+    @Test
+    public void testTornSegmentIsTruncated() throws IOException {
+        store.compact(List.of(movie(1, "A", 1)));
+        store.appendDelta(List.of(movie(1, "A", 10)));
+        long intact = Files.size(deltas);
+        store.appendDelta(List.of(movie(2, "B", 2)));
+        try (RandomAccessFile file = new RandomAccessFile(deltas.toFile(), "rw")) {
+            file.setLength(Files.size(deltas) - 5);
+        }
+
+        CatalogueStore reopened = new CatalogueStore(base, deltas);
+        assertEquals(List.of("A@10.0"), titles(reopened.load()));
+        assertEquals(intact, Files.size(deltas));
+        assertEquals(1, reopened.getSegmentCount());
+
+        // Appending after the truncation is readable again
+        reopened.appendDelta(List.of(movie(3, "C", 3)));
+        assertEquals(List.of("A@10.0", "C@3.0"), titles(new CatalogueStore(base, deltas).load()));
+    }
+
+    @Test
+    public void testCompactionFoldsDeltasIntoBase() throws Exception {
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 1; i <= 50; i++) {
+            movies.add(movie(i, "Movie " + i, i));
+        }
+        store.compact(movies);
+        assertFalse(store.needsCompaction());
+
+        for (int i = 1; i <= 9; i++) {
+            store.appendDelta(List.of(movie(i, "Movie " + i, i * 100)));
+        }
+        assertTrue(store.needsCompaction());
+
+        List<Movie> merged = store.load();
+        store.compactInBackground(merged).get();
+
+        assertFalse(Files.exists(deltas));
+        assertEquals(0, store.getSegmentCount());
+        assertEquals(titles(merged), titles(new CatalogueStore(base, deltas).load()));
+    }
+
+    @Test
+    public void testMarkSyncedTouchesStore() throws IOException {
+        store.compact(List.of(movie(1, "A", 1)));
+        Files.setLastModifiedTime(base, java.nio.file.attribute.FileTime.fromMillis(0));
+
+        store.markSynced();
+
+        assertTrue(System.currentTimeMillis() - store.lastModified() < 60_000);
+        assertEquals(List.of("A@1.0"), titles(store.load()));
+    }
+}
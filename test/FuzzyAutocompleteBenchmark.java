@@ -0,0 +1,92 @@
+import java.util.*;
+
+/**
+ * Measures per-keystroke latency of typo-tolerant suggestions on a large trie.
+ *
+ * Each query is a random title with one or two typos (substitution, insertion,
+ * deletion or swapped neighbours) typed a character at a time; every prefix is
+ * looked up with {@link Autocomplete#suggestFuzzy(String)}, as the game does while
+ * the player types. Also reports how often the intended title made the final list.
+ *
+ * java FuzzyAutocompleteBenchmark [titles] [queries]
+ */
+public class FuzzyAutocompleteBenchmark {
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+
+        List<Term> terms = AutocompleteBenchmark.titles(n, new Random(n));
+        Autocomplete engine = new Autocomplete();
+        engine.loadTerms(terms);
+
+        Random random = new Random(7);
+        String[] intended = new String[queries];
+        String[] typed = new String[queries];
+        for (int i = 0; i < queries; i++) {
+            String title = terms.get(random.nextInt(terms.size())).getTerm();
+            intended[i] = title;
+            typed[i] = misspell(title, 1 + random.nextInt(2), random);
+        }
+
+        for (int warmup = 0; warmup < 3; warmup++) {
+            typeAll(engine, typed, null);
+        }
+        List<Long> samples = new ArrayList<>();
+        typeAll(engine, typed, samples);
+
+        int found = 0;
+        for (int i = 0; i < queries; i++) {
+            for (Term t : engine.suggestFuzzy(typed[i])) {
+                if (t.getTerm().equals(intended[i])) {
+                    found++;
+                    break;
+                }
+            }
+        }
+
+        Collections.sort(samples);
+        double mean = samples.stream().mapToLong(Long::longValue).average().orElse(0);
+        System.out.printf("%d titles, %d keystrokes: mean %.3f ms, p50 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                n, samples.size(), mean / 1e6, percentile(samples, 50) / 1e6,
+                percentile(samples, 99) / 1e6, samples.getLast() / 1e6);
+        System.out.printf("intended title suggested for %d of %d misspelled queries%n", found, queries);
+    }
+
+    private static void typeAll(Autocomplete engine, String[] typed, List<Long> samples) {
+        for (String query : typed) {
+            for (int length = 1; length <= query.length(); length++) {
+                long start = System.nanoTime();
+                engine.suggestFuzzy(query.substring(0, length));
+                if (samples != null) {
+                    samples.add(System.nanoTime() - start);
+                }
+            }
+        }
+    }
+
+    private static long percentile(List<Long> sorted, int p) {
+        return sorted.get(Math.min(sorted.size() - 1, sorted.size() * p / 100));
+    }
+
+    private static String misspell(String title, int edits, Random random) {
+        StringBuilder s = new StringBuilder(title);
+        for (int e = 0; e < edits && s.length() > 2; e++) {
+            // Leave the first character alone; players rarely get it wrong
+            int at = 1 + random.nextInt(s.length() - 1);
+            char c = (char) ('a' + random.nextInt(26));
+            switch (random.nextInt(4)) {
+                case 0 -> s.setCharAt(at, c);
+                case 1 -> s.insert(at, c);
+                case 2 -> s.deleteCharAt(at);
+                default -> {
+                    if (at + 1 < s.length()) {
+                        char next = s.charAt(at + 1);
+                        s.setCharAt(at + 1, s.charAt(at));
+                        s.setCharAt(at, next);
+                    }
+                }
+            }
+        }
+        return s.toString();
+    }
+}
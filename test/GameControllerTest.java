@@ -1,7 +1,11 @@
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
 
 import static org.junit.Assert.*;
 
@@ -10,7 +14,7 @@ public class GameControllerTest {
     private FakeMovieDatabase db;
 
     @Before
-    public void setUp() {
+    public void setUp() throws IOException {
         db = new FakeMovieDatabase();
         controller = new GameController(db);
 
@@ -36,6 +40,7 @@ public class GameControllerTest {
         // Assert
         assertTrue(result.isSuccess());
         assertTrue(result.getMessage().contains("Nice! The Godfather and Heat connected via"));
+        assertEquals(1, db.getPlayCount(heat));
     }
 
 
@@ -143,12 +148,103 @@ public class GameControllerTest {
 
 
 
+    @Test(timeout = 5000)
+    public void testProcessTurnAsync_ValidConnection_Succeeds() throws Exception {
+        Movie godfather = db.findByTitle("The Godfather");
+        Movie heat = new Movie(2L, "Heat", 1995,
+            Set.of(), Set.of("Al Pacino"), Set.of(), Set.of(), Set.of(), Set.of());
+        db.addFakeMovie(heat);
+        controller.setGameState(new GameState(new Player("Alice"), new Player("Bob"),
+            new TwoHorrorMoviesWin(), godfather));
+
+        TurnResult result = controller.processTurnAsync("Heat").get();
+
+        assertTrue(result.isSuccess());
+        assertFalse(result.isLate());
+        assertEquals("Bob", controller.getGameState().getCurrentPlayer().getName());
+    }
+
+    @Test(timeout = 5000)
+    public void testProcessTurnAsync_DoesNotBlockOnLookup() throws Exception {
+        Movie godfather = db.findByTitle("The Godfather");
+        controller.setGameState(new GameState(new Player("Alice"), new Player("Bob"),
+            new TwoHorrorMoviesWin(), godfather));
+        db.lookupGate = new CountDownLatch(1);
+
+        CompletableFuture<TurnResult> pending = controller.processTurnAsync("Heat");
+        assertFalse(pending.isDone());
+
+        db.addFakeMovie(new Movie(2L, "Heat", 1995,
+            Set.of(), Set.of("Al Pacino"), Set.of(), Set.of(), Set.of(), Set.of()));
+        db.lookupGate.countDown();
+        assertTrue(pending.get().isSuccess());
+    }
+
+    @Test(timeout = 5000)
+    public void testProcessTurnAsync_LateResultIsDropped() throws Exception {
+        Movie godfather = db.findByTitle("The Godfather");
+        db.addFakeMovie(new Movie(2L, "Heat", 1995,
+            Set.of(), Set.of("Al Pacino"), Set.of(), Set.of(), Set.of(), Set.of()));
+        controller.setGameState(new GameState(new Player("Alice"), new Player("Bob"),
+            new TwoHorrorMoviesWin(), godfather));
+        db.lookupGate = new CountDownLatch(1);
+
+        CompletableFuture<TurnResult> pending = controller.processTurnAsync("Heat");
+        controller.expireTurn();
+        db.lookupGate.countDown();
+        TurnResult result = pending.get();
+
+        assertTrue(result.isLate());
+        assertFalse(result.isSuccess());
+        assertEquals("Alice", controller.getGameState().getCurrentPlayer().getName());
+        assertEquals(1, controller.getGameState().getRecentHistory().size());
+    }
+
+    @Test(timeout = 30000)
+    public void testConcurrentGamesPlayingSameTitleKeepTheirOwnHistory() throws Exception {
+        MovieDatabase shared = new MovieDatabase(StubTmdbServer.offlineClient(), StubTmdbServer.tempStore());
+        Movie godfather = new Movie(1L, "The Godfather", 1972,
+            Set.of(), Set.of("Al Pacino"), Set.of(), Set.of(), Set.of(), Set.of());
+        Movie heat = new Movie(2L, "Heat", 1995,
+            Set.of(), Set.of("Al Pacino", "Robert De Niro"), Set.of(), Set.of(), Set.of(), Set.of());
+        shared.addMovies(List.of(godfather, heat));
+        int rounds = 500;
+
+        List<CompletableFuture<Void>> games = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        for (int g = 0; g < 2; g++) {
+            games.add(CompletableFuture.runAsync(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    throw new CompletionException(e);
+                }
+                for (int round = 0; round < rounds; round++) {
+                    GameController game = new GameController(shared);
+                    GameState state = new GameState(new Player("Alice"), new Player("Bob"),
+                            new TwoHorrorMoviesWin(), godfather);
+                    game.setGameState(state);
+
+                    assertTrue(game.processTurn("Heat").isSuccess());
+                    assertEquals(List.of(List.of(new Connection("Al Pacino", ConnectionType.ACTOR))),
+                            state.getConnectionHistory(shared.findByTitle("Heat")));
+                }
+            }));
+        }
+        start.countDown();
+        for (CompletableFuture<Void> game : games) {
+            game.get();
+        }
+
+        assertEquals(2 * rounds, shared.getPlayCount(heat));
+    }
+
     class FakeMovieDatabase extends MovieDatabase {
         private final Map<String, Movie> movies = new HashMap<>();
         private final Autocomplete autocompleteEngine;
 
-        public FakeMovieDatabase() {
-            super("fake-api-key");
+        public FakeMovieDatabase() throws IOException {
+            super(StubTmdbServer.offlineClient(), StubTmdbServer.tempStore());
             this.autocompleteEngine = new Autocomplete();
         }
 
@@ -157,8 +253,19 @@ public class GameControllerTest {
             autocompleteEngine.insert(movie.getTitle(), 1L); // 插入到 Autocomplete Trie
         }
 
+        // When set, title lookups wait for it, like a slow TMDB request
+        volatile CountDownLatch lookupGate;
+
         @Override
         public Movie findByTitle(String title) {
+            CountDownLatch gate = lookupGate;
+            if (gate != null) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
             return movies.get(title);
         }
 
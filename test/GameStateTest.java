@@ -127,6 +127,20 @@ public class GameStateTest {
         assertEquals(heat, gameState.getCurrentMovie());
     }
 
+    @Test
+    public void testConnectionHistoryIsPerGame() {
+        Movie heat = new Movie(2L, "Heat", 1995,
+            Set.of(), Set.of("Al Pacino"), Set.of(), Set.of(), Set.of(), Set.of());
+        List<Connection> connectionList = List.of(new Connection("Al Pacino", ConnectionType.ACTOR));
+        GameState otherGame = new GameState(new Player("Carol"), new Player("Dave"), winCondition, startingMovie);
+
+        gameState.addConnectionHistory(heat, connectionList);
+
+        assertEquals(List.of(connectionList), gameState.getConnectionHistory(heat));
+        assertTrue(gameState.getConnectionHistory(startingMovie).isEmpty());
+        assertTrue(otherGame.getConnectionHistory(heat).isEmpty());
+    }
+
     @Test
     public void testHasCurrentPlayerWon_False() {
         assertFalse(gameState.hasCurrentPlayerWon());
@@ -0,0 +1,83 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.input.KeyStroke;
+import com.googlecode.lanterna.input.KeyType;
+import com.googlecode.lanterna.terminal.Terminal;
+import com.googlecode.lanterna.terminal.virtual.DefaultVirtualTerminal;
+import com.googlecode.lanterna.terminal.virtual.VirtualTerminalListener;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how much CPU the game view uses while waiting for input, and how long a
+ * keypress takes to reach the screen. The view runs on a virtual terminal at the
+ * player-name prompt; each key is timed from being fed to the terminal until the
+ * screen is next flushed. The catalogue is read from movie_cache.json into memory
+ * and TMDB is never contacted, so runs are repeatable offline.
+ *
+ * Usage: java GameViewBenchmark [keys] [idle seconds] [movie_cache.json]
+ */
+public class GameViewBenchmark {
+    public static void main(String[] args) throws Exception {
+        int keys = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int idleSeconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        File catalogue = new File(args.length > 2 ? args[2] : "movie_cache.json");
+
+        DefaultVirtualTerminal terminal = new DefaultVirtualTerminal(new TerminalSize(100, 30));
+        Semaphore flushes = new Semaphore(0);
+        terminal.addVirtualTerminalListener(new VirtualTerminalListener() {
+            public void onFlush() {
+                flushes.release();
+            }
+
+            public void onBell() {
+            }
+
+            public void onClose() {
+            }
+
+            public void onResized(Terminal terminal, TerminalSize size) {
+            }
+        });
+
+        MovieDatabase db = new MovieDatabase(StubTmdbServer.offlineClient(), StubTmdbServer.tempStore());
+        db.addMovies(Arrays.asList(new ObjectMapper().readValue(catalogue, Movie[].class)));
+        GameView view = new GameView(new GameController(db), terminal);
+        Thread game = new Thread(() -> {
+            try {
+                view.run();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        });
+        game.start();
+        flushes.acquire();  // the first frame
+
+        com.sun.management.OperatingSystemMXBean os =
+                (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        long cpuBefore = os.getProcessCpuTime();
+        Thread.sleep(TimeUnit.SECONDS.toMillis(idleSeconds));
+        long idleCpuNs = os.getProcessCpuTime() - cpuBefore;
+
+        long[] latencies = new long[keys];
+        for (int i = 0; i < keys; i++) {
+            flushes.drainPermits();
+            long start = System.nanoTime();
+            terminal.addInput(new KeyStroke((char) ('a' + i % 26), false, false));
+            flushes.acquire();
+            latencies[i] = System.nanoTime() - start;
+            Thread.sleep(2);  // let the view go back to waiting, as between real keystrokes
+        }
+        terminal.addInput(new KeyStroke(KeyType.Escape));
+        game.join();
+
+        Arrays.sort(latencies);
+        System.out.printf("idle CPU %.2f ms/s | keypress to render: median %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                idleCpuNs / 1e6 / idleSeconds, latencies[keys / 2] / 1e6,
+                latencies[keys * 99 / 100] / 1e6, latencies[keys - 1] / 1e6);
+    }
+}
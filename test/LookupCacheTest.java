@@ -0,0 +1,125 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class LookupCacheTest {
+
+    private long now;
+    private AtomicInteger loads;
+    private LookupCache<String, String> cache;
+
+    @Before
+    public void setUp() {
+        now = 0;
+        loads = new AtomicInteger();
+        cache = new LookupCache<>(3, value -> 1, Duration.ofMinutes(10), Duration.ofMinutes(1),
+                () -> now);
+    }
+
+    private String load(String key) {
+        loads.incrementAndGet();
+        return key.startsWith("missing") ? null : key.toUpperCase();
+    }
+
+    @Test
+    public void testRepeatedLookupLoadsOnce() {
+        assertEquals("HEAT", cache.get("heat", this::load));
+        assertEquals("HEAT", cache.get("heat", this::load));
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testNotFoundIsCached() {
+        assertNull(cache.get("missing title", this::load));
+        assertNull(cache.get("missing title", this::load));
+        assertEquals(1, loads.get());
+        assertTrue(cache.contains("missing title"));
+    }
+
+    @Test
+    public void testEntriesExpire() {
+        cache.get("heat", this::load);
+        now += Duration.ofMinutes(10).toNanos() - 1;
+        cache.get("heat", this::load);
+        assertEquals(1, loads.get());
+
+        now += 1;
+        assertFalse(cache.contains("heat"));
+        cache.get("heat", this::load);
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.getExpirationCount());
+    }
+
+    @Test
+    public void testNotFoundExpiresSooner() {
+        cache.get("missing title", this::load);
+        cache.get("heat", this::load);
+        now += Duration.ofMinutes(1).toNanos();
+
+        assertFalse(cache.contains("missing title"));
+        assertTrue(cache.contains("heat"));
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        cache.get("a", this::load);
+        cache.get("b", this::load);
+        cache.get("c", this::load);
+        cache.get("a", this::load);  // b is now the coldest
+        cache.get("d", this::load);
+
+        assertEquals(3, cache.size());
+        assertTrue(cache.contains("a"));
+        assertFalse(cache.contains("b"));
+        assertTrue(cache.contains("d"));
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testWeightBound() {
+        LookupCache<String, List<Integer>> lists = new LookupCache<>(5, List::size,
+                Duration.ofMinutes(10), Duration.ofMinutes(1), () -> now);
+        lists.put("three", List.of(1, 2, 3));
+        lists.put("two", List.of(1, 2));
+        assertEquals(2, lists.size());
+
+        lists.put("one", List.of(1));
+        assertFalse(lists.contains("three"));
+        assertTrue(lists.contains("two"));
+        assertTrue(lists.contains("one"));
+
+        lists.put("six", List.of(1, 2, 3, 4, 5, 6));  // heavier than the whole cache
+        assertEquals(0, lists.size());
+    }
+
+    @Test
+    public void testReplacingEntryKeepsWeight() {
+        cache.put("a", "1");
+        cache.put("a", "2");
+        cache.put("b", "3");
+        cache.put("c", "4");
+        assertEquals(3, cache.size());
+        assertEquals(0, cache.getEvictionCount());
+        assertEquals("2", cache.get("a", this::load));
+    }
+
+    @Test
+    public void testInvalidate() {
+        cache.get("heat", this::load);
+        cache.invalidate("heat");
+        cache.get("heat", this::load);
+        assertEquals(2, loads.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsZeroCapacity() {
+        new LookupCache<String, String>(0, Duration.ofMinutes(1), Duration.ofMinutes(1));
+    }
+}
@@ -0,0 +1,496 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class MovieDatabaseTest {
+
+    private MovieDatabase db;
+    private Movie darkKnight;
+    private Movie darkCity;
+    private Movie darkman;
+
+    @Before
+    public void setUp() throws IOException {
+        db = new MovieDatabase(StubTmdbServer.offlineClient(), StubTmdbServer.tempStore());
+        darkKnight = new Movie(155L, "The Dark Knight", 2008, 120.0, 33000,
+                Set.of(), Set.of("Christian Bale"), Set.of("Christopher Nolan"),
+                Set.of(), Set.of(), Set.of());
+        darkCity = new Movie(2666L, "Dark City", 1998, 15.0, 3000,
+                Set.of(), Set.of("Rufus Sewell"), Set.of("Alex Proyas"),
+                Set.of(), Set.of(), Set.of());
+        darkman = new Movie(9556L, "Darkman", 1990, 12.0, 1200,
+                Set.of(), Set.of("Liam Neeson"), Set.of("Sam Raimi"),
+                Set.of(), Set.of(), Set.of());
+        db.addMovies(Arrays.asList(darkman, darkCity, darkKnight));
+    }
+
+    private List<String> suggestions(String prefix) {
+        List<String> titles = new ArrayList<>();
+        for (Term term : db.getAutocompleteEngine().suggest(prefix)) {
+            titles.add(term.getTerm());
+        }
+        return titles;
+    }
+
+    @Test
+    public void testTitleWeightCombinesPopularityVotesAndPlays() {
+        assertEquals(12_000 + 33_000, MovieDatabase.titleWeight(darkKnight, 0));
+        assertTrue(MovieDatabase.titleWeight(darkKnight, 1) > MovieDatabase.titleWeight(darkKnight, 0));
+        assertEquals(0, MovieDatabase.titleWeight(new Movie(), 0));
+    }
+
+    @Test
+    public void testSuggestionsRankedByPopularity() {
+        assertEquals(Arrays.asList("Dark City", "Darkman", "The Dark Knight"), suggestions("dark"));
+        assertEquals(Arrays.asList("The Dark Knight"), suggestions("the d"));
+    }
+
+    @Test
+    public void testBundledCatalogueIsRankedOutOfTheBox() throws IOException {
+        Path dir = Files.createTempDirectory("catalogue");
+        Path base = dir.resolve("movie_cache.bin");
+        Path deltas = dir.resolve("movie_cache.delta");
+        try {
+            MovieDatabase bundled = new MovieDatabase(StubTmdbServer.offlineClient(),
+                    new CatalogueStore(base, deltas));
+            bundled.preloadPopularMovies();
+
+            List<Movie> movies = bundled.getTitleIndex().movies();
+            assertFalse(movies.isEmpty());
+            for (Movie movie : movies) {
+                assertTrue(movie.getTitle(), MovieDatabase.titleWeight(movie, 0) > 0);
+            }
+            // The file lists TMDB's popular movies best first
+            assertTrue(MovieDatabase.titleWeight(movies.get(0), 0)
+                    > MovieDatabase.titleWeight(movies.get(movies.size() - 1), 0));
+            assertEquals(movies.get(0).getTitle(),
+                    bundled.suggestTitles(movies.get(0).getTitle()).get(0).getTerm());
+        } finally {
+            Files.deleteIfExists(base);
+            Files.deleteIfExists(deltas);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    @Test
+    public void testPlaysRaiseRankingImmediately() {
+        assertEquals("Dark City", suggestions("dar").get(0));
+
+        db.recordPlay(darkman);
+        db.recordPlay(darkman);
+
+        assertEquals(2, db.getPlayCount(darkman));
+        assertEquals("Darkman", suggestions("dar").get(0));
+        assertEquals(0, db.getPlayCount(darkCity));
+    }
+
+    @Test
+    public void testAddingMovieTwiceKeepsOneSuggestion() {
+        db.addMovies(List.of(darkman));
+        assertEquals(1, Collections.frequency(suggestions("darkman"), "Darkman"));
+    }
+
+    @Test
+    public void testConnectionsComeFromTheGraph() {
+        Movie batman = new Movie(272L, "Batman Begins", 2005, 60.0, 20000,
+                Set.of(), Set.of("Christian Bale", "Liam Neeson"), Set.of("Christopher Nolan"),
+                Set.of(), Set.of(), Set.of());
+        db.addMovies(List.of(batman));
+
+        assertEquals(List.of(darkman, darkKnight), db.getMovieGraph().neighbours(batman));
+        assertEquals(batman.findConnections(darkKnight), db.findConnections(batman, darkKnight));
+        assertEquals(2, db.findConnections(darkKnight, batman).size());
+        assertTrue(db.findConnections(darkCity, batman).isEmpty());
+    }
+
+    @Test
+    public void testConnectionsOutsideTheCatalogueAreCompared() {
+        Movie taken = new Movie(8681L, "Taken", 2008, 50.0, 10000,
+                Set.of(), Set.of("Liam Neeson"), Set.of("Pierre Morel"),
+                Set.of(), Set.of(), Set.of());
+
+        assertEquals(List.of(new Connection("Liam Neeson", ConnectionType.ACTOR)),
+                db.findConnections(darkman, taken));
+    }
+
+    @Test
+    public void testRepeatedTmdbLookupsHitCache() throws Exception {
+        try (StubTmdbServer server = new StubTmdbServer(1, 5, 0)) {
+            MovieDatabase remote = new MovieDatabase(server.newClient(4, Duration.ofSeconds(5)),
+                    StubTmdbServer.tempStore());
+
+            Movie first = remote.findByTitle("Movie 103");
+            int requests = server.getRequestCount();
+            assertEquals(103L, first.getMovieId());
+            assertSame(first, remote.findByTitle("Movie 103"));
+            assertNull(remote.findByTitle("No Such Movie"));
+            assertNull(remote.findByTitle("No Such Movie"));
+
+            assertEquals(requests + 1, server.getRequestCount());
+            assertEquals(2, remote.getTitleCache().getHitCount());
+            assertEquals(2, remote.getTitleCache().getMissCount());
+            assertTrue(remote.getLookupIndex().contains(first));
+            assertFalse(remote.getPersonIndex().contains(first));
+        }
+    }
+
+    @Test
+    public void testFailedLookupsAreNotCachedAsNotFound() throws Exception {
+        try (StubTmdbServer server = new StubTmdbServer(1, 5, 0)) {
+            MovieDatabase remote = new MovieDatabase(server.newClient(4, Duration.ofSeconds(5)),
+                    StubTmdbServer.tempStore());
+            Movie reference = new Movie(999L, "Reference", 2000,
+                    Set.of(), Set.of(), Set.of(), Set.of(), Set.of(), Set.of());
+            for (long id = 100; id < 105; id++) {
+                server.failMovie(id);
+            }
+
+            assertNull(remote.findByTitle("Movie 103"));
+            assertTrue(remote.getMoviesByActor("Anyone").isEmpty());
+            assertTrue(remote.getSimilarMovies(reference).isEmpty());
+            assertFalse(remote.getTitleCache().contains(TitleIndex.key("Movie 103")));
+
+            for (long id = 100; id < 105; id++) {
+                server.recoverMovie(id);
+            }
+            assertEquals(103L, remote.findByTitle("Movie 103").getMovieId());
+            assertEquals(5, remote.getMoviesByActor("Anyone").size());
+            assertEquals(5, remote.getSimilarMovies(reference).size());
+        }
+    }
+
+    @Test
+    public void testLookupsConnectToCatalogueAndEachOther() throws IOException {
+        Movie taken = new Movie(8681L, "Taken", 2008, 50.0, 10000,
+                Set.of(), Set.of("Liam Neeson"), Set.of("Pierre Morel"),
+                Set.of(), Set.of(), Set.of());
+        Movie taken2 = new Movie(82675L, "Taken 2", 2012, 30.0, 6000,
+                Set.of(), Set.of("Liam Neeson"), Set.of("Olivier Megaton"),
+                Set.of(), Set.of(), Set.of());
+        MovieDatabase lookups = new MovieDatabase(new TMDBClient("http://127.0.0.1:1/3", "fake-api-key",
+                HttpClient.newHttpClient(), 1, Duration.ofSeconds(1),
+                new AdaptiveRateLimiter(100, 1, 0, Duration.ofMillis(1)), null) {
+            @Override
+            Movie requestMovieByTitle(String title) {
+                return title.equals("Taken") ? taken : taken2;
+            }
+        }, StubTmdbServer.tempStore());
+        lookups.addMovies(Arrays.asList(darkman, darkCity));
+        PersonIndex catalogue = lookups.getPersonIndex();
+
+        assertSame(taken, lookups.findByTitle("Taken"));
+        assertSame(taken2, lookups.findByTitle("Taken 2"));
+
+        assertSame(catalogue, lookups.getPersonIndex());
+        assertEquals(List.of(darkman, taken2), lookups.getConnectedMovies(taken));
+        assertEquals(List.of(taken, taken2), lookups.getConnectedMovies(darkman));
+        assertEquals(List.of(), lookups.getConnectedMovies(darkCity));
+    }
+
+    @Test
+    public void testActorAndSimilarListsAreCached() throws Exception {
+        try (StubTmdbServer server = new StubTmdbServer(1, 3, 0)) {
+            MovieDatabase remote = new MovieDatabase(server.newClient(4, Duration.ofSeconds(5)),
+                    StubTmdbServer.tempStore());
+
+            assertEquals(3, remote.getMoviesByActor("Actor 1").size());
+            assertEquals(3, remote.getSimilarMovies(darkKnight).size());
+            int requests = server.getRequestCount();
+            assertEquals(3, remote.getMoviesByActor("Actor 1").size());
+            assertEquals(3, remote.getSimilarMovies(darkKnight).size());
+
+            assertEquals(requests, server.getRequestCount());
+            assertEquals(1, remote.getActorCache().getHitCount());
+            assertEquals(1, remote.getSimilarCache().getHitCount());
+        }
+    }
+
+    @Test
+    public void testCatalogueTitlesResolveWithoutTmdb() throws Exception {
+        try (StubTmdbServer server = new StubTmdbServer(1, 5, 0)) {
+            MovieDatabase remote = new MovieDatabase(server.newClient(4, Duration.ofSeconds(5)),
+                    StubTmdbServer.tempStore());
+            remote.addMovies(Arrays.asList(darkKnight, darkCity));
+
+            assertSame(darkKnight, remote.findByTitle("the dark knight"));
+            assertSame(darkKnight, remote.findByTitle("THE DARK KNIGHT "));
+            assertSame(darkCity, remote.findByTitle("dark-city"));
+            assertEquals(0, server.getRequestCount());
+        }
+    }
+
+    @Test
+    public void testNormalizedTitlesShareTmdbLookup() throws Exception {
+        try (StubTmdbServer server = new StubTmdbServer(1, 5, 0)) {
+            MovieDatabase remote = new MovieDatabase(server.newClient(4, Duration.ofSeconds(5)),
+                    StubTmdbServer.tempStore());
+
+            Movie movie = remote.findByTitle("Movie 101");
+            int requests = server.getRequestCount();
+            assertSame(movie, remote.findByTitle("movie  101"));
+            assertEquals(requests, server.getRequestCount());
+        }
+    }
+
+    @Test
+    public void testEqualTitlesSuggestedWithYear() {
+        Movie remake = new Movie(31L, "Darkman", 2030, 1.0, 10,
+                Set.of(), Set.of(), Set.of(), Set.of(), Set.of(), Set.of());
+        db.addMovies(List.of(remake));
+
+        assertTrue(suggestions("darkman").contains("Darkman (2030)"));
+        assertSame(remake, db.findByTitle("Darkman (2030)"));
+        assertSame(darkman, db.findByTitle("Darkman"));
+    }
+
+    @Test(timeout = 10000)
+    public void testConcurrentTitleLookupsReachTmdbOnce() throws Exception {
+        try (StubTmdbServer server = new StubTmdbServer(1, 5, 200)) {
+            MovieDatabase remote = new MovieDatabase(server.newClient(4, Duration.ofSeconds(5)),
+                    StubTmdbServer.tempStore());
+            int callers = 8;
+            CountDownLatch start = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(callers);
+            try {
+                List<Future<Movie>> results = new ArrayList<>();
+                for (int i = 0; i < callers; i++) {
+                    String typed = i % 2 == 0 ? "Movie 102" : "movie 102 ";
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        return remote.findByTitle(typed);
+                    }));
+                }
+                start.countDown();
+                for (Future<Movie> result : results) {
+                    assertEquals(102L, result.get().getMovieId());
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            // One search and one details request, however many callers asked
+            assertEquals(2, server.getRequestCount());
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testSyncFetchesDetailsOnlyForChurn() throws Exception {
+        Path base = Files.createTempFile("movies", ".bin");
+        Path deltas = base.resolveSibling(base.getFileName() + ".delta");
+        try (StubTmdbServer server = new StubTmdbServer(2, 5, 0)) {
+            TMDBClient client = server.newClient(4, Duration.ofSeconds(5));
+            CatalogueStore store = new CatalogueStore(base, deltas);
+            store.compact(client.fetchPopularMovies(2));
+            MovieDatabase synced = new MovieDatabase(client, store);
+
+            // Page 3 is new and one known movie became more popular
+            server.setPages(3);
+            server.setPopularity(201, 5000.0);
+            int before = server.getRequestCount();
+            List<Movie> movies = synced.syncPopularMovies(store.load());
+
+            // The 25 list pages and one details request per new movie
+            assertEquals(25 + 5, server.getRequestCount() - before);
+            assertEquals(15, movies.size());
+            assertEquals(201L, movies.get(6).getMovieId());
+            assertEquals(5000.0, movies.get(6).getPopularity(), 0.0);
+            assertFalse(movies.get(6).getActors().isEmpty());
+            assertEquals(304L, movies.get(14).getMovieId());
+            List<Movie> stored = store.load();
+            assertEquals(movies.size(), stored.size());
+            assertEquals(5000.0, stored.get(6).getPopularity(), 0.0);
+
+            // Nothing changed since, so only the list is fetched
+            before = server.getRequestCount();
+            assertEquals(15, synced.syncPopularMovies(stored).size());
+            assertEquals(25, server.getRequestCount() - before);
+        } finally {
+            Files.deleteIfExists(base);
+            Files.deleteIfExists(deltas);
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testSyncedStatsReachTheRunningRanking() throws Exception {
+        Path base = Files.createTempFile("movies", ".bin");
+        Path deltas = base.resolveSibling(base.getFileName() + ".delta");
+        try (StubTmdbServer server = new StubTmdbServer(2, 5, 0)) {
+            TMDBClient client = server.newClient(4, Duration.ofSeconds(5));
+            CatalogueStore store = new CatalogueStore(base, deltas);
+            store.compact(client.fetchPopularMovies(2));
+            MovieDatabase synced = new MovieDatabase(client, store);
+            synced.addMovies(store.load());
+            String leader = synced.suggestTitles("Movie 2").get(0).getTerm();
+            assertNotEquals(StubTmdbServer.titleOf(204), leader);
+
+            server.setPopularity(204, 5000.0);
+            synced.updateMovies(synced.syncPopularMovies(store.load()));
+
+            assertEquals(StubTmdbServer.titleOf(204), synced.suggestTitles("Movie 2").get(0).getTerm());
+            Movie updated = synced.findByTitle(StubTmdbServer.titleOf(204));
+            assertEquals(5000.0, updated.getPopularity(), 0.0);
+            assertSame(updated, synced.getTitleIndex().movies().get(9));
+            assertTrue(synced.getPersonIndex().contains(updated));
+            assertEquals(10, synced.getLoadedMovieCount());
+        } finally {
+            Files.deleteIfExists(base);
+            Files.deleteIfExists(deltas);
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testSyncKeepsCatalogueWhenListIsUnavailable() throws IOException {
+        Path base = Files.createTempFile("movies", ".bin");
+        Path deltas = base.resolveSibling(base.getFileName() + ".delta");
+        try (StubTmdbServer server = new StubTmdbServer(0, 5, 0)) {
+            CatalogueStore store = new CatalogueStore(base, deltas);
+            store.compact(List.of(darkKnight));
+            MovieDatabase synced = new MovieDatabase(server.newClient(4, Duration.ofSeconds(5)), store);
+
+            assertEquals(List.of(darkKnight), synced.syncPopularMovies(List.of(darkKnight)));
+            assertFalse(Files.exists(deltas));
+        } finally {
+            Files.deleteIfExists(base);
+            Files.deleteIfExists(deltas);
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testPreloadInBackgroundPublishesBatches() throws Exception {
+        Path base = Files.createTempFile("movies", ".bin");
+        Path deltas = base.resolveSibling(base.getFileName() + ".delta");
+        try (StubTmdbServer server = new StubTmdbServer(3, 60, 0)) {
+            TMDBClient client = server.newClient(8, Duration.ofSeconds(5));
+            CatalogueStore store = new CatalogueStore(base, deltas);
+            store.compact(client.fetchPopularMovies(3));
+            MovieDatabase loading = new MovieDatabase(client, store);
+
+            List<Integer> progress = Collections.synchronizedList(new ArrayList<>());
+            CompletableFuture<Void> done = loading.preloadInBackground(
+                    () -> progress.add(loading.getLoadedMovieCount()));
+            // Readers may run while batches are published
+            while (!done.isDone()) {
+                loading.suggestTitles("Movie 1");
+                loading.findByTitle("Movie 100");
+            }
+            done.get();
+
+            assertFalse(loading.isPreloading());
+            assertEquals(180, loading.getLoadedMovieCount());
+            assertEquals(180, loading.getExpectedMovieCount());
+            // Batches of 50, 100 and the remaining 30, then the final notification
+            assertEquals(List.of(50, 150, 180, 180), progress);
+            assertEquals(StubTmdbServer.titleOf(100), loading.suggestTitles("Movie 100").get(0).getTerm());
+            assertNotNull(loading.getRandomMovie());
+        } finally {
+            Files.deleteIfExists(base);
+            Files.deleteIfExists(deltas);
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testFailedBackgroundPreloadFallsBackToLoading() throws Exception {
+        MovieDatabase flaky = new MovieDatabase(StubTmdbServer.offlineClient(), StubTmdbServer.tempStore()) {
+            private boolean failed;
+
+            @Override
+            void addMovies(List<Movie> movies) {
+                if (!failed) {
+                    failed = true;
+                    throw new IllegalStateException("publish failed");
+                }
+                super.addMovies(movies);
+            }
+        };
+        CompletableFuture<Void> done = flaky.preloadInBackground(() -> { });
+        try {
+            done.join();
+            fail("Preload should have failed");
+        } catch (CompletionException expected) {
+            // The first batch could not be published
+        }
+
+        assertFalse(flaky.isPreloading());
+        assertEquals(0, flaky.getLoadedMovieCount());
+        assertNotNull(flaky.getRandomMovie());
+        assertTrue(flaky.getLoadedMovieCount() > 0);
+    }
+
+    @Test(timeout = 30000)
+    public void testReadersNeverSeeTornCatalogue() throws Exception {
+        MovieDatabase shared = new MovieDatabase(StubTmdbServer.offlineClient(), StubTmdbServer.tempStore());
+        int total = 2000;
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            movies.add(new Movie(100_000L + i, "Stress " + i, 2000 + i % 20, i % 97, i,
+                    Set.of("Drama"), Set.of("Actor " + i % 50), Set.of("Director " + i % 13),
+                    Set.of(), Set.of(), Set.of()));
+        }
+        shared.addMovies(movies.subList(0, 1));
+
+        int readers = 8;
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executor = Executors.newFixedThreadPool(readers + 1);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int r = 0; r < readers; r++) {
+                tasks.add(executor.submit(() -> {
+                    int lastCount = 0;
+                    while (writing.get()) {
+                        try {
+                            int count = shared.getLoadedMovieCount();
+                            assertTrue("catalogue shrank", count >= lastCount);
+                            lastCount = count;
+
+                            // A suggestion list comes from one snapshot, so it is ranked
+                            List<Term> suggestions = shared.suggestTitles("stress 1");
+                            for (int i = 1; i < suggestions.size(); i++) {
+                                assertTrue(suggestions.get(i - 1).getWeight() >= suggestions.get(i).getWeight());
+                            }
+                            for (Term term : suggestions) {
+                                assertNotNull(term.getTerm(), shared.findByTitle(term.getTerm()));
+                            }
+
+                            Movie random = shared.getRandomMovie();
+                            assertNotNull(random);
+                            for (Movie connected : shared.getConnectedMovies(random)) {
+                                assertTrue(shared.getTitleIndex().contains(connected.getMovieId()));
+                            }
+                        } catch (Throwable e) {
+                            failures.add(e);
+                            return;
+                        }
+                    }
+                }));
+            }
+
+            for (int from = 1; from < total; from += 37) {
+                shared.addMovies(movies.subList(from, Math.min(total, from + 37)));
+                shared.recordPlay(movies.get(from % 10));
+            }
+            writing.set(false);
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } finally {
+            writing.set(false);
+            executor.shutdownNow();
+        }
+
+        assertEquals(List.of(), failures);
+        assertEquals(total, shared.getLoadedMovieCount());
+        assertEquals(total, shared.getPersonIndex().size());
+        assertTrue(shared.getPlayCount(movies.get(1)) > 0);
+    }
+}
@@ -0,0 +1,159 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class MovieGraphTest {
+
+    private PersonIndex people;
+    private Movie heat;
+    private Movie godfather;
+    private Movie insomnia;
+    private Movie halloween;
+    private Movie oneHourPhoto;
+
+    private static Movie movie(long id, String title, Set<String> actors, Set<String> directors,
+                               Set<String> composers) {
+        return new Movie(id, title, 2000, Set.of(), actors, directors, Set.of(), composers, Set.of());
+    }
+
+    @Before
+    public void setUp() {
+        heat = movie(1L, "Heat", Set.of("Al Pacino", "Robert De Niro"), Set.of("Michael Mann"),
+                Set.of("Elliot Goldenthal"));
+        godfather = movie(2L, "The Godfather", Set.of("Al Pacino", "Robert Duvall"),
+                Set.of("Francis Ford Coppola"), Set.of("Nino Rota"));
+        insomnia = movie(3L, "Insomnia", Set.of("Al Pacino", "Robin Williams"),
+                Set.of("Christopher Nolan"), Set.of());
+        halloween = movie(4L, "Halloween", Set.of("Jamie Lee Curtis"), Set.of("John Carpenter"),
+                Set.of("John Carpenter"));
+        oneHourPhoto = movie(5L, "One Hour Photo", Set.of("Robin Williams"), Set.of("Mark Romanek"),
+                Set.of("Elliot Goldenthal"));
+        people = new PersonIndex();
+    }
+
+    @SafeVarargs
+    private MovieGraph graph(List<Movie>... batches) {
+        MovieGraph graph = MovieGraph.EMPTY;
+        for (List<Movie> batch : batches) {
+            for (Movie movie : batch) {
+                people.add(movie);
+            }
+            graph = graph.with(batch, people);
+        }
+        return graph;
+    }
+
+    @Test
+    public void testEmptyGraph() {
+        assertEquals(0, MovieGraph.EMPTY.size());
+        assertEquals(0, MovieGraph.EMPTY.edgeCount());
+        assertEquals(-1, MovieGraph.EMPTY.degreeOf(heat));
+        assertTrue(MovieGraph.EMPTY.neighbours(heat).isEmpty());
+        assertNull(MovieGraph.EMPTY.connections(heat, godfather));
+    }
+
+    @Test
+    public void testNeighbours() {
+        MovieGraph graph = graph(List.of(heat, godfather, insomnia, halloween, oneHourPhoto));
+
+        assertEquals(List.of(godfather, insomnia, oneHourPhoto), graph.neighbours(heat));
+        assertEquals(List.of(heat, godfather, oneHourPhoto), graph.neighbours(insomnia));
+        assertTrue(graph.neighbours(halloween).isEmpty());
+        assertEquals(0, graph.degreeOf(halloween));
+        assertEquals(3, graph.degreeOf(heat));
+        assertEquals(5, graph.edgeCount());
+    }
+
+    @Test
+    public void testConnectionsMatchFindConnections() {
+        MovieGraph graph = graph(List.of(heat, godfather, insomnia, halloween, oneHourPhoto));
+        List<Movie> all = List.of(heat, godfather, insomnia, halloween, oneHourPhoto);
+        for (Movie from : all) {
+            for (Movie to : all) {
+                if (from != to) {
+                    assertEquals(from.getTitle() + " -> " + to.getTitle(),
+                            from.findConnections(to), graph.connections(from, to));
+                }
+            }
+        }
+        assertEquals(List.of(new Connection("Robin Williams", ConnectionType.ACTOR)),
+                graph.connections(insomnia, oneHourPhoto));
+        assertEquals(List.of(new Connection("Elliot Goldenthal", ConnectionType.COMPOSER)),
+                graph.connections(oneHourPhoto, heat));
+    }
+
+    @Test
+    public void testSamePersonInDifferentRolesIsNoEdge() {
+        Movie scored = movie(6L, "Scored", Set.of(), Set.of(), Set.of("John Carpenter"));
+        MovieGraph graph = graph(List.of(halloween, scored));
+
+        assertEquals(List.of(new Connection("John Carpenter", ConnectionType.COMPOSER)),
+                graph.connections(halloween, scored));
+        assertEquals(1, graph.edgeCount());
+    }
+
+    @Test
+    public void testBatchesBuildTheSameGraph() {
+        List<Movie> all = List.of(heat, godfather, insomnia, halloween, oneHourPhoto);
+        MovieGraph whole = graph(all);
+        people = new PersonIndex();
+        MovieGraph batched = graph(List.of(heat, halloween),
+                List.of(godfather), List.of(insomnia, oneHourPhoto));
+
+        assertEquals(whole.edgeCount(), batched.edgeCount());
+        for (Movie from : all) {
+            assertEquals(new HashSet<>(whole.neighbours(from)), new HashSet<>(batched.neighbours(from)));
+            for (Movie to : all) {
+                assertEquals(whole.connections(from, to), batched.connections(from, to));
+            }
+        }
+    }
+
+    @Test
+    public void testFullRecordReplacesIndexedStubWithSameId() {
+        Movie stub = movie(1L, "Heat", Set.of(), Set.of(), Set.of());
+        people.add(stub);
+        MovieGraph graph = graph(List.of(heat, godfather, oneHourPhoto));
+
+        assertEquals(List.of(godfather, oneHourPhoto), graph.neighbours(heat));
+        assertEquals(List.of(new Connection("Al Pacino", ConnectionType.ACTOR)),
+                graph.connections(heat, godfather));
+        assertEquals(2, graph.edgeCount());
+    }
+
+    @Test
+    public void testIndexedMoviesOutsideTheCatalogueAreLeftOut() {
+        Movie scarface = movie(99L, "Scarface", Set.of("Al Pacino"), Set.of("Brian De Palma"), Set.of());
+        people.add(scarface);
+        MovieGraph graph = graph(List.of(heat, godfather));
+
+        assertEquals(List.of(godfather), graph.neighbours(heat));
+        assertNull(graph.connections(heat, scarface));
+        assertEquals(-1, graph.degreeOf(scarface));
+    }
+
+    @Test
+    public void testOtherObjectWithSameIdIsNotInTheGraph() {
+        MovieGraph graph = graph(List.of(heat, godfather));
+        Movie otherHeat = movie(1L, "Heat", Set.of("Al Pacino"), Set.of(), Set.of());
+
+        assertNull(graph.connections(otherHeat, godfather));
+        assertEquals(-1, graph.degreeOf(otherHeat));
+    }
+
+    @Test
+    public void testWithLeavesOriginalUnchanged() {
+        MovieGraph before = graph(List.of(heat, halloween));
+        people.add(godfather);
+        MovieGraph after = before.with(List.of(godfather), people);
+
+        assertEquals(List.of(godfather), after.neighbours(heat));
+        assertEquals(1, after.edgeCount());
+        assertTrue(before.neighbours(heat).isEmpty());
+        assertEquals(0, before.edgeCount());
+        assertNull(before.connections(heat, godfather));
+    }
+}
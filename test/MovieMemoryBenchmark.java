@@ -0,0 +1,93 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Measures the heap retained by the movie catalogue in the current Movie layout
+ * (interned names, sorted int credit arrays) against the previous layout of five
+ * HashSet&lt;String&gt; credit sets, a genre set and an eager connection-history list,
+ * each holding its own copy of every name as Jackson produced them.
+ *
+ * Run in a fresh JVM so the name dictionary starts empty:
+ * java MovieMemoryBenchmark [movie_cache.json] [copies]
+ */
+public class MovieMemoryBenchmark {
+    public static void main(String[] args) throws Exception {
+        File source = new File(args.length > 0 ? args[0] : "movie_cache.json");
+        int copies = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+
+        // Load Jackson's classes first so they are not counted
+        new ObjectMapper().readValue("[]", Movie[].class);
+
+        long before = usedHeap();
+        List<Movie> compact = new ArrayList<>();
+        for (int copy = 0; copy < copies; copy++) {
+            compact.addAll(Arrays.asList(new ObjectMapper().readValue(source, Movie[].class)));
+        }
+        long compactBytes = usedHeap() - before;
+
+        before = usedHeap();
+        List<LegacyMovie> legacy = new ArrayList<>();
+        for (Movie m : compact) {
+            legacy.add(new LegacyMovie(m));
+        }
+        long legacyBytes = usedHeap() - before;
+
+        System.out.printf("%d movies, %d distinct names%n", compact.size(), NameDictionary.size());
+        System.out.printf("HashSet<String> layout: %8d KB (%d bytes/movie)%n",
+                legacyBytes / 1024, legacyBytes / compact.size());
+        System.out.printf("int[] credit layout:    %8d KB (%d bytes/movie, dictionary included)%n",
+                compactBytes / 1024, compactBytes / compact.size());
+
+        // Keep both layouts reachable until measured
+        if (compact.size() != legacy.size()) {
+            throw new IllegalStateException();
+        }
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * The Movie field layout before names were interned.
+     */
+    private static class LegacyMovie {
+        final long movieId;
+        final String title;
+        final int year;
+        final Set<String> genres;
+        final Set<String> actors;
+        final Set<String> directors;
+        final Set<String> writers;
+        final Set<String> composers;
+        final Set<String> cinematographers;
+        final List<List<Connection>> connectionHistory = new ArrayList<>();
+
+        LegacyMovie(Movie m) {
+            movieId = m.getMovieId();
+            title = new String(m.getTitle());
+            year = m.getYear();
+            genres = copy(m.getGenres());
+            actors = copy(m.getActors());
+            directors = copy(m.getDirectors());
+            writers = copy(m.getWriters());
+            composers = copy(m.getComposers());
+            cinematographers = copy(m.getCinematographers());
+        }
+
+        private static Set<String> copy(Set<String> names) {
+            Set<String> set = new HashSet<>();
+            for (String name : names) {
+                set.add(new String(name));
+            }
+            return set;
+        }
+    }
+}
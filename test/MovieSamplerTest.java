@@ -0,0 +1,135 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+
+public class MovieSamplerTest {
+
+    private PersonIndex people;
+    private MovieGraph graph;
+    private Movie heat;
+    private Movie godfather;
+    private Movie insomnia;
+    private Movie halloween;
+    private Movie loner;
+
+    private static Movie movie(long id, String title, int year, Set<String> genres, Set<String> actors) {
+        return new Movie(id, title, year, genres, actors, Set.of(), Set.of(), Set.of(), Set.of());
+    }
+
+    @Before
+    public void setUp() {
+        heat = movie(1L, "Heat", 1995, Set.of("Crime"), Set.of("Al Pacino", "Robert De Niro"));
+        godfather = movie(2L, "The Godfather", 1972, Set.of("Crime", "Drama"), Set.of("Al Pacino"));
+        insomnia = movie(3L, "Insomnia", 2002, Set.of("Thriller"), Set.of("Al Pacino", "Robin Williams"));
+        halloween = movie(4L, "Halloween", 1978, Set.of("Horror"), Set.of("Jamie Lee Curtis"));
+        loner = movie(5L, "Loner", 2002, Set.of("Drama"), Set.of("Nobody Else"));
+        people = new PersonIndex();
+        graph = MovieGraph.EMPTY;
+    }
+
+    @SafeVarargs
+    private MovieSampler sampler(List<Movie>... batches) {
+        MovieSampler sampler = MovieSampler.EMPTY;
+        for (List<Movie> batch : batches) {
+            for (Movie movie : batch) {
+                people.add(movie);
+            }
+            graph = graph.with(batch, people);
+            sampler = sampler.with(batch, graph);
+        }
+        return sampler;
+    }
+
+    private static Set<Movie> draws(Supplier<Movie> pick) {
+        Set<Movie> seen = new HashSet<>();
+        for (int i = 0; i < 500; i++) {
+            seen.add(pick.get());
+        }
+        return seen;
+    }
+
+    @Test
+    public void testEmptySamplerReturnsNull() {
+        MovieSampler empty = MovieSampler.EMPTY;
+        assertNull(empty.random());
+        assertNull(empty.randomWithGenre("Crime"));
+        assertNull(empty.randomFromYears(1900, 2100));
+        assertNull(empty.randomWithNeighbours(0));
+    }
+
+    @Test
+    public void testRandomReachesEveryMovie() {
+        MovieSampler sampler = sampler(List.of(heat, godfather, insomnia, halloween, loner));
+        assertEquals(Set.of(heat, godfather, insomnia, halloween, loner), draws(sampler::random));
+    }
+
+    @Test
+    public void testRandomIsRoughlyUniform() {
+        MovieSampler sampler = sampler(List.of(heat, godfather, insomnia, halloween, loner));
+        Map<Movie, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 50_000; i++) {
+            counts.merge(sampler.random(), 1, Integer::sum);
+        }
+        for (int count : counts.values()) {
+            assertTrue("count " + count, Math.abs(count - 10_000) < 1_000);
+        }
+    }
+
+    @Test
+    public void testGenreFilter() {
+        MovieSampler sampler = sampler(List.of(heat, godfather), List.of(insomnia, halloween, loner));
+        assertEquals(Set.of(heat, godfather), draws(() -> sampler.randomWithGenre("Crime")));
+        assertEquals(Set.of(godfather, loner), draws(() -> sampler.randomWithGenre("Drama")));
+        assertNull(sampler.randomWithGenre("Western"));
+    }
+
+    @Test
+    public void testYearFilter() {
+        MovieSampler sampler = sampler(List.of(heat, godfather, insomnia), List.of(halloween, loner));
+        assertEquals(Set.of(godfather, halloween), draws(() -> sampler.randomFromYears(1970, 1979)));
+        assertEquals(Set.of(insomnia, loner), draws(() -> sampler.randomFromYears(2002, 2002)));
+        assertEquals(5, draws(() -> sampler.randomFromYears(Integer.MIN_VALUE, Integer.MAX_VALUE)).size());
+        assertNull(sampler.randomFromYears(1980, 1990));
+    }
+
+    @Test
+    public void testNeighbourCountsAcrossBatches() {
+        MovieSampler sampler = sampler(List.of(heat, halloween), List.of(godfather, loner), List.of(insomnia));
+
+        // The Al Pacino movies connect to each other, and only to each other
+        assertEquals(2, sampler.degreeOf(heat));
+        assertEquals(2, sampler.degreeOf(godfather));
+        assertEquals(2, sampler.degreeOf(insomnia));
+        assertEquals(0, sampler.degreeOf(halloween));
+        assertEquals(Set.of(heat, godfather, insomnia), draws(() -> sampler.randomWithNeighbours(1)));
+        assertEquals(5, draws(() -> sampler.randomWithNeighbours(0)).size());
+        assertNull(sampler.randomWithNeighbours(3));
+    }
+
+    @Test
+    public void testIndexedMoviesOutsideTheCatalogueAreNotNeighbours() {
+        people.add(movie(99L, "Scarface", 1983, Set.of("Crime"), Set.of("Al Pacino")));
+        MovieSampler sampler = sampler(List.of(heat, godfather));
+
+        assertEquals(1, sampler.degreeOf(heat));
+        assertEquals(-1, sampler.degreeOf(insomnia));
+    }
+
+    @Test
+    public void testWithLeavesOriginalUnchanged() {
+        MovieSampler before = sampler(List.of(heat, halloween));
+        people.add(godfather);
+        MovieSampler after = before.with(List.of(godfather), graph.with(List.of(godfather), people));
+
+        assertEquals(3, after.size());
+        assertEquals(1, after.degreeOf(heat));
+        assertEquals(2, before.size());
+        assertEquals(0, before.degreeOf(heat));
+        assertEquals(-1, before.degreeOf(godfather));
+        assertNull(before.randomWithNeighbours(1));
+    }
+}
@@ -0,0 +1,75 @@
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Compares cold-start loading of the movie catalogue from movie_cache.json (Jackson,
+ * as preloadPopularMovies used to do) with opening the binary snapshot. The cache is
+ * replicated with shifted IDs and titles to simulate larger catalogues.
+ *
+ * Usage: java MovieSnapshotBenchmark [movie_cache.json] [copies...]
+ */
+public class MovieSnapshotBenchmark {
+    private static final int RUNS = 5;
+
+    public static void main(String[] args) throws Exception {
+        File source = new File(args.length > 0 ? args[0] : "movie_cache.json");
+        int[] copies = args.length > 1
+                ? Arrays.stream(args).skip(1).mapToInt(Integer::parseInt).toArray()
+                : new int[] {1, 20, 200};
+        List<Movie> base = Arrays.asList(new ObjectMapper().readValue(source, Movie[].class));
+
+        for (int n : copies) {
+            List<Movie> movies = replicate(base, n);
+            Path json = Files.createTempFile("movies", ".json");
+            Path snapshot = Files.createTempFile("movies", ".bin");
+            try {
+                new ObjectMapper().writeValue(json.toFile(), movies);
+                MovieSnapshot.write(movies, snapshot);
+
+                long jsonNs = Long.MAX_VALUE;
+                long snapshotNs = Long.MAX_VALUE;
+                long mapNs = Long.MAX_VALUE;
+                for (int run = 0; run < RUNS; run++) {
+                    long start = System.nanoTime();
+                    Movie[] parsed = new ObjectMapper().readValue(json.toFile(), Movie[].class);
+                    jsonNs = Math.min(jsonNs, System.nanoTime() - start);
+
+                    start = System.nanoTime();
+                    MovieSnapshot opened = MovieSnapshot.open(snapshot);
+                    mapNs = Math.min(mapNs, System.nanoTime() - start);
+                    List<Movie> decoded = opened.movies();
+                    snapshotNs = Math.min(snapshotNs, System.nanoTime() - start);
+
+                    if (parsed.length != decoded.size()) {
+                        throw new IllegalStateException("Loaded different movie counts");
+                    }
+                }
+
+                System.out.printf("%7d movies  json %8d KB %8.1f ms | snapshot %8d KB "
+                                + "open %6.2f ms, decode all %8.1f ms%n",
+                        movies.size(), Files.size(json) / 1024, jsonNs / 1e6,
+                        Files.size(snapshot) / 1024, mapNs / 1e6, snapshotNs / 1e6);
+            } finally {
+                Files.deleteIfExists(json);
+                Files.deleteIfExists(snapshot);
+            }
+        }
+    }
+
+    private static List<Movie> replicate(List<Movie> base, int copies) {
+        List<Movie> movies = new ArrayList<>(base.size() * copies);
+        for (int copy = 0; copy < copies; copy++) {
+            for (Movie m : base) {
+                String suffix = copy == 0 ? "" : " " + copy;
+                movies.add(new Movie(m.getMovieId() + copy * 10_000_000L, m.getTitle() + suffix,
+                        m.getYear(), m.getGenres(), m.getActors(), m.getDirectors(),
+                        m.getWriters(), m.getComposers(), m.getCinematographers()));
+            }
+        }
+        return movies;
+    }
+}
@@ -0,0 +1,167 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class MovieSnapshotTest {
+
+    private Path file;
+    private Movie inception;
+    private Movie interstellar;
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("movies", ".bin");
+        inception = new Movie(27205L, "Inception", 2010,
+                Set.of("Action", "Sci-Fi"),
+                Set.of("Leonardo DiCaprio", "Elliot Page"),
+                Set.of("Christopher Nolan"),
+                Set.of("Christopher Nolan"),
+                Set.of("Hans Zimmer"),
+                Set.of("Wally Pfister"));
+        interstellar = new Movie(157336L, "Interstellar", 2014, 140.25, 36000,
+                Set.of("Sci-Fi", "Drama"),
+                Set.of("Matthew McConaughey", "Anne Hathaway"),
+                Set.of("Christopher Nolan"),
+                Set.of("Jonathan Nolan", "Christopher Nolan"),
+                Set.of("Hans Zimmer"),
+                Set.of("Hoyte van Hoytema"));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testRoundTripPreservesAllFields() throws IOException {
+        MovieSnapshot.write(Arrays.asList(inception, interstellar), file);
+        MovieSnapshot snapshot = MovieSnapshot.open(file);
+
+        assertEquals(2, snapshot.size());
+        assertEquals(157336L, snapshot.movieId(1));
+        assertEquals("Inception", snapshot.title(0));
+
+        Movie copy = snapshot.movie(1);
+        assertEquals(interstellar, copy);
+        assertEquals(interstellar.getMovieId(), copy.getMovieId());
+        assertEquals(140.25, copy.getPopularity(), 0.0);
+        assertEquals(36000, copy.getVoteCount());
+        assertEquals(interstellar.getGenres(), copy.getGenres());
+        assertEquals(interstellar.getActors(), copy.getActors());
+        assertEquals(interstellar.getDirectors(), copy.getDirectors());
+        assertEquals(interstellar.getWriters(), copy.getWriters());
+        assertEquals(interstellar.getComposers(), copy.getComposers());
+        assertEquals(interstellar.getCinematographers(), copy.getCinematographers());
+    }
+
+    @Test
+    public void testSharedNamesDecodeToSameString() throws IOException {
+        MovieSnapshot.write(Arrays.asList(inception, interstellar), file);
+        MovieSnapshot snapshot = MovieSnapshot.open(file);
+
+        String first = snapshot.movie(0).getDirectors().iterator().next();
+        String second = snapshot.movie(1).getDirectors().iterator().next();
+        assertSame(first, second);
+        assertSame(snapshot.movie(0), snapshot.movie(0));
+    }
+
+    @Test
+    public void testFindConnectionsOnDecodedMovies() throws IOException {
+        MovieSnapshot.write(Arrays.asList(inception, interstellar), file);
+        List<Movie> movies = MovieSnapshot.open(file).movies();
+
+        assertEquals(inception.findConnections(interstellar).size(),
+                movies.get(0).findConnections(movies.get(1)).size());
+    }
+
+    @Test
+    public void testUnicodeTitles() throws IOException {
+        Movie amelie = new Movie(194L, "Le Fabuleux Destin d'Amélie Poulain", 2001,
+                Set.of(), Set.of("Audrey Tautou"), Set.of("Jean-Pierre Jeunet"),
+                Set.of(), Set.of("Yann Tiersen"), Set.of());
+        MovieSnapshot.write(List.of(amelie), file);
+
+        assertEquals("Le Fabuleux Destin d'Amélie Poulain", MovieSnapshot.open(file).title(0));
+    }
+
+    @Test
+    public void testEmptySnapshot() throws IOException {
+        MovieSnapshot.write(List.of(), file);
+        MovieSnapshot snapshot = MovieSnapshot.open(file);
+
+        assertEquals(0, snapshot.size());
+        assertTrue(snapshot.movies().isEmpty());
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsNonSnapshotFile() throws IOException {
+        Files.writeString(file, "[ { \"title\" : \"Inception\" } ]");
+        MovieSnapshot.open(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsTruncatedFile() throws IOException {
+        MovieSnapshot.write(Arrays.asList(inception, interstellar), file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 10));
+        MovieSnapshot.open(file);
+    }
+
+    @Test
+    public void testRejectsCorruptHeaderCounts() throws IOException {
+        MovieSnapshot.write(Arrays.asList(inception, interstellar), file);
+        byte[] bytes = Files.readAllBytes(file);
+        int[][] corruptions = {
+                {8, -1}, {12, -1}, {16, -1},
+                {8, Integer.MAX_VALUE}, {12, Integer.MAX_VALUE}, {16, Integer.MAX_VALUE},
+                {12, Integer.MAX_VALUE / 10}
+        };
+        for (int[] corruption : corruptions) {
+            byte[] corrupt = bytes.clone();
+            ByteBuffer.wrap(corrupt).putInt(corruption[0], corruption[1]);
+            Files.write(file, corrupt);
+            try {
+                MovieSnapshot.open(file);
+                fail("Accepted count " + corruption[1] + " at offset " + corruption[0]);
+            } catch (IOException expected) {
+                // Rejected before reading past the header
+            }
+        }
+    }
+
+    @Test
+    public void testRejectsCorruptRecordReferences() throws IOException {
+        byte[] bytes = MovieSnapshot.encode(Arrays.asList(inception, interstellar));
+        ByteBuffer header = ByteBuffer.wrap(bytes);
+        int stringCount = header.getInt(8);
+        int creditCount = header.getInt(16);
+        int record = 20 + (stringCount + 1) * Integer.BYTES;
+        int title = record + Long.BYTES;
+        int firstCredit = record + Long.BYTES + 3 * Integer.BYTES + Double.BYTES;
+        int recordBytes = firstCredit - record + 2 * (1 + ConnectionType.values().length) * Integer.BYTES;
+        int creditPool = record + 2 * recordBytes;
+        int[][] corruptions = {
+                {firstCredit, -1}, {firstCredit, creditCount}, {firstCredit + Integer.BYTES, creditCount + 1},
+                {title, stringCount}, {title, -1}, {creditPool, stringCount},
+                {20, 1}, {24, -5}
+        };
+        for (int[] corruption : corruptions) {
+            byte[] corrupt = bytes.clone();
+            ByteBuffer.wrap(corrupt).putInt(corruption[0], corruption[1]);
+            try {
+                MovieSnapshot.read(corrupt);
+                fail("Accepted value " + corruption[1] + " at offset " + corruption[0]);
+            } catch (IOException expected) {
+                // Rejected before any record is decoded
+            }
+        }
+    }
+}
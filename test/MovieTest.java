@@ -11,6 +11,8 @@ import org.junit.Test;
 
 import java.util.*;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 public class MovieTest {
 
     private Movie inception;
@@ -146,15 +148,29 @@ public class MovieTest {
     }
 
     @Test
-    public void testAddConnectionHistory() {
-        Connection connection = new Connection("Christopher Nolan", ConnectionType.DIRECTOR);
-        List<Connection> connectionList = new ArrayList<>();
-        connectionList.add(connection);
+    public void testFindConnections_KeepsRolesSeparate() {
+        // James Cameron directs and writes both; only same-role matches count
+        List<Connection> connections = titanic.findConnections(avatar);
 
-        inception.addConnectionHistory(connectionList);
+        assertEquals(3, connections.size());
+        assertTrue(connections.contains(new Connection("James Cameron", ConnectionType.DIRECTOR)));
+        assertTrue(connections.contains(new Connection("James Cameron", ConnectionType.WRITER)));
+        assertTrue(connections.contains(new Connection("James Horner", ConnectionType.COMPOSER)));
+    }
 
-        assertEquals(1, inception.getConnectionHistory().size());
-        assertEquals(connectionList, inception.getConnectionHistory().get(0));
+    @Test
+    public void testCreditViewsAreReadOnlyAndSearchable() {
+        Set<String> actors = titanic.getActors();
+
+        assertEquals(Set.of("Leonardo DiCaprio", "Kate Winslet"), actors);
+        assertTrue(actors.contains("Kate Winslet"));
+        assertFalse(actors.contains("Never Interned Name"));
+        try {
+            actors.add("Billy Zane");
+            fail("credit views should be read-only");
+        } catch (UnsupportedOperationException e) {
+            assertEquals(2, titanic.getActors().size());
+        }
     }
 
     @Test
@@ -222,4 +238,26 @@ public class MovieTest {
         assertEquals(Set.of("Hoyte van Hoytema"), interstellar.getCinematographers());
     }
 
+
+    @Test
+    public void testJsonPopularityRoundTrip() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        Movie popular = new Movie(27205L, "Inception", 2010, 83.5, 37000,
+                Set.of("Action"), Set.of("Leonardo DiCaprio"), Set.of("Christopher Nolan"),
+                Set.of(), Set.of(), Set.of());
+
+        Movie copy = mapper.readValue(mapper.writeValueAsString(popular), Movie.class);
+        assertEquals(83.5, copy.getPopularity(), 0.0);
+        assertEquals(37000, copy.getVoteCount());
+    }
+
+    @Test
+    public void testJsonWithoutPopularityDefaultsToZero() throws Exception {
+        Movie copy = new ObjectMapper().readValue(
+                "{\"movieId\":1,\"title\":\"Heat\",\"year\":1995,\"actors\":[\"Al Pacino\"]}",
+                Movie.class);
+        assertEquals(0.0, copy.getPopularity(), 0.0);
+        assertEquals(0, copy.getVoteCount());
+        assertTrue(copy.getActors().contains("Al Pacino"));
+    }
 }
@@ -0,0 +1,49 @@
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class NameDictionaryTest {
+
+    @Test
+    public void testInternIsStable() {
+        int id = NameDictionary.intern("Christopher Nolan");
+        assertEquals(id, NameDictionary.intern("Christopher Nolan"));
+        assertEquals(id, NameDictionary.intern(new String("Christopher Nolan")));
+        assertEquals("Christopher Nolan", NameDictionary.name(id));
+    }
+
+    @Test
+    public void testLookupDoesNotIntern() {
+        int before = NameDictionary.size();
+        assertEquals(-1, NameDictionary.lookup("A Name Nobody Has Interned"));
+        assertEquals(-1, NameDictionary.lookup(null));
+        assertEquals(before, NameDictionary.size());
+    }
+
+    @Test
+    public void testConcurrentInternAssignsOneIdPerName() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<int[]>> results = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            results.add(pool.submit(() -> {
+                int[] ids = new int[2000];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = NameDictionary.intern("Concurrent Person " + i);
+                }
+                return ids;
+            }));
+        }
+        int[] first = results.get(0).get();
+        for (Future<int[]> result : results) {
+            assertArrayEquals(first, result.get());
+        }
+        pool.shutdown();
+
+        for (int i = 0; i < first.length; i++) {
+            assertEquals("Concurrent Person " + i, NameDictionary.name(first[i]));
+        }
+    }
+}
@@ -6,45 +6,81 @@ import static org.junit.Assert.*;
 
 public class NodeTest {
 
+    private static Node nodeWithLabel(String label) {
+        Node node = new Node();
+        node.label = label.toCharArray();
+        return node;
+    }
+
     @Test
     public void testDefaultInitialization() {
         Node node = new Node();
         assertNotNull(node.children);
-        assertTrue(node.children.isEmpty());
-        assertFalse(node.isEndOfWord);
-        assertNotNull(node.suggestions);
-        assertTrue(node.suggestions.isEmpty());
+        assertEquals(0, node.children.length);
+        assertEquals(0, node.keys.length);
+        assertFalse(node.isEndOfWord());
+        assertNotNull(node.top);
+        assertEquals(0, node.topSize);
     }
 
     @Test
     public void testAddChildNode() {
         Node parent = new Node();
-        Node child = new Node();
-        parent.children.put('a', child);
+        Node child = nodeWithLabel("abc");
+        parent.putChild(child);
+
+        assertSame(child, parent.child('a'));
+        assertNull(parent.child('b'));
+    }
+
+    @Test
+    public void testChildrenStaySorted() {
+        Node parent = new Node();
+        Node m = nodeWithLabel("m");
+        Node a = nodeWithLabel("apple");
+        Node z = nodeWithLabel("zoo");
+        parent.putChild(m);
+        parent.putChild(z);
+        parent.putChild(a);
 
-        assertTrue(parent.children.containsKey('a'));
-        assertSame(child, parent.children.get('a'));
+        assertArrayEquals(new char[] {'a', 'm', 'z'}, parent.keys);
+        assertSame(a, parent.children[0]);
+        assertSame(m, parent.child('m'));
+        assertSame(z, parent.child('z'));
+    }
+
+    @Test
+    public void testPutChildReplacesSameFirstChar() {
+        Node parent = new Node();
+        parent.putChild(nodeWithLabel("inception"));
+        Node replacement = nodeWithLabel("in");
+        parent.putChild(replacement);
+
+        assertEquals(1, parent.children.length);
+        assertSame(replacement, parent.child('i'));
     }
 
     @Test
     public void testSetIsEndOfWord() {
         Node node = new Node();
-        assertFalse(node.isEndOfWord);
-        node.isEndOfWord = true;
-        assertTrue(node.isEndOfWord);
+        assertFalse(node.isEndOfWord());
+        node.addTerm(new Term("Inception", 500));
+        assertTrue(node.isEndOfWord());
     }
 
     @Test
-    public void testAddSuggestions() {
+    public void testAddTermKeepsInsertionOrder() {
         Node node = new Node();
-        Term t1 = new Term("Inception", 500);
-        Term t2 = new Term("Interstellar", 800);
-
-        node.suggestions.add(t1);
-        node.suggestions.add(t2);
+        Term first = new Term("Alien", 1);
+        Term second = new Term("Alien", 2);
+        Term third = new Term("Alien", 3);
+        node.addTerm(first);
+        node.addTerm(second);
+        node.addTerm(third);
 
-        assertEquals(2, node.suggestions.size());
-        assertEquals("Inception", node.suggestions.get(0).getTerm());
-        assertEquals("Interstellar", node.suggestions.get(1).getTerm());
+        assertEquals(3, node.termCount);
+        assertSame(first, node.terms[0]);
+        assertSame(second, node.terms[1]);
+        assertSame(third, node.terms[2]);
     }
 }
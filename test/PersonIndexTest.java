@@ -0,0 +1,117 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class PersonIndexTest {
+
+    private PersonIndex index;
+    private Movie inception;
+    private Movie titanic;
+    private Movie avatar;
+    private Movie interstellar;
+
+    @Before
+    public void setUp() {
+        inception = new Movie(1L, "Inception", 2010,
+                Set.of("Sci-Fi"), Set.of("Leonardo DiCaprio", "Tom Hardy"),
+                Set.of("Christopher Nolan"), Set.of("Christopher Nolan"),
+                Set.of("Hans Zimmer"), Set.of("Wally Pfister"));
+        titanic = new Movie(2L, "Titanic", 1997,
+                Set.of("Romance"), Set.of("Leonardo DiCaprio", "Kate Winslet"),
+                Set.of("James Cameron"), Set.of("James Cameron"),
+                Set.of("James Horner"), Set.of("Russell Carpenter"));
+        avatar = new Movie(3L, "Avatar", 2009,
+                Set.of("Sci-Fi"), Set.of("Sam Worthington"),
+                Set.of("James Cameron"), Set.of("James Cameron"),
+                Set.of("James Horner"), Set.of("Mauro Fiore"));
+        interstellar = new Movie(4L, "Interstellar", 2014,
+                Set.of("Sci-Fi"), Set.of("Matthew McConaughey"),
+                Set.of("Christopher Nolan"), Set.of("Jonathan Nolan"),
+                Set.of("Hans Zimmer"), Set.of("Hoyte van Hoytema"));
+
+        index = new PersonIndex();
+        for (Movie m : Arrays.asList(inception, titanic, avatar, interstellar)) {
+            index.add(m);
+        }
+    }
+
+    @Test
+    public void testMoviesWith() {
+        assertEquals(Arrays.asList(inception, titanic),
+                index.moviesWith("Leonardo DiCaprio", ConnectionType.ACTOR));
+        assertEquals(Arrays.asList(inception, interstellar),
+                index.moviesWith("Christopher Nolan", ConnectionType.DIRECTOR));
+        assertTrue(index.moviesWith("Christopher Nolan", ConnectionType.ACTOR).isEmpty());
+        assertTrue(index.moviesWith("Nobody", ConnectionType.ACTOR).isEmpty());
+    }
+
+    @Test
+    public void testConnectedMovies() {
+        assertEquals(Arrays.asList(titanic, interstellar), index.connectedMovies(inception));
+        assertEquals(Arrays.asList(inception, avatar), index.connectedMovies(titanic));
+    }
+
+    @Test
+    public void testConnectedMoviesOfIsolatedMovie() {
+        Movie loner = new Movie(5L, "Loner", 2000,
+                Set.of(), Set.of("Unknown Actor"), Set.of(), Set.of(), Set.of(), Set.of());
+        index.add(loner);
+
+        assertTrue(index.connectedMovies(loner).isEmpty());
+    }
+
+    @Test
+    public void testAddReplacesMovieWithSameId() {
+        index.add(inception);
+        assertEquals(4, index.size());
+
+        Movie sameId = new Movie(1L, "Inception", 2010,
+                Set.of(), Set.of("Someone Else"), Set.of(), Set.of(), Set.of(), Set.of());
+        index.add(sameId);
+
+        assertEquals(4, index.size());
+        assertTrue(index.contains(sameId));
+        assertFalse(index.contains(inception));
+        assertEquals(List.of(titanic), index.moviesWith("Leonardo DiCaprio", ConnectionType.ACTOR));
+        assertEquals(List.of(interstellar), index.moviesWith("Christopher Nolan", ConnectionType.DIRECTOR));
+        assertEquals(List.of(sameId), index.moviesWith("Someone Else", ConnectionType.ACTOR));
+        assertEquals(List.of(avatar), index.connectedMovies(titanic));
+        assertTrue(index.connectedMovies(sameId).isEmpty());
+    }
+
+    @Test
+    public void testReplacedMovieKeepsItsSlotInPostingOrder() {
+        Movie fullTitanic = new Movie(2L, "Titanic", 1997,
+                Set.of("Romance"), Set.of("Leonardo DiCaprio", "Matthew McConaughey"),
+                Set.of("James Cameron"), Set.of(), Set.of(), Set.of());
+        index.add(fullTitanic);
+
+        assertEquals(Arrays.asList(fullTitanic, interstellar),
+                index.moviesWith("Matthew McConaughey", ConnectionType.ACTOR));
+        assertTrue(index.moviesWith("Kate Winslet", ConnectionType.ACTOR).isEmpty());
+        assertEquals(Arrays.asList(inception, fullTitanic), index.connectedMovies(interstellar));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConnectedMoviesRejectsUnindexedMovie() {
+        Movie other = new Movie(99L, "Other", 2000,
+                Set.of(), Set.of(), Set.of(), Set.of(), Set.of(), Set.of());
+        index.connectedMovies(other);
+    }
+
+    @Test
+    public void testCopyIsIndependent() {
+        PersonIndex copy = index.copy();
+        Movie revenant = new Movie(6L, "The Revenant", 2015,
+                Set.of(), Set.of("Leonardo DiCaprio", "Tom Hardy"), Set.of(), Set.of(), Set.of(), Set.of());
+        copy.add(revenant);
+
+        assertEquals(Arrays.asList(titanic, interstellar, revenant), copy.connectedMovies(inception));
+        assertEquals(Arrays.asList(titanic, interstellar), index.connectedMovies(inception));
+        assertFalse(index.contains(revenant));
+        assertEquals(4, index.size());
+    }
+}
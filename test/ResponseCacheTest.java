@@ -0,0 +1,183 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class ResponseCacheTest {
+
+    private Path dir;
+    private long now;
+    private ResponseCache cache;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("responses");
+        now = 1_000_000;
+        cache = open(false);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        cache.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private ResponseCache open(boolean offline) throws IOException {
+        return new ResponseCache(dir, Duration.ofMinutes(10), offline, () -> now);
+    }
+
+    private ResponseCache reopen(boolean offline) throws IOException {
+        cache.close();
+        cache = open(offline);
+        return cache;
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String body(String key) throws IOException {
+        ResponseCache.Entry entry = cache.lookup(key);
+        byte[] body = entry == null ? null : cache.read(key, entry);
+        return body == null ? null : new String(body, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testEntriesSurviveReopening() throws IOException {
+        cache.put("/movie/1", bytes("{\"id\":1}"), "\"a\"", null);
+        cache.put("/movie/2", bytes("{\"id\":2}"), null, null);
+
+        reopen(false);
+
+        assertEquals(2, cache.size());
+        assertEquals("{\"id\":1}", body("/movie/1"));
+        assertEquals("\"a\"", cache.lookup("/movie/1").getEtag());
+        assertNull(cache.lookup("/movie/2").getEtag());
+        assertNull(cache.lookup("/movie/3"));
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testIdenticalBodiesAreStoredOnce() throws IOException {
+        byte[] similar = bytes("{\"results\":[{\"id\":1},{\"id\":2}]}");
+        cache.put("/movie/10/similar", similar, null, null);
+        cache.put("/movie/11/similar", similar, null, null);
+        cache.put("/movie/10/similar", similar, null, null);
+
+        assertEquals(similar.length, cache.getDataSize());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testLatestPutWins() throws IOException {
+        cache.put("/movie/popular?page=1", bytes("old"), null, null);
+        cache.put("/movie/popular?page=1", bytes("new"), null, null);
+
+        reopen(false);
+
+        assertEquals("new", body("/movie/popular?page=1"));
+    }
+
+    @Test
+    public void testFreshnessFollowsMaxAge() throws IOException {
+        cache.put("/a", bytes("a"), null, Duration.ofSeconds(30));
+        cache.put("/b", bytes("b"), null, null);
+
+        now += 31_000;
+        assertFalse(cache.isFresh(cache.lookup("/a")));
+        assertTrue(cache.isFresh(cache.lookup("/b")));
+
+        now += Duration.ofMinutes(10).toMillis();
+        assertFalse(cache.isFresh(cache.lookup("/b")));
+    }
+
+    @Test
+    public void testRevalidationMakesEntryFreshAgain() throws IOException {
+        cache.put("/a", bytes("a"), "\"v1\"", Duration.ofSeconds(30));
+        now += 60_000;
+
+        cache.revalidated("/a", Duration.ofSeconds(30));
+
+        assertTrue(cache.isFresh(cache.lookup("/a")));
+        assertEquals(1, cache.getRevalidationCount());
+        reopen(false);
+        assertTrue(cache.isFresh(cache.lookup("/a")));
+        assertEquals("\"v1\"", cache.lookup("/a").getEtag());
+    }
+
+    @Test
+    public void testOfflineEntriesNeverGoStale() throws IOException {
+        cache.put("/a", bytes("a"), null, Duration.ZERO);
+
+        reopen(true);
+        now += Duration.ofDays(365).toMillis();
+
+        assertTrue(cache.isOffline());
+        assertTrue(cache.isFresh(cache.lookup("/a")));
+    }
+
+    @Test
+    public void testCompactionDropsSupersededBodies() throws IOException {
+        for (int i = 0; i < 20; i++) {
+            cache.put("/movie/popular?page=1", bytes("version " + i), null, null);
+        }
+        cache.put("/movie/1", bytes("one"), "\"x\"", null);
+        long before = cache.getDataSize();
+
+        cache.compact();
+
+        assertEquals("version 19".length() + "one".length(), cache.getDataSize());
+        assertTrue(cache.getDataSize() < before);
+        assertEquals("version 19", body("/movie/popular?page=1"));
+        reopen(false);
+        assertEquals(2, cache.size());
+        assertEquals("one", body("/movie/1"));
+        assertEquals("\"x\"", cache.lookup("/movie/1").getEtag());
+        cache.put("/movie/2", bytes("two"), null, null);
+        assertEquals("two", body("/movie/2"));
+    }
+
+    @Test
+    public void testTornIndexRecordIsDropped() throws IOException {
+        cache.put("/a", bytes("a"), null, null);
+        cache.put("/b", bytes("b"), null, null);
+        cache.close();
+        Path index = dir.resolve("index.log");
+        try (RandomAccessFile file = new RandomAccessFile(index.toFile(), "rw")) {
+            file.setLength(file.length() - 5);
+        }
+
+        cache = open(false);
+
+        assertEquals("a", body("/a"));
+        assertNull(cache.lookup("/b"));
+        cache.put("/c", bytes("c"), null, null);
+        reopen(false);
+        assertEquals("c", body("/c"));
+    }
+
+    @Test
+    public void testCorruptBodyIsAMiss() throws IOException {
+        cache.put("/a", bytes("hello"), null, null);
+        try (RandomAccessFile file = new RandomAccessFile(dir.resolve("responses.dat").toFile(), "rw")) {
+            file.write('j');
+        }
+
+        assertNull(body("/a"));
+        assertNull(cache.lookup("/a"));
+    }
+}
@@ -0,0 +1,96 @@
+import com.googlecode.lanterna.TerminalSize;
+import com.googlecode.lanterna.TextColor;
+import com.googlecode.lanterna.screen.Screen;
+import com.googlecode.lanterna.screen.TerminalScreen;
+import com.googlecode.lanterna.terminal.virtual.DefaultVirtualTerminal;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class ScreenFrameTest {
+
+    private static final TextColor WHITE = TextColor.ANSI.WHITE;
+    private static final TextColor BLACK = TextColor.ANSI.BLACK;
+
+    private Screen screen;
+    private ScreenFrame frame;
+
+    @Before
+    public void setUp() throws IOException {
+        screen = new TerminalScreen(new DefaultVirtualTerminal(new TerminalSize(80, 24)));
+        screen.startScreen();
+        frame = new ScreenFrame(screen);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        screen.close();
+    }
+
+    private int draw(String text) throws IOException {
+        frame.begin();
+        frame.print(0, 0, text, WHITE, BLACK);
+        return frame.end();
+    }
+
+    @Test
+    public void testFirstFrameIsSentInFull() throws IOException {
+        assertEquals(80 * 24, draw("Hello"));
+        assertEquals('H', screen.getBackCharacter(0, 0).getCharacter());
+        assertEquals(WHITE, screen.getBackCharacter(0, 0).getForegroundColor());
+        assertEquals(' ', screen.getBackCharacter(5, 0).getCharacter());
+    }
+
+    @Test
+    public void testUnchangedFrameSendsNothing() throws IOException {
+        draw("Hello");
+        assertEquals(0, draw("Hello"));
+    }
+
+    @Test
+    public void testOnlyChangedCellsAreSent() throws IOException {
+        draw("Time: 60s");
+        assertEquals(2, draw("Time: 59s"));
+        assertEquals(1, draw("Time: 58s"));
+        assertEquals('8', screen.getBackCharacter(7, 0).getCharacter());
+    }
+
+    @Test
+    public void testShorterTextIsBlankedOut() throws IOException {
+        draw("> Heat");
+        assertEquals(3, draw("> H"));
+        assertEquals(' ', screen.getBackCharacter(3, 0).getCharacter());
+    }
+
+    @Test
+    public void testStyleChangeIsSent() throws IOException {
+        draw("- Heat");
+        frame.begin();
+        frame.print(0, 0, "- Heat", BLACK, TextColor.ANSI.CYAN);
+        assertEquals(6, frame.end());
+        assertEquals(TextColor.ANSI.CYAN, screen.getBackCharacter(0, 0).getBackgroundColor());
+    }
+
+    @Test
+    public void testTextOutsideTheScreenIsCutOff() throws IOException {
+        frame.begin();
+        frame.print(78, 0, "abcd", WHITE, BLACK);
+        frame.print(-2, 1, "xyz", WHITE, BLACK);
+        frame.print(0, 24, "below", WHITE, BLACK);
+        frame.print(0, -1, "above", WHITE, BLACK);
+        frame.end();
+
+        assertEquals('b', screen.getBackCharacter(79, 0).getCharacter());
+        assertEquals('z', screen.getBackCharacter(0, 1).getCharacter());
+    }
+
+    @Test
+    public void testGlyphsAreReused() throws IOException {
+        draw("aa");
+        assertSame(screen.getBackCharacter(0, 0), screen.getBackCharacter(1, 0));
+    }
+}
@@ -0,0 +1,155 @@
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SingleFlightTest {
+
+    private final SingleFlight<String, String> flights = new SingleFlight<>();
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    @Test
+    public void testConcurrentCallersShareOneAsyncLookup() {
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        List<CompletableFuture<String>> callers = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            callers.add(flights.submit("heat", () -> {
+                lookups.incrementAndGet();
+                return upstream;
+            }));
+        }
+        upstream.complete("Heat");
+
+        for (CompletableFuture<String> caller : callers) {
+            assertEquals("Heat", caller.join());
+        }
+        assertEquals(1, lookups.get());
+        assertEquals(9, flights.getCoalescedCount());
+    }
+
+    @Test(timeout = 5000)
+    public void testConcurrentCallersShareOneBlockingLookup() throws Exception {
+        int callers = 16;
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> flights.call("heat", () -> {
+                lookups.incrementAndGet();
+                started.countDown();
+                await(release);
+                return "Heat";
+            })));
+            started.await();
+            for (int i = 1; i < callers; i++) {
+                results.add(executor.submit(() -> flights.call("heat", () -> {
+                    lookups.incrementAndGet();
+                    return "again";
+                })));
+            }
+            while (flights.getCoalescedCount() < callers - 1) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("Heat", result.get());
+            }
+            assertEquals(1, lookups.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCompletedLookupIsNotReused() {
+        assertEquals("1", flights.call("heat", () -> String.valueOf(lookups.incrementAndGet())));
+        assertEquals("2", flights.call("heat", () -> String.valueOf(lookups.incrementAndGet())));
+        assertEquals("3", flights.submit("heat",
+                () -> CompletableFuture.completedFuture(String.valueOf(lookups.incrementAndGet()))).join());
+        assertEquals(0, flights.getCoalescedCount());
+    }
+
+    @Test
+    public void testDifferentKeysDoNotShare() {
+        CompletableFuture<String> heat = new CompletableFuture<>();
+        CompletableFuture<String> alien = new CompletableFuture<>();
+        CompletableFuture<String> first = flights.submit("heat", () -> heat);
+        CompletableFuture<String> second = flights.submit("alien", () -> alien);
+        heat.complete("Heat");
+        alien.complete("Alien");
+        assertEquals("Heat", first.join());
+        assertEquals("Alien", second.join());
+    }
+
+    @Test
+    public void testFailureReachesEveryCallerAndIsNotKept() {
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        CompletableFuture<String> first = flights.submit("heat", () -> upstream);
+        CompletableFuture<String> second = flights.submit("heat", () -> upstream);
+        upstream.completeExceptionally(new IllegalStateException("boom"));
+
+        assertTrue(first.isCompletedExceptionally());
+        assertTrue(second.isCompletedExceptionally());
+        assertEquals("Heat", flights.submit("heat", () -> CompletableFuture.completedFuture("Heat")).join());
+    }
+
+    @Test
+    public void testCancellingOneCopyLeavesOthers() {
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        CompletableFuture<String> first = flights.submit("heat", () -> upstream);
+        CompletableFuture<String> second = flights.submit("heat", () -> upstream);
+        first.cancel(true);
+        upstream.complete("Heat");
+
+        assertEquals("Heat", second.join());
+        assertFalse(upstream.isCancelled());
+    }
+
+    @Test(timeout = 5000)
+    public void testInterruptedLeaderDoesNotShareItsResult() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() -> flights.call("heat", () -> {
+                lookups.incrementAndGet();
+                started.countDown();
+                try {
+                    new CountDownLatch(1).await();
+                } catch (InterruptedException e) {
+                    // Like TMDBClient, give up with null and keep the interrupt
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }));
+            started.await();
+            Future<String> waiter = executor.submit(() -> flights.call("heat", () -> {
+                lookups.incrementAndGet();
+                return "Heat";
+            }));
+            CompletableFuture<String> asyncWaiter = flights.submit("heat",
+                    () -> CompletableFuture.completedFuture("Heat"));
+            while (flights.getCoalescedCount() < 2) {
+                Thread.sleep(1);
+            }
+            leader.cancel(true);
+
+            assertEquals("Heat", waiter.get());
+            assertEquals("Heat", asyncWaiter.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,372 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A local stand-in for the TMDB API, used by tests and benchmarks so they run offline.
+ * Serves a synthetic popular list where movie {@code page * 100 + i} is the i-th entry
+ * of each page, with a configurable delay before every response. Any person's credits
+ * list every popular movie, any movie's similar list is the first popular page, and a
+ * title search finds a movie only by its {@link #titleOf(long)} title.
+ */
+public class StubTmdbServer implements AutoCloseable {
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private volatile int pages;
+    private final int moviesPerPage;
+    private final long latencyMs;
+    private final Map<Long, Long> extraDelayMs = new ConcurrentHashMap<>();
+    private final Set<Long> failingMovies = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Double> popularityOverrides = new ConcurrentHashMap<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger throttleRemaining = new AtomicInteger();
+    private final AtomicInteger throttled = new AtomicInteger();
+    private volatile String retryAfter;
+    private final AtomicInteger notModified = new AtomicInteger();
+    private volatile int maxAgeSeconds = -1;
+
+    /**
+     * Starts a stub server on an ephemeral localhost port.
+     *
+     * @param pages The number of non-empty popular pages.
+     * @param moviesPerPage The number of movies on each popular page.
+     * @param latencyMs The delay added before every response.
+     */
+    public StubTmdbServer(int pages, int moviesPerPage, long latencyMs) throws IOException {
+        this.pages = pages;
+        this.moviesPerPage = moviesPerPage;
+        this.latencyMs = latencyMs;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Creates a TMDBClient for tests that must not reach TMDB: it points at a closed
+     * local port, does not retry and caches nothing on disk.
+     */
+    public static TMDBClient offlineClient() {
+        return new TMDBClient("http://127.0.0.1:1/3", "fake-api-key", HttpClient.newHttpClient(), 1,
+                Duration.ofSeconds(1), new AdaptiveRateLimiter(100, 1, 0, Duration.ofMillis(1)), null);
+    }
+
+    /**
+     * Creates a catalogue store in a new temporary directory, deleted when the JVM
+     * exits, so tests never write movie_cache.bin or its deltas to the working
+     * directory.
+     */
+    public static CatalogueStore tempStore() throws IOException {
+        Path dir = Files.createTempDirectory("catalogue");
+        Path base = dir.resolve("movie_cache.bin");
+        Path deltas = dir.resolve("movie_cache.delta");
+        // Deleted in reverse order, so the directory is empty by then
+        dir.toFile().deleteOnExit();
+        base.toFile().deleteOnExit();
+        deltas.toFile().deleteOnExit();
+        return new CatalogueStore(base, deltas);
+    }
+
+    /**
+     * Returns the API root to pass to the TMDBClient.
+     */
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/3";
+    }
+
+    /**
+     * Creates a TMDBClient pointed at this server, with a rate limit too high to slow
+     * it down and short retry backoffs.
+     *
+     * @param maxInFlight The client's in-flight limit.
+     * @param timeout The client's per-request timeout.
+     */
+    public TMDBClient newClient(int maxInFlight, Duration timeout) {
+        return newClient(maxInFlight, timeout,
+                new AdaptiveRateLimiter(100_000, 1, 3, Duration.ofMillis(5)));
+    }
+
+    /**
+     * Creates a TMDBClient pointed at this server.
+     *
+     * @param maxInFlight The client's in-flight limit.
+     * @param timeout The client's per-request timeout.
+     * @param rateLimiter The client's rate limiter.
+     */
+    public TMDBClient newClient(int maxInFlight, Duration timeout, AdaptiveRateLimiter rateLimiter) {
+        return newClient(maxInFlight, timeout, rateLimiter, null);
+    }
+
+    /**
+     * Creates a TMDBClient pointed at this server that caches responses.
+     *
+     * @param maxInFlight The client's in-flight limit.
+     * @param timeout The client's per-request timeout.
+     * @param rateLimiter The client's rate limiter.
+     * @param cache The client's response cache, or null for none.
+     */
+    public TMDBClient newClient(int maxInFlight, Duration timeout, AdaptiveRateLimiter rateLimiter,
+                                ResponseCache cache) {
+        return new TMDBClient(baseUrl(), "stub-key", HttpClient.newHttpClient(),
+                maxInFlight, timeout, rateLimiter, cache);
+    }
+
+    /**
+     * Creates a TMDBClient pointed at this server that caches responses, with the
+     * same limits as {@link #newClient(int, Duration)}.
+     */
+    public TMDBClient newCachingClient(ResponseCache cache) {
+        return newClient(8, Duration.ofSeconds(5),
+                new AdaptiveRateLimiter(100_000, 1, 3, Duration.ofMillis(5)), cache);
+    }
+
+    /**
+     * Adds extra delay to the details response of one movie.
+     */
+    public void delayMovie(long movieId, long delayMs) {
+        extraDelayMs.put(movieId, delayMs);
+    }
+
+    /**
+     * Makes the details request for one movie fail with HTTP 500.
+     */
+    public void failMovie(long movieId) {
+        failingMovies.add(movieId);
+    }
+
+    /**
+     * Makes the details request for a movie passed to {@link #failMovie(long)} succeed again.
+     */
+    public void recoverMovie(long movieId) {
+        failingMovies.remove(movieId);
+    }
+
+    /**
+     * Changes the number of non-empty popular pages, e.g. to add movies to the list.
+     */
+    public void setPages(int pages) {
+        this.pages = pages;
+    }
+
+    /**
+     * Makes the popular list and details response report a different popularity for
+     * one movie.
+     */
+    public void setPopularity(long movieId, double popularity) {
+        popularityOverrides.put(movieId, popularity);
+    }
+
+    /**
+     * Answers the next requests, whatever they are for, with HTTP 429.
+     *
+     * @param count How many requests to throttle.
+     * @param retryAfter The Retry-After header to send, or null to send none.
+     */
+    public void throttleNext(int count, String retryAfter) {
+        this.retryAfter = retryAfter;
+        throttleRemaining.set(count);
+    }
+
+    /**
+     * Sends a Cache-Control max-age with every response; a negative value sends none.
+     */
+    public void setMaxAge(int seconds) {
+        maxAgeSeconds = seconds;
+    }
+
+    /**
+     * Returns how many requests were answered 304 Not Modified.
+     */
+    public int getNotModifiedCount() {
+        return notModified.get();
+    }
+
+    public int getThrottledCount() {
+        return throttled.get();
+    }
+
+    public int getRequestCount() {
+        return requests.get();
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight.get();
+    }
+
+    /**
+     * Returns the expected title of a stub movie.
+     */
+    public static String titleOf(long movieId) {
+        return "Movie " + movieId;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            String path = exchange.getRequestURI().getPath();
+            String query = exchange.getRequestURI().getQuery();
+            String body;
+            int status = 200;
+            long delay = latencyMs;
+            if (throttleRemaining.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                throttled.incrementAndGet();
+                status = 429;
+                body = "{\"status_code\":25,\"status_message\":\"Request count over limit\"}";
+                if (retryAfter != null) {
+                    exchange.getResponseHeaders().set("Retry-After", retryAfter);
+                }
+            } else if (path.endsWith("/movie/popular")) {
+                body = popularPage(Integer.parseInt(param(query, "page")));
+            } else if (path.matches(".*/movie/\\d+")) {
+                long id = Long.parseLong(path.substring(path.lastIndexOf('/') + 1));
+                delay += extraDelayMs.getOrDefault(id, 0L);
+                if (failingMovies.contains(id)) {
+                    status = 500;
+                    body = "{\"status_message\":\"Internal error\"}";
+                } else {
+                    body = details(id);
+                }
+            } else if (path.endsWith("/search/movie")) {
+                body = searchMovie(URLDecoder.decode(param(query, "query"), StandardCharsets.UTF_8));
+            } else if (path.endsWith("/search/person")) {
+                body = "{\"results\":[{\"id\":1}]}";
+            } else if (path.endsWith("/movie_credits")) {
+                body = "{\"cast\":" + idList(1, pages) + "}";
+            } else if (path.endsWith("/similar")) {
+                body = "{\"results\":" + idList(1, 1) + "}";
+            } else {
+                body = "{\"results\":[]}";
+            }
+            sleep(delay);
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            if (status == 200) {
+                String etag = "\"" + Integer.toHexString(body.hashCode()) + "\"";
+                exchange.getResponseHeaders().set("ETag", etag);
+                if (maxAgeSeconds >= 0) {
+                    exchange.getResponseHeaders().set("Cache-Control", "public, max-age=" + maxAgeSeconds);
+                }
+                if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    notModified.incrementAndGet();
+                    exchange.sendResponseHeaders(304, -1);
+                    return;
+                }
+            }
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } catch (IOException e) {
+            // The client gave up (e.g. timed out) before the response was written.
+        } finally {
+            inFlight.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    private String popularPage(int page) {
+        StringJoiner results = new StringJoiner(",", "[", "]");
+        if (page <= pages) {
+            for (int i = 0; i < moviesPerPage; i++) {
+                long id = page * 100L + i;
+                results.add("{\"id\":" + id + ",\"title\":\"" + titleOf(id) + "\","
+                        + "\"release_date\":\"" + yearOf(id) + "-01-01\","
+                        + "\"popularity\":" + popularity(id) + ",\"vote_count\":" + id % 1000 + "}");
+            }
+        }
+        return "{\"page\":" + page + ",\"results\":" + results + "}";
+    }
+
+    /**
+     * Returns a JSON array of {"id": ...} objects for every movie on the given pages.
+     */
+    private String idList(int fromPage, int toPage) {
+        StringJoiner json = new StringJoiner(",", "[", "]");
+        for (int page = fromPage; page <= toPage; page++) {
+            for (int i = 0; i < moviesPerPage; i++) {
+                json.add("{\"id\":" + (page * 100L + i) + "}");
+            }
+        }
+        return json.toString();
+    }
+
+    /**
+     * Finds a title of the form produced by {@link #titleOf(long)}, ignoring case and
+     * surrounding spaces as TMDB does; anything else has no results.
+     */
+    private String searchMovie(String title) {
+        Matcher matcher = Pattern.compile("(?i)\\s*movie (\\d+)\\s*").matcher(title);
+        if (!matcher.matches()) {
+            return "{\"results\":[]}";
+        }
+        return "{\"results\":[{\"id\":" + matcher.group(1) + "}]}";
+    }
+
+    private String details(long id) {
+        return "{\"id\":" + id + ",\"title\":\"" + titleOf(id) + "\","
+                + "\"release_date\":\"" + yearOf(id) + "-01-01\","
+                + "\"popularity\":" + popularity(id) + ",\"vote_count\":" + id % 1000 + ","
+                + "\"genres\":[{\"name\":\"Drama\"}],"
+                + "\"credits\":{\"cast\":[{\"name\":\"Actor " + id % 7 + "\"},"
+                + "{\"name\":\"Actor " + (id % 7 + 1) + "\"}],"
+                + "\"crew\":[{\"name\":\"Director " + id % 5 + "\",\"job\":\"Director\"}]}}";
+    }
+
+    private static long yearOf(long id) {
+        return 1990 + id % 30;
+    }
+
+    private double popularity(long id) {
+        return popularityOverrides.getOrDefault(id, popularityOf(id));
+    }
+
+    /**
+     * Returns the popularity the details response reports for a movie, unless
+     * overridden; later movies are less popular, as on TMDB's popular list.
+     */
+    static double popularityOf(long id) {
+        return 10_000.0 / id;
+    }
+
+    private static String param(String query, String name) {
+        for (String pair : query.split("&")) {
+            if (pair.startsWith(name + "=")) {
+                return pair.substring(name.length() + 1);
+            }
+        }
+        return "";
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
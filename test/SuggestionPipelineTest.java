@@ -0,0 +1,156 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class SuggestionPipelineTest {
+
+    private static final List<String> TITLES = List.of("Heat", "Hereditary", "Her", "The Heat", "Halloween");
+
+    private ScheduledExecutorService timer;
+    // Tasks for the owner's thread, run by the test itself
+    private BlockingQueue<Runnable> owner;
+    private List<String> lookups;
+    private List<List<String>> published;
+    private volatile CountDownLatch lookupGate;
+
+    @Before
+    public void setUp() {
+        timer = Executors.newSingleThreadScheduledExecutor();
+        owner = new LinkedBlockingQueue<>();
+        lookups = new CopyOnWriteArrayList<>();
+        published = new ArrayList<>();
+        lookupGate = new CountDownLatch(0);
+    }
+
+    @After
+    public void tearDown() {
+        timer.shutdownNow();
+    }
+
+    private List<String> lookup(String prefix) {
+        lookups.add(prefix);
+        try {
+            lookupGate.await();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+        String key = TitleIndex.key(prefix);
+        return TITLES.stream().filter(title -> TitleIndex.key(title).startsWith(key)).toList();
+    }
+
+    private SuggestionPipeline pipeline(long debounceMillis) {
+        return new SuggestionPipeline(this::lookup, timer, owner::add, debounceMillis, published::add);
+    }
+
+    /** Runs the owner's tasks until no lookup is pending. */
+    private void settle(SuggestionPipeline pipeline) throws InterruptedException {
+        while (pipeline.isPending()) {
+            Runnable task = owner.poll(5, TimeUnit.SECONDS);
+            assertNotNull("lookup never finished", task);
+            task.run();
+        }
+    }
+
+    @Test
+    public void testLookupResultIsPublished() throws InterruptedException {
+        SuggestionPipeline pipeline = pipeline(0);
+        pipeline.update("he");
+        settle(pipeline);
+
+        assertEquals(List.of("Heat", "Hereditary", "Her"), pipeline.suggestions());
+        assertEquals(List.of(List.of("Heat", "Hereditary", "Her")), published);
+    }
+
+    @Test
+    public void testUnchangedPrefixDoesNothing() throws InterruptedException {
+        SuggestionPipeline pipeline = pipeline(0);
+        pipeline.update("he");
+        settle(pipeline);
+        pipeline.update("he");
+
+        assertFalse(pipeline.isPending());
+        assertEquals(List.of("he"), lookups);
+        assertEquals(1, published.size());
+    }
+
+    @Test
+    public void testBurstOfTypingCostsOneLookup() throws InterruptedException {
+        SuggestionPipeline pipeline = pipeline(200);
+        pipeline.update("h");
+        pipeline.update("he");
+        pipeline.update("hea");
+        pipeline.update("heat");
+        settle(pipeline);
+
+        assertEquals(List.of("heat"), lookups);
+        assertEquals(List.of("Heat"), pipeline.suggestions());
+    }
+
+    @Test
+    public void testExtendedPrefixNarrowsAtOnce() throws InterruptedException {
+        SuggestionPipeline pipeline = pipeline(0);
+        pipeline.update("he");
+        settle(pipeline);
+        lookupGate = new CountDownLatch(1);
+
+        pipeline.update("her");
+        assertEquals(List.of("Hereditary", "Her"), pipeline.suggestions());
+        pipeline.update("here");
+        assertEquals(List.of("Hereditary"), pipeline.suggestions());
+
+        lookupGate.countDown();
+        settle(pipeline);
+        assertEquals(List.of("Hereditary"), pipeline.suggestions());
+    }
+
+    @Test
+    public void testNarrowingMatchesLaterWords() throws InterruptedException {
+        SuggestionPipeline pipeline = new SuggestionPipeline(prefix -> TITLES, timer, owner::add, 0,
+                published::add);
+        pipeline.update("h");
+        settle(pipeline);
+        lookupGate = new CountDownLatch(1);
+        pipeline.update("hea");
+
+        assertEquals(List.of("Heat", "The Heat"), pipeline.suggestions());
+    }
+
+    @Test
+    public void testStaleResultIsDropped() throws InterruptedException {
+        SuggestionPipeline pipeline = pipeline(0);
+        lookupGate = new CountDownLatch(1);
+        pipeline.update("ha");
+        while (lookups.isEmpty()) {
+            Thread.sleep(1);
+        }
+        pipeline.update("he");
+        lookupGate.countDown();
+        settle(pipeline);
+
+        assertEquals(List.of("ha", "he"), lookups);
+        assertEquals(List.of("Heat", "Hereditary", "Her"), pipeline.suggestions());
+        assertFalse(published.contains(List.of("Halloween")));
+    }
+
+    @Test
+    public void testEmptyPrefixClearsAndCancels() throws InterruptedException {
+        SuggestionPipeline pipeline = pipeline(0);
+        pipeline.update("he");
+        settle(pipeline);
+
+        SuggestionPipeline slow = pipeline(200);
+        slow.update("ha");
+        slow.update("");
+        assertFalse(slow.isPending());
+        pipeline.update("");
+        assertEquals(List.of(), pipeline.suggestions());
+
+        Thread.sleep(300);
+        assertEquals(List.of("he"), lookups);
+    }
+}
@@ -0,0 +1,28 @@
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Measures the popular-movie preload against a local stub server, so the effect of
+ * the in-flight limit can be compared offline. An in-flight limit of 1 reproduces
+ * the old one-request-at-a-time behaviour.
+ *
+ * Usage: java TMDBClientBenchmark [pages] [latencyMs]
+ */
+public class TMDBClientBenchmark {
+    public static void main(String[] args) throws Exception {
+        int pages = args.length > 0 ? Integer.parseInt(args[0]) : 25;
+        long latencyMs = args.length > 1 ? Long.parseLong(args[1]) : 20;
+
+        try (StubTmdbServer server = new StubTmdbServer(pages, 20, latencyMs)) {
+            System.out.printf("%d pages x 20 movies, %d ms per response%n", pages, latencyMs);
+            for (int maxInFlight : new int[] {1, 4, 16, 64}) {
+                TMDBClient client = server.newClient(maxInFlight, Duration.ofSeconds(30));
+                long start = System.nanoTime();
+                List<Movie> movies = client.fetchPopularMovies(pages);
+                long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+                System.out.printf("maxInFlight=%-3d %4d movies in %6d ms%n",
+                        maxInFlight, movies.size(), elapsedMs);
+            }
+        }
+    }
+}
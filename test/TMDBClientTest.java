@@ -0,0 +1,328 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class TMDBClientTest {
+
+    private StubTmdbServer server;
+    private final List<Path> cacheDirs = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubTmdbServer(3, 5, 5);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.close();
+        for (Path dir : cacheDirs) {
+            try (Stream<Path> files = Files.walk(dir)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFetchPopularMovies_PreservesRankingOrder() {
+        // Make early movies the slowest so completion order differs from ranking order
+        server.delayMovie(100, 60);
+        server.delayMovie(200, 40);
+        TMDBClient client = server.newClient(8, Duration.ofSeconds(5));
+
+        List<Movie> movies = client.fetchPopularMovies(3);
+
+        List<Long> ids = new ArrayList<>();
+        for (Movie m : movies) {
+            ids.add(m.getMovieId());
+        }
+        assertEquals(Arrays.asList(100L, 101L, 102L, 103L, 104L,
+                200L, 201L, 202L, 203L, 204L,
+                300L, 301L, 302L, 303L, 304L), ids);
+        assertEquals(StubTmdbServer.titleOf(100), movies.get(0).getTitle());
+        assertTrue(movies.get(0).getDirectors().contains("Director 0"));
+    }
+
+    @Test
+    public void testFetchPopularMovies_RespectsInFlightLimit() {
+        TMDBClient client = server.newClient(2, Duration.ofSeconds(5));
+
+        List<Movie> movies = client.fetchPopularMovies(3);
+
+        assertEquals(15, movies.size());
+        assertEquals(18, server.getRequestCount());
+        assertTrue(server.getMaxInFlight() <= 2);
+    }
+
+    @Test(timeout = 10000)
+    public void testBlockingAndAsyncRequestsShareInFlightLimit() {
+        TMDBClient client = server.newClient(3, Duration.ofSeconds(5));
+
+        CompletableFuture<List<Movie>> popular = client.fetchPopularMoviesAsync(3);
+        List<Movie> byActor = client.fetchMoviesByActor("Anyone");
+
+        assertEquals(15, popular.join().size());
+        assertEquals(15, byActor.size());
+        assertTrue(server.getMaxInFlight() <= 3);
+    }
+
+    @Test
+    public void testFetchPopularMovies_SkipsTimedOutMovie() {
+        server.delayMovie(102, 2000);
+        TMDBClient client = server.newClient(8, Duration.ofMillis(300));
+
+        List<Movie> movies = client.fetchPopularMovies(1);
+
+        assertEquals(4, movies.size());
+        for (Movie m : movies) {
+            assertNotEquals(102L, m.getMovieId());
+        }
+    }
+
+    @Test
+    public void testFetchPopularMovies_IgnoresEmptyPages() {
+        TMDBClient client = server.newClient(8, Duration.ofSeconds(5));
+
+        List<Movie> movies = client.fetchPopularMovies(5);
+
+        assertEquals(15, movies.size());
+    }
+
+    @Test
+    public void testFetchMoviesByActor_FansOutDetailLookups() {
+        try (StubTmdbServer slow = new StubTmdbServer(3, 5, 100)) {
+            TMDBClient client = slow.newClient(16, Duration.ofSeconds(5));
+
+            long start = System.nanoTime();
+            List<Movie> movies = client.fetchMoviesByActor("Anyone");
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+            assertEquals(15, movies.size());
+            assertEquals(100L, movies.get(0).getMovieId());
+            assertEquals(304L, movies.get(14).getMovieId());
+            // search + credits + one parallel round of details, far below 17 serial calls
+            assertTrue("took " + elapsedMs + " ms", elapsedMs < 1200);
+        } catch (Exception e) {
+            fail(e.toString());
+        }
+    }
+
+    @Test
+    public void testFetchMoviesByActor_ReturnsPartialResultsOnFailure() {
+        server.failMovie(201);
+        server.failMovie(302);
+        TMDBClient client = server.newClient(8, Duration.ofSeconds(5));
+
+        List<Movie> movies = client.fetchMoviesByActor("Anyone");
+
+        assertEquals(13, movies.size());
+        for (Movie m : movies) {
+            assertNotEquals(201L, m.getMovieId());
+            assertNotEquals(302L, m.getMovieId());
+        }
+    }
+
+    @Test
+    public void testFetchSimilarMovies_CancelsLookupsAfterTimeout() {
+        server.delayMovie(103, 5000);
+        TMDBClient client = server.newClient(8, Duration.ofSeconds(10));
+        Movie reference = new Movie(1L, "Reference", 2000,
+                Set.of(), Set.of(), Set.of(), Set.of(), Set.of(), Set.of());
+
+        long start = System.nanoTime();
+        List<Movie> movies = client.fetchSimilarMovies(reference, Duration.ofMillis(500));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(4, movies.size());
+        assertTrue("took " + elapsedMs + " ms", elapsedMs < 2000);
+    }
+
+    @Test
+    public void testFetchMoviesByActor_StopsWhenInterrupted() throws Exception {
+        server.delayMovie(100, 5000);
+        TMDBClient client = server.newClient(8, Duration.ofSeconds(10));
+        List<List<Movie>> result = new ArrayList<>();
+
+        Thread caller = new Thread(() -> result.add(client.fetchMoviesByActor("Anyone")));
+        long start = System.nanoTime();
+        caller.start();
+        Thread.sleep(500);
+        caller.interrupt();
+        caller.join(3000);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertFalse(caller.isAlive());
+        assertTrue("took " + elapsedMs + " ms", elapsedMs < 3000);
+        assertEquals(14, result.get(0).size());
+    }
+
+    @Test
+    public void testFetchPopularMovies_ReadsPopularity() {
+        TMDBClient client = server.newClient(8, Duration.ofSeconds(5));
+
+        Movie first = client.fetchPopularMovies(1).get(0);
+
+        assertEquals(StubTmdbServer.popularityOf(first.getMovieId()), first.getPopularity(), 1e-9);
+        assertEquals(first.getMovieId() % 1000, first.getVoteCount());
+    }
+
+    @Test(timeout = 10000)
+    public void testConcurrentDetailLookupsAreCoalesced() throws Exception {
+        try (StubTmdbServer slow = new StubTmdbServer(1, 5, 200)) {
+            TMDBClient client = slow.newClient(16, Duration.ofSeconds(5));
+            Movie reference = new Movie();
+
+            // Both similar lists are the first popular page, fetched at the same time
+            CompletableFuture<List<Movie>> first =
+                    CompletableFuture.supplyAsync(() -> client.fetchSimilarMovies(reference));
+            CompletableFuture<List<Movie>> second =
+                    CompletableFuture.supplyAsync(() -> client.fetchSimilarMovies(reference));
+            CompletableFuture<List<Movie>> popular = client.fetchPopularMoviesAsync(1);
+
+            assertEquals(5, first.get().size());
+            assertEquals(5, second.get().size());
+            assertEquals(5, popular.get().size());
+            // Two similar lists and one popular page, but each movie's details only once
+            assertEquals(3 + 5, slow.getRequestCount());
+        }
+    }
+
+    @Test
+    public void testThrottledRequestsAreRetried() {
+        server.throttleNext(2, "0");
+        TMDBClient client = server.newClient(8, Duration.ofSeconds(5));
+
+        List<Movie> movies = client.fetchPopularMovies(1);
+
+        assertEquals(5, movies.size());
+        AdaptiveRateLimiter limiter = client.getRateLimiter();
+        assertEquals(2, limiter.getThrottledCount());
+        assertEquals(2, limiter.getRetryCount());
+        assertEquals(0, limiter.getFailureCount());
+        assertEquals(6 + 2, server.getRequestCount());
+    }
+
+    @Test(timeout = 10000)
+    public void testRetryAfterIsHonoured() {
+        server.throttleNext(1, "1");
+        TMDBClient client = server.newClient(8, Duration.ofSeconds(5));
+
+        long start = System.nanoTime();
+        Movie movie = client.fetchMovieByTitle("Movie 100");
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertNotNull(movie);
+        assertTrue("took " + elapsedMs + " ms", elapsedMs >= 950);
+        assertTrue(client.getRateLimiter().getRate() < client.getRateLimiter().getMaxRate());
+    }
+
+    @Test
+    public void testGivesUpAfterLastRetry() {
+        server.throttleNext(100, null);
+        TMDBClient client = server.newClient(8, Duration.ofSeconds(5));
+
+        assertNull(client.fetchMovieByTitle("Movie 100"));
+        assertEquals(4, server.getRequestCount());
+        assertEquals(1, client.getRateLimiter().getFailureCount());
+    }
+
+    @Test
+    public void testServerErrorsAreRetried() {
+        server.failMovie(100);
+        TMDBClient client = server.newClient(8, Duration.ofSeconds(5));
+
+        List<Movie> movies = client.fetchPopularMovies(1);
+
+        assertEquals(4, movies.size());
+        // The popular page, four movies once each, and movie 100 four times
+        assertEquals(1 + 4 + 4, server.getRequestCount());
+        assertEquals(1, client.getRateLimiter().getFailureCount());
+    }
+
+    @Test
+    public void testParseRetryAfter() {
+        assertEquals(Duration.ofSeconds(30), TMDBClient.parseRetryAfter(" 30 "));
+        assertEquals(Duration.ZERO, TMDBClient.parseRetryAfter("Wed, 21 Oct 2015 07:28:00 GMT"));
+        assertNull(TMDBClient.parseRetryAfter("soon"));
+    }
+
+    private Path tempCacheDir() throws IOException {
+        Path dir = Files.createTempDirectory("tmdb-cache");
+        cacheDirs.add(dir);
+        return dir;
+    }
+
+    @Test
+    public void testCachedResponsesSurviveRestart() throws Exception {
+        Path dir = tempCacheDir();
+        try (ResponseCache cache = new ResponseCache(dir, Duration.ofHours(1), false)) {
+            assertEquals(5, server.newCachingClient(cache).fetchPopularMovies(1).size());
+        }
+        int requests = server.getRequestCount();
+
+        try (ResponseCache cache = new ResponseCache(dir, Duration.ofHours(1), false)) {
+            TMDBClient client = server.newCachingClient(cache);
+            List<Movie> movies = client.fetchPopularMovies(1);
+            assertNotNull(client.fetchMovieByTitle("Movie 100"));
+
+            assertEquals(5, movies.size());
+            assertEquals(StubTmdbServer.titleOf(100), movies.get(0).getTitle());
+            // Only the title search was new
+            assertEquals(requests + 1, server.getRequestCount());
+            assertEquals(6 + 1, cache.getHitCount());
+        }
+    }
+
+    @Test
+    public void testStaleResponsesAreRevalidated() throws Exception {
+        server.setMaxAge(0);
+        try (ResponseCache cache = new ResponseCache(tempCacheDir(), Duration.ofHours(1), false)) {
+            TMDBClient client = server.newCachingClient(cache);
+            client.fetchPopularMovies(1);
+
+            List<Movie> movies = client.fetchPopularMovies(1);
+
+            assertEquals(5, movies.size());
+            assertEquals(6 + 6, server.getRequestCount());
+            assertEquals(6, server.getNotModifiedCount());
+            assertEquals(6, cache.getRevalidationCount());
+        }
+    }
+
+    @Test
+    public void testOfflineClientUsesRecordedResponses() throws Exception {
+        Path dir = tempCacheDir();
+        try (ResponseCache cache = new ResponseCache(dir, Duration.ZERO, false)) {
+            TMDBClient client = server.newCachingClient(cache);
+            client.fetchPopularMovies(1);
+            client.fetchMoviesByActor("Anyone");
+        }
+        server.close();
+
+        try (ResponseCache cache = new ResponseCache(dir, Duration.ZERO, true)) {
+            TMDBClient client = server.newCachingClient(cache);
+
+            assertEquals(5, client.fetchPopularMovies(1).size());
+            assertEquals(15, client.fetchMoviesByActor("Anyone").size());
+            assertNull(client.fetchMovieByTitle("Movie 100"));
+        }
+    }
+
+    @Test
+    public void testParseMaxAge() {
+        assertEquals(Duration.ofSeconds(3600), TMDBClient.parseMaxAge("public, max-age=3600"));
+        assertEquals(Duration.ZERO, TMDBClient.parseMaxAge("no-cache"));
+        assertNull(TMDBClient.parseMaxAge(""));
+    }
+}
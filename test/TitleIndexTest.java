@@ -0,0 +1,100 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TitleIndexTest {
+
+    private TitleIndex index;
+    private Movie dune1984;
+    private Movie dune2021;
+
+    private static Movie movie(long id, String title, int year, double popularity) {
+        return new Movie(id, title, year, popularity, 0, Set.of(), Set.of(), Set.of(),
+                Set.of(), Set.of(), Set.of());
+    }
+
+    @Before
+    public void setUp() {
+        index = new TitleIndex();
+        dune1984 = movie(841L, "Dune", 1984, 30.0);
+        dune2021 = movie(438631L, "Dune", 2021, 250.0);
+        index.add(dune1984);
+        index.add(dune2021);
+        index.add(movie(557L, "Spider-Man", 2002, 90.0));
+        index.add(movie(194L, "Le Fabuleux Destin d'Amélie Poulain", 2001, 40.0));
+        index.add(movie(424L, "Schindler's List", 1993, 60.0));
+    }
+
+    @Test
+    public void testKeyFoldsCaseAndSpacing() {
+        assertEquals("the dark knight", TitleIndex.key("  The   DARK knight "));
+        assertEquals("spider man", TitleIndex.key("Spider-Man"));
+        assertEquals("schindlers list", TitleIndex.key("Schindler’s List"));
+        assertEquals("fast and furious", TitleIndex.key("Fast & Furious"));
+        assertEquals("mission impossible fallout", TitleIndex.key("Mission: Impossible – Fallout"));
+    }
+
+    @Test
+    public void testKeyFoldsUnicode() {
+        assertEquals("le fabuleux destin damelie poulain",
+                TitleIndex.key("Le Fabuleux Destin d'Amélie Poulain"));
+        assertEquals("strasse", TitleIndex.key("STRAßE"));
+        assertEquals("wall e", TitleIndex.key("WALL·E"));
+        assertEquals("", TitleIndex.key("?!"));
+    }
+
+    @Test
+    public void testFindIgnoresCaseAccentsAndPunctuation() {
+        assertEquals(557L, index.find("spider man").getMovieId());
+        assertEquals(557L, index.find("SPIDER-MAN").getMovieId());
+        assertEquals(194L, index.find("le fabuleux destin d'amelie poulain").getMovieId());
+        assertEquals(424L, index.find("schindlers list").getMovieId());
+        assertNull(index.find("Spider"));
+    }
+
+    @Test
+    public void testYearPicksAmongEqualTitles() {
+        assertSame(dune1984, index.find("Dune (1984)"));
+        assertSame(dune2021, index.find("dune(2021)"));
+        assertTrue(index.isAmbiguous("DUNE"));
+        assertFalse(index.isAmbiguous("Spider-Man"));
+    }
+
+    @Test
+    public void testTitleAloneFindsMostPopularButWrongYearFindsNothing() {
+        assertSame(dune2021, index.find("Dune"));
+        assertNull(index.find("Dune (1999)"));
+    }
+
+    @Test
+    public void testYearThatIsPartOfTitle() {
+        Movie movie1917 = movie(530915L, "1917", 2019, 50.0);
+        index.add(movie1917);
+        assertSame(movie1917, index.find("1917"));
+        assertSame(movie1917, index.find("1917 (2019)"));
+    }
+
+    @Test
+    public void testDuplicateIdIgnored() {
+        assertFalse(index.add(movie(841L, "Dune", 1984, 30.0)));
+        assertEquals(5, index.size());
+        assertEquals(5, index.movies().size());
+    }
+
+    @Test
+    public void testCopyIsIndependent() {
+        TitleIndex copy = index.copy();
+        Movie remake = movie(999L, "Dune", 2030, 500.0);
+        copy.add(remake);
+
+        assertSame(remake, copy.find("dune"));
+        assertSame(dune2021, index.find("dune"));
+        assertTrue(copy.contains(999L));
+        assertFalse(index.contains(999L));
+        assertEquals(5, index.size());
+        assertEquals(6, copy.size());
+    }
+}
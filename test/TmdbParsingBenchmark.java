@@ -0,0 +1,143 @@
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Measures the allocation and time per details response of the streaming reader
+ * against the previous String + JsonNode tree parse. The response is either a saved
+ * TMDB details response (with append_to_response=credits) or, by default, a
+ * synthetic one with TMDB's field layout and a typical credits size.
+ *
+ * Usage: java TmdbParsingBenchmark [details.json] [iterations]
+ */
+public class TmdbParsingBenchmark {
+    public static void main(String[] args) throws Exception {
+        byte[] body = args.length > 0
+                ? Files.readAllBytes(Path.of(args[0]))
+                : recordedDetails(60, 150).getBytes(StandardCharsets.UTF_8);
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+
+        ObjectMapper mapper = new ObjectMapper();
+        JsonFactory factory = new JsonFactory();
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        Movie legacy = legacyParse(mapper, body);
+        Movie streamed = streamingParse(factory, body);
+        if (!legacy.getTitle().equals(streamed.getTitle())
+                || !legacy.getActors().equals(streamed.getActors())
+                || !legacy.getDirectors().equals(streamed.getDirectors())
+                || !legacy.getGenres().equals(streamed.getGenres())) {
+            throw new IllegalStateException("Readers disagree");
+        }
+
+        System.out.printf("%d-byte details response, %d iterations%n", body.length, iterations);
+        for (int round = 0; round < 3; round++) {
+            long sink = 0;
+            long bytes = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                sink += legacyParse(mapper, body).getActors().size();
+            }
+            long legacyNanos = System.nanoTime() - start;
+            long legacyBytes = threads.getCurrentThreadAllocatedBytes() - bytes;
+
+            bytes = threads.getCurrentThreadAllocatedBytes();
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                sink += streamingParse(factory, body).getActors().size();
+            }
+            long streamNanos = System.nanoTime() - start;
+            long streamBytes = threads.getCurrentThreadAllocatedBytes() - bytes;
+
+            System.out.printf("round %d: String + tree %7d B %6.1f us | streaming %6d B %6.1f us (sink %d)%n",
+                    round, legacyBytes / iterations, legacyNanos / 1e3 / iterations,
+                    streamBytes / iterations, streamNanos / 1e3 / iterations, sink);
+        }
+    }
+
+    private static Movie streamingParse(JsonFactory factory, byte[] body) throws Exception {
+        try (JsonParser parser = factory.createParser(new ByteArrayInputStream(body))) {
+            return TmdbResponses.readMovieDetails(1, parser);
+        }
+    }
+
+    /**
+     * The parse TMDBClient used before streaming: the body as a String, then a tree.
+     */
+    private static Movie legacyParse(ObjectMapper mapper, byte[] body) throws Exception {
+        JsonNode root = mapper.readTree(new String(body, StandardCharsets.UTF_8));
+        String title = root.path("title").asText();
+        int year = Integer.parseInt(root.path("release_date").asText().split("-")[0]);
+        Set<String> genres = new HashSet<>();
+        for (JsonNode genre : root.path("genres")) {
+            genres.add(genre.path("name").asText());
+        }
+        Set<String> actors = new HashSet<>();
+        for (JsonNode cast : root.path("credits").path("cast")) {
+            if (actors.size() >= 5) {
+                break;
+            }
+            actors.add(cast.path("name").asText());
+        }
+        Set<String> directors = new HashSet<>();
+        for (JsonNode crew : root.path("credits").path("crew")) {
+            if ("Director".equals(crew.path("job").asText())) {
+                directors.add(crew.path("name").asText());
+            }
+        }
+        return new Movie(1, title, year, root.path("popularity").asDouble(),
+                root.path("vote_count").asInt(), genres, actors, directors,
+                Set.of(), Set.of(), Set.of());
+    }
+
+    /**
+     * Builds a details response with the fields and credit entries TMDB returns.
+     */
+    static String recordedDetails(int castSize, int crewSize) {
+        StringJoiner cast = new StringJoiner(",", "[", "]");
+        for (int i = 0; i < castSize; i++) {
+            cast.add("{\"adult\":false,\"gender\":" + (i % 3) + ",\"id\":" + (10_000 + i)
+                    + ",\"known_for_department\":\"Acting\",\"name\":\"Cast Member " + i + "\","
+                    + "\"original_name\":\"Cast Member " + i + "\",\"popularity\":" + (50.0 / (i + 1)) + ","
+                    + "\"profile_path\":\"/p" + i + "abcdefghijklmnop.jpg\",\"cast_id\":" + i + ","
+                    + "\"character\":\"Character " + i + "\",\"credit_id\":\"52fe4" + i + "c3c9251416c75\","
+                    + "\"order\":" + i + "}");
+        }
+        StringJoiner crew = new StringJoiner(",", "[", "]");
+        String[] jobs = {"Director", "Screenplay", "Producer", "Editor", "Original Music Composer",
+                "Director of Photography", "Casting", "Sound Designer", "Visual Effects Supervisor"};
+        for (int i = 0; i < crewSize; i++) {
+            String job = i == 0 ? "Director" : jobs[1 + i % (jobs.length - 1)];
+            crew.add("{\"adult\":false,\"gender\":" + (i % 3) + ",\"id\":" + (20_000 + i)
+                    + ",\"known_for_department\":\"Crew\",\"name\":\"Crew Member " + i + "\","
+                    + "\"original_name\":\"Crew Member " + i + "\",\"popularity\":" + (20.0 / (i + 1)) + ","
+                    + "\"profile_path\":null,\"credit_id\":\"5a2d7" + i + "c3c9251416c75\","
+                    + "\"department\":\"Department\",\"job\":\"" + job + "\"}");
+        }
+        return "{\"adult\":false,\"backdrop_path\":\"/xJHokMbljvjADYdit5fK5VQsXEG.jpg\","
+                + "\"belongs_to_collection\":null,\"budget\":165000000,"
+                + "\"genres\":[{\"id\":12,\"name\":\"Adventure\"},{\"id\":18,\"name\":\"Drama\"},"
+                + "{\"id\":878,\"name\":\"Science Fiction\"}],"
+                + "\"homepage\":\"http://www.interstellarmovie.net/\",\"id\":157336,\"imdb_id\":\"tt0816692\","
+                + "\"original_language\":\"en\",\"original_title\":\"Interstellar\","
+                + "\"overview\":\"" + "The adventures of a group of explorers who make use of a newly discovered "
+                .repeat(4) + "\",\"popularity\":140.25,\"poster_path\":\"/gEU2QniE6E77NI6lCU6MxlNBvIx.jpg\","
+                + "\"production_companies\":[{\"id\":923,\"logo_path\":\"/8M99Dkt23MjQMTTWukq4m5XsEuo.png\","
+                + "\"name\":\"Legendary Pictures\",\"origin_country\":\"US\"}],"
+                + "\"production_countries\":[{\"iso_3166_1\":\"US\",\"name\":\"United States of America\"}],"
+                + "\"release_date\":\"2014-11-05\",\"revenue\":701729206,\"runtime\":169,"
+                + "\"spoken_languages\":[{\"english_name\":\"English\",\"iso_639_1\":\"en\",\"name\":\"English\"}],"
+                + "\"status\":\"Released\",\"tagline\":\"Mankind was born on Earth. It was never meant to die here.\","
+                + "\"title\":\"Interstellar\",\"video\":false,\"vote_average\":8.4,\"vote_count\":36000,"
+                + "\"credits\":{\"cast\":" + cast + ",\"crew\":" + crew + "}}";
+    }
+}
@@ -0,0 +1,109 @@
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class TmdbResponsesTest {
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private static JsonParser parser(String json) throws IOException {
+        return FACTORY.createParser(json.replace('\'', '"'));
+    }
+
+    @Test
+    public void testReadMovieDetails() throws IOException {
+        String json = "{'adult':false,'belongs_to_collection':{'id':1,'name':'Collection'},"
+                + "'genres':[{'id':18,'name':'Drama'},{'id':878,'name':'Science Fiction'}],"
+                + "'id':157336,'popularity':140.25,'release_date':'2014-11-05',"
+                + "'production_companies':[{'id':1,'name':'Studio','logo_path':null}],"
+                + "'title':'Interstellar','vote_count':36000,"
+                + "'credits':{'cast':[{'id':1,'name':'Matthew McConaughey','character':'Cooper'},"
+                + "{'id':2,'name':'Anne Hathaway','character':'Brand'}],"
+                + "'crew':[{'name':'Hans Zimmer','job':'Original Music Composer'},"
+                + "{'name':'Christopher Nolan','department':'Directing','job':'Director'}]}}";
+
+        Movie movie = TmdbResponses.readMovieDetails(157336, parser(json));
+
+        assertEquals(157336, movie.getMovieId());
+        assertEquals("Interstellar", movie.getTitle());
+        assertEquals(2014, movie.getYear());
+        assertEquals(140.25, movie.getPopularity(), 1e-9);
+        assertEquals(36000, movie.getVoteCount());
+        assertEquals(Set.of("Drama", "Science Fiction"), movie.getGenres());
+        assertEquals(Set.of("Matthew McConaughey", "Anne Hathaway"), movie.getActors());
+        assertEquals(Set.of("Christopher Nolan"), movie.getDirectors());
+    }
+
+    @Test
+    public void testCastIsCappedAndRestSkipped() throws IOException {
+        StringBuilder cast = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            cast.append(i == 0 ? "" : ",")
+                    .append("{'name':'Actor ").append(i).append("','known_for':[{'id':").append(i).append("}]}");
+        }
+        String json = "{'title':'Crowded','release_date':'2001-01-01',"
+                + "'credits':{'cast':[" + cast + "],'crew':[{'job':'Director','name':'Someone'}]}}";
+
+        Movie movie = TmdbResponses.readMovieDetails(1, parser(json));
+
+        assertEquals(TmdbResponses.CAST_LIMIT, movie.getActors().size());
+        assertTrue(movie.getActors().contains("Actor 0"));
+        assertFalse(movie.getActors().contains("Actor 5"));
+        assertEquals(Set.of("Someone"), movie.getDirectors());
+    }
+
+    @Test
+    public void testStopsReadingOnceAllFieldsAreKnown() throws IOException {
+        // Everything after the credits is malformed, so reading it would fail
+        String json = "{'title':'Early','release_date':'1999-01-01','popularity':1.5,'vote_count':3,"
+                + "'genres':[],'credits':{'cast':[],'crew':[]},'trailing': ]]]";
+
+        Movie movie = TmdbResponses.readMovieDetails(1, parser(json));
+
+        assertEquals("Early", movie.getTitle());
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testMissingReleaseDateFails() throws IOException {
+        TmdbResponses.readMovieDetails(1, parser("{'title':'Undated'}"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testNonObjectBodyFails() throws IOException {
+        TmdbResponses.readIds(parser("[1,2,3]"), "results", 10);
+    }
+
+    @Test
+    public void testReadIds() throws IOException {
+        String json = "{'page':1,'total':{'nested':[1,2]},'results':["
+                + "{'genre_ids':[1,2],'id':10,'title':'A'},{'title':'No id'},{'id':11}],'total_pages':3}";
+
+        assertEquals(List.of(10L, 11L), TmdbResponses.readIds(parser(json), "results", 100));
+        assertEquals(List.of(10L), TmdbResponses.readIds(parser(json), "results", 1));
+        assertEquals(List.of(), TmdbResponses.readIds(parser(json), "cast", 100));
+    }
+
+    @Test
+    public void testReadSummaries() throws IOException {
+        String json = "{'page':1,'results':[{'adult':false,'genre_ids':[18],'id':10,'title':'A',"
+                + "'popularity':12.5,'release_date':'1999-03-31','vote_count':40},"
+                + "{'title':'No id'},{'id':11,'title':'B','release_date':''}],'total_pages':3}";
+
+        List<TmdbResponses.Summary> summaries = TmdbResponses.readSummaries(parser(json));
+
+        assertEquals(2, summaries.size());
+        TmdbResponses.Summary first = summaries.get(0);
+        assertEquals(10L, first.id);
+        assertEquals("A", first.title);
+        assertEquals(1999, first.year);
+        assertEquals(12.5, first.popularity, 0.0);
+        assertEquals(40, first.voteCount);
+        assertEquals(11L, summaries.get(1).id);
+        assertEquals(0, summaries.get(1).year);
+    }
+}